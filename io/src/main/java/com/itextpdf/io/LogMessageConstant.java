@@ -113,4 +113,6 @@ public final class LogMessageConstant {
     public static final String WRITER_ENCRYPTION_IS_IGNORED_APPEND = "Writer encryption will be ignored, because append mode is used. Document will preserve the original encryption (or will stay unencrypted)";
     public static final String WRITER_ENCRYPTION_IS_IGNORED_PRESERVE = "Writer encryption will be ignored, because preservation of encryption is enabled. Document will preserve the original encryption (or will stay unencrypted)";
     public static final String XREF_ERROR = "Error occurred while reading cross reference table. Cross reference table will be rebuilt.";
+    public static final String XREF_INDEX_CANNOT_BE_READ = "Cross reference index {0} cannot be read. Cross reference table will be read from the document.";
+    public static final String XREF_INDEX_CANNOT_BE_WRITTEN = "Cross reference index {0} cannot be written.";
 }
@@ -0,0 +1,321 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.source;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * An output stream which writes to a channel on a background thread, so that the thread which produces the data
+ * doesn't wait for slow I/O. The data is collected in a bounded ring of direct buffers: a filled buffer is passed
+ * to the background writer and the next free buffer is taken. If all the buffers are waiting to be written,
+ * the producing thread is blocked until one of them is written, so the number and the size of the buffers limit
+ * the amount of the data held in memory.
+ * <p/>
+ * The buffers are written by the daemon threads of a pool shared by all the streams. A thread is taken only while
+ * there are filled buffers, so a stream which is idle or isn't closed doesn't hold a thread.
+ * <p/>
+ * Errors of the background writer are reported by the subsequent calls of {@link #write(int)}, {@link #flush()}
+ * or {@link #close()}. {@link #flush()} waits until all the written data is passed to the channel, and flushes
+ * the output stream if the data is written to a stream.
+ */
+public class AsyncChannelOutputStream extends java.io.OutputStream {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_BUFFERS_COUNT = 8;
+
+    private static final ExecutorService WRITERS = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "AsyncChannelOutputStream writer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final WritableByteChannel channel;
+    private final AsynchronousFileChannel fileChannel;
+    private long fileChannelPosition;
+    private final Flushable flushTarget;
+
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final BlockingQueue<ByteBuffer> filledBuffers;
+    private ByteBuffer currentBuffer;
+    private final Runnable writer = new Runnable() {
+        @Override
+        public void run() {
+            writeFilledBuffers();
+        }
+    };
+
+    private final Object writtenLock = new Object();
+    private long submittedBuffers;
+    private long writtenBuffers;
+    private boolean writerScheduled;
+    private volatile Throwable writeError;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Creates a new stream which writes to the channel with the default buffers.
+     *
+     * @param channel the channel to write to.
+     */
+    public AsyncChannelOutputStream(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFERS_COUNT, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new stream which writes to the channel.
+     *
+     * @param channel      the channel to write to.
+     * @param buffersCount the number of buffers, at least two.
+     * @param bufferSize   the size of each buffer in bytes.
+     */
+    public AsyncChannelOutputStream(WritableByteChannel channel, int buffersCount, int bufferSize) {
+        this(channel, null, 0, buffersCount, bufferSize, null);
+    }
+
+    /**
+     * Creates a new stream which writes to the output stream. Unlike a channel, the output stream
+     * is also flushed by {@link #flush()} and {@link #finish()}.
+     *
+     * @param outputStream the output stream to write to.
+     * @param buffersCount the number of buffers, at least two.
+     * @param bufferSize   the size of each buffer in bytes.
+     */
+    public AsyncChannelOutputStream(java.io.OutputStream outputStream, int buffersCount, int bufferSize) {
+        this(Channels.newChannel(outputStream), null, 0, buffersCount, bufferSize, outputStream);
+    }
+
+    /**
+     * Creates a new stream which writes to the file channel starting from the given position.
+     *
+     * @param fileChannel  the file channel to write to.
+     * @param position     the position in the file to start writing from.
+     * @param buffersCount the number of buffers, at least two.
+     * @param bufferSize   the size of each buffer in bytes.
+     */
+    public AsyncChannelOutputStream(AsynchronousFileChannel fileChannel, long position, int buffersCount, int bufferSize) {
+        this(null, fileChannel, position, buffersCount, bufferSize, null);
+    }
+
+    private AsyncChannelOutputStream(WritableByteChannel channel, AsynchronousFileChannel fileChannel, long position,
+                                     int buffersCount, int bufferSize, Flushable flushTarget) {
+        if (buffersCount < 2 || bufferSize <= 0) {
+            throw new IllegalArgumentException("At least two buffers of positive size are required.");
+        }
+        this.channel = channel;
+        this.fileChannel = fileChannel;
+        this.fileChannelPosition = position;
+        this.flushTarget = flushTarget;
+        freeBuffers = new ArrayBlockingQueue<>(buffersCount);
+        filledBuffers = new ArrayBlockingQueue<>(buffersCount);
+        for (int i = 1; i < buffersCount; i++) {
+            freeBuffers.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+        currentBuffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkState();
+        currentBuffer.put((byte) b);
+        if (!currentBuffer.hasRemaining()) {
+            submitCurrentBuffer();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkState();
+        while (len > 0) {
+            int count = Math.min(len, currentBuffer.remaining());
+            currentBuffer.put(b, off, count);
+            off += count;
+            len -= count;
+            if (!currentBuffer.hasRemaining()) {
+                submitCurrentBuffer();
+            }
+        }
+    }
+
+    /**
+     * Passes the collected data to the background writer and waits until all the data is written to the channel,
+     * then flushes the output stream the channel writes to, if any.
+     */
+    @Override
+    public void flush() throws IOException {
+        checkState();
+        if (currentBuffer.position() > 0) {
+            submitCurrentBuffer();
+        }
+        synchronized (writtenLock) {
+            while (writtenBuffers < submittedBuffers) {
+                try {
+                    writtenLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new java.io.InterruptedIOException();
+                }
+            }
+        }
+        checkState();
+        if (flushTarget != null) {
+            flushTarget.flush();
+        }
+    }
+
+    /**
+     * Writes the remaining data, the channel is left open. The stream can't be written after that.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            finished = true;
+        }
+    }
+
+    /**
+     * Writes the remaining data and closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            finish();
+        } finally {
+            closed = true;
+            if (channel != null) {
+                channel.close();
+            } else {
+                fileChannel.close();
+            }
+        }
+    }
+
+    private void submitCurrentBuffer() throws IOException {
+        checkState();
+        currentBuffer.flip();
+        // there are never more filled buffers than the queue can hold
+        filledBuffers.add(currentBuffer);
+        boolean scheduleWriter;
+        synchronized (writtenLock) {
+            submittedBuffers++;
+            scheduleWriter = !writerScheduled;
+            writerScheduled = true;
+        }
+        if (scheduleWriter) {
+            WRITERS.execute(writer);
+        }
+        try {
+            currentBuffer = freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException();
+        }
+    }
+
+    private void checkState() throws IOException {
+        if (finished) {
+            throw new IOException("The stream is closed.");
+        }
+        if (writeError != null) {
+            throw new IOException(writeError.getMessage(), writeError);
+        }
+    }
+
+    private void writeFilledBuffers() {
+        for (; ; ) {
+            ByteBuffer buffer;
+            // the writer is scheduled again by the next submitted buffer, so that no thread waits for the data
+            synchronized (writtenLock) {
+                buffer = filledBuffers.poll();
+                if (buffer == null) {
+                    writerScheduled = false;
+                    return;
+                }
+            }
+            if (writeError == null) {
+                try {
+                    writeBuffer(buffer);
+                } catch (Throwable e) {
+                    writeError = e;
+                }
+            }
+            buffer.clear();
+            freeBuffers.add(buffer);
+            synchronized (writtenLock) {
+                writtenBuffers++;
+                writtenLock.notifyAll();
+            }
+        }
+    }
+
+    private void writeBuffer(ByteBuffer buffer) throws IOException, InterruptedException, ExecutionException {
+        while (buffer.hasRemaining()) {
+            if (channel != null) {
+                channel.write(buffer);
+            } else {
+                fileChannelPosition += fileChannel.write(buffer, fileChannelPosition).get();
+            }
+        }
+    }
+}
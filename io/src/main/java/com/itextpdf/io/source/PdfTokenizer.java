@@ -201,6 +201,21 @@ public class PdfTokenizer implements Closeable, Serializable {
         return true;
     }
 
+    /**
+     * Calculates the hash code of the current token value the same way as {@link java.util.Arrays#hashCode(byte[])}
+     * does for {@link #getByteContent()}, but without copying the token value.
+     *
+     * @return the hash code of the current token value
+     */
+    public int getTokenValueHashCode() {
+        byte[] buffer = outBuf.getInternalBuffer();
+        int size = outBuf.size();
+        int hash = 1;
+        for (int i = 0; i < size; i++)
+            hash = 31 * hash + buffer[i];
+        return hash;
+    }
+
     public int getObjNr() {
         return reference;
     }
@@ -233,6 +233,16 @@ public final class RandomAccessSourceFactory implements Serializable {
         return new GroupedRandomAccessSource(sources);
     }
 
+    /**
+     * Creates a {@link IRandomAccessSource} which reads the specified sources one after another
+     * @param sources the sources to be concatenated
+     * @return the newly created {@link IRandomAccessSource}
+     * @throws java.io.IOException if getting the lengths of the sources fails
+     */
+    public IRandomAccessSource createGrouped(IRandomAccessSource[] sources) throws java.io.IOException {
+        return new GroupedRandomAccessSource(sources);
+    }
+
     /**
      * Creates a new {@link IRandomAccessSource} by reading the specified file/resource into memory
      * @param filename the name of the resource to read
@@ -43,6 +43,8 @@
  */
 package com.itextpdf.io.util;
 
+import com.itextpdf.io.source.AsyncChannelOutputStream;
+
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -154,7 +156,8 @@ public final class FileUtil {
     }
 
     public static java.io.OutputStream wrapWithBufferedOutputStream(OutputStream outputStream) {
-        if (outputStream instanceof ByteArrayOutputStream || (outputStream instanceof BufferedOutputStream)) {
+        if (outputStream instanceof ByteArrayOutputStream || (outputStream instanceof BufferedOutputStream)
+                || outputStream instanceof AsyncChannelOutputStream) {
             return outputStream;
         } else {
             return new BufferedOutputStream(outputStream);
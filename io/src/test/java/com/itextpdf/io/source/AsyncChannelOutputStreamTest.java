@@ -0,0 +1,173 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.source;
+
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class AsyncChannelOutputStreamTest {
+
+    @Test
+    public void writeTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        AsyncChannelOutputStream out = new AsyncChannelOutputStream(Channels.newChannel(baos), 2, 16);
+        byte[] expected = new byte[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+        }
+        out.write(expected, 0, 500);
+        for (int i = 500; i < expected.length; i++) {
+            out.write(expected[i]);
+        }
+        out.flush();
+        Assert.assertArrayEquals(expected, baos.toByteArray());
+        out.close();
+    }
+
+    @Test
+    public void writeAfterFinishTest() throws IOException {
+        WritableByteChannel channel = Channels.newChannel(new ByteArrayOutputStream());
+        AsyncChannelOutputStream out = new AsyncChannelOutputStream(channel, 2, 16);
+        out.write(1);
+        out.finish();
+        Assert.assertTrue(channel.isOpen());
+        try {
+            out.write(2);
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+        try {
+            out.write(new byte[] {3}, 0, 1);
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+        out.close();
+        Assert.assertFalse(channel.isOpen());
+    }
+
+    @Test
+    public void flushOutputStreamTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        AsyncChannelOutputStream out = new AsyncChannelOutputStream(new BufferedOutputStream(baos, 1024), 2, 16);
+        out.write(new byte[] {1, 2, 3});
+        out.flush();
+        Assert.assertArrayEquals(new byte[] {1, 2, 3}, baos.toByteArray());
+        out.write(4);
+        out.finish();
+        Assert.assertArrayEquals(new byte[] {1, 2, 3, 4}, baos.toByteArray());
+        out.close();
+    }
+
+    @Test
+    public void writeErrorTest() throws IOException {
+        AsyncChannelOutputStream out = new AsyncChannelOutputStream(new FailingChannel(), 2, 16);
+        out.write(new byte[16], 0, 16);
+        try {
+            out.flush();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals(FailingChannel.MESSAGE, e.getMessage());
+        }
+        // the data written after the error isn't buffered silently
+        try {
+            out.write(1);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals(FailingChannel.MESSAGE, e.getMessage());
+        }
+        try {
+            out.write(new byte[1], 0, 1);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals(FailingChannel.MESSAGE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void streamsDoNotHoldThreadsTest() throws IOException {
+        int streamsCount = 100;
+        AsyncChannelOutputStream[] streams = new AsyncChannelOutputStream[streamsCount];
+        for (int i = 0; i < streamsCount; i++) {
+            // the streams are left open
+            streams[i] = new AsyncChannelOutputStream(Channels.newChannel(new ByteArrayOutputStream()), 2, 16);
+            streams[i].write(new byte[100], 0, 100);
+            streams[i].flush();
+        }
+        int writerThreads = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("AsyncChannelOutputStream writer".equals(thread.getName())) {
+                writerThreads++;
+            }
+        }
+        Assert.assertTrue(writerThreads < streamsCount / 10);
+    }
+
+    private static class FailingChannel implements WritableByteChannel {
+        static final String MESSAGE = "No space left on device";
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            throw new IOException(MESSAGE);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
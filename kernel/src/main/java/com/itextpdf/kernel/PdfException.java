@@ -129,6 +129,7 @@ public class PdfException extends RuntimeException {
     @Deprecated
     public static final String ColorNotFound = "Color not found.";
     public static final String ColorSpaceNotFound = "ColorSpace not found.";
+    public static final String ConcurrentReadingIsSupportedOnlyForDocumentOpenedInReadingMode = "Concurrent reading is supported only for document opened in reading mode.";
     public static final String ContentStreamMustNotInvokeOperatorsThatSpecifyColorsOrOtherColorRelatedParameters = "Content stream must not invoke operators that specify colors or other color related parameters in the graphics state.";
     public static final String DecodeParameterType1IsNotSupported = "Decode parameter type {0} is not supported.";
     public static final String DefaultcryptfilterNotFoundEncryption = "/DefaultCryptFilter not found (encryption).";
@@ -436,6 +436,20 @@ public abstract class PdfFont extends PdfObjectWrapper<PdfDictionary> {
         subsetRanges.add(range);
     }
 
+    /**
+     * Adds the glyphs used with the specified font to the glyphs used with this font, so that they are included
+     * into the subset and the widths of this font when it is flushed. This allows to replace the specified font
+     * with this one in the content copied from another document: both fonts encode the text in the same way
+     * if they have the same font program and encoding.
+     *
+     * @param font the font, the used glyphs of which are to be added
+     * @return {@code true} if the glyphs have been added, {@code false} if the font has another type,
+     * font program or encoding than this font
+     */
+    public boolean addUsedGlyphs(PdfFont font) {
+        return false;
+    }
+
     /**
      * @deprecated Will be removed in 7.1. Use {@link #splitString(String, float, float)} instead
      */
@@ -172,6 +172,25 @@ public abstract class PdfSimpleFont<T extends FontProgram> extends PdfFont {
         return fontEncoding;
     }
 
+    @Override
+    public boolean addUsedGlyphs(PdfFont font) {
+        if (font.getClass() != getClass() || font.fontProgram != fontProgram) {
+            return false;
+        }
+        FontEncoding otherEncoding = ((PdfSimpleFont<?>) font).fontEncoding;
+        if (otherEncoding != fontEncoding && (otherEncoding.isFontSpecific() != fontEncoding.isFontSpecific()
+                || fontEncoding.getBaseEncoding() == null || !fontEncoding.getBaseEncoding().equals(otherEncoding.getBaseEncoding()))) {
+            return false;
+        }
+        byte[] otherShortTag = ((PdfSimpleFont<?>) font).shortTag;
+        for (int k = 0; k < shortTag.length; k++) {
+            if (otherShortTag[k] != 0) {
+                shortTag[k] = 1;
+            }
+        }
+        return true;
+    }
+
     @Override
     public byte[] convertToBytes(String text) {
         byte[] bytes = fontEncoding.convertToBytes(text);
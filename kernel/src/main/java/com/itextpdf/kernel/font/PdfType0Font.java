@@ -606,6 +606,20 @@ public class PdfType0Font extends PdfFont {
         return cmapEncoding;
     }
 
+    @Override
+    public boolean addUsedGlyphs(PdfFont font) {
+        if (!(font instanceof PdfType0Font) || font.fontProgram != fontProgram
+                || !cmapEncoding.getCmapName().equals(((PdfType0Font) font).cmapEncoding.getCmapName())) {
+            return false;
+        }
+        for (Map.Entry<Integer, int[]> entry : ((PdfType0Font) font).longTag.entrySet()) {
+            if (!longTag.containsKey(entry.getKey())) {
+                longTag.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return true;
+    }
+
     /**
      * Creates a ToUnicode CMap to allow copy and paste from Acrobat.
      *
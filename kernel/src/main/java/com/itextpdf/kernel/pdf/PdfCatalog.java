@@ -444,9 +444,8 @@ public class PdfCatalog extends PdfObjectWrapper<PdfDictionary> {
             }
         } else if (dest.isString()) {
             PdfNameTree destsTree = getNameTree(PdfName.Dests);
-            Map<String, PdfObject> dests = destsTree.getNames();
             String srcDestName = ((PdfString) dest).toUnicodeString();
-            PdfArray srcDestArray = (PdfArray) dests.get(srcDestName);
+            PdfArray srcDestArray = (PdfArray) destsTree.getEntry(srcDestName);
             if (srcDestArray != null) {
                 PdfObject pageObject = srcDestArray.get(0);
                 for (PdfPage oldPage : page2page.keySet()) {
@@ -467,7 +466,7 @@ public class PdfCatalog extends PdfObjectWrapper<PdfDictionary> {
     }
 
     private boolean isEqualSameNameDestExist(Map<PdfPage, PdfPage> page2page, PdfDocument toDocument, String srcDestName, PdfArray srcDestArray, PdfPage oldPage) {
-        PdfArray sameNameDest = (PdfArray) toDocument.getCatalog().getNameTree(PdfName.Dests).getNames().get(srcDestName);
+        PdfArray sameNameDest = (PdfArray) toDocument.getCatalog().getNameTree(PdfName.Dests).getEntry(srcDestName);
         boolean equalSameNameDestExists = false;
         if (sameNameDest != null && sameNameDest.getAsDictionary(0) != null) {
             PdfIndirectReference existingDestPageRef = sameNameDest.getAsDictionary(0).getIndirectReference();
@@ -0,0 +1,292 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Storage of the {@link PdfDictionary} entries. Small dictionaries keep their entries in a single array sorted by key,
+ * which is much more compact than a {@link TreeMap}. Once the dictionary grows over {@link #MAX_ARRAY_SIZE} entries,
+ * they are moved to a {@link TreeMap}. In both cases entries are iterated in the same order of keys.
+ */
+class PdfDictionaryMap extends AbstractMap<PdfName, PdfObject> implements Serializable {
+
+    private static final long serialVersionUID = 4529741431234098467L;
+
+    /**
+     * The maximum number of entries stored in the array.
+     */
+    static final int MAX_ARRAY_SIZE = 16;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * Keys and values of the entries in turns.
+     */
+    private Object[] entries = EMPTY;
+    private int size;
+    private TreeMap<PdfName, PdfObject> tree;
+    private transient int modCount;
+
+    PdfDictionaryMap() {
+    }
+
+    @Override
+    public int size() {
+        return tree != null ? tree.size() : size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (tree != null) {
+            return tree.containsKey(key);
+        }
+        return key instanceof PdfName && indexOf((PdfName) key) >= 0;
+    }
+
+    @Override
+    public PdfObject get(Object key) {
+        if (tree != null) {
+            return tree.get(key);
+        }
+        int index = key instanceof PdfName ? indexOf((PdfName) key) : -1;
+        return index >= 0 ? (PdfObject) entries[2 * index + 1] : null;
+    }
+
+    @Override
+    public PdfObject put(PdfName key, PdfObject value) {
+        if (tree != null) {
+            return tree.put(key, value);
+        }
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            PdfObject oldValue = (PdfObject) entries[2 * index + 1];
+            entries[2 * index + 1] = value;
+            return oldValue;
+        }
+        if (size == MAX_ARRAY_SIZE) {
+            tree = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                tree.put((PdfName) entries[2 * i], (PdfObject) entries[2 * i + 1]);
+            }
+            entries = EMPTY;
+            size = 0;
+            return tree.put(key, value);
+        }
+        index = -(index + 1);
+        if (2 * size == entries.length) {
+            Object[] newEntries = new Object[Math.min(Math.max(2 * size, 4), MAX_ARRAY_SIZE) * 2];
+            System.arraycopy(entries, 0, newEntries, 0, 2 * size);
+            entries = newEntries;
+        }
+        System.arraycopy(entries, 2 * index, entries, 2 * index + 2, 2 * (size - index));
+        entries[2 * index] = key;
+        entries[2 * index + 1] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public PdfObject remove(Object key) {
+        if (tree != null) {
+            return tree.remove(key);
+        }
+        int index = key instanceof PdfName ? indexOf((PdfName) key) : -1;
+        if (index < 0) {
+            return null;
+        }
+        PdfObject oldValue = (PdfObject) entries[2 * index + 1];
+        removeAt(index);
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        tree = null;
+        entries = EMPTY;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<PdfName, PdfObject>> entrySet() {
+        return new EntrySet();
+    }
+
+    private int indexOf(PdfName key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = ((PdfName) entries[2 * mid]).compareTo(key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(entries, 2 * index + 2, entries, 2 * index, 2 * (size - index - 1));
+        size--;
+        entries[2 * size] = null;
+        entries[2 * size + 1] = null;
+        modCount++;
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<PdfName, PdfObject>> {
+        @Override
+        public Iterator<Map.Entry<PdfName, PdfObject>> iterator() {
+            return tree != null ? tree.entrySet().iterator() : new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return PdfDictionaryMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            PdfDictionaryMap.this.clear();
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<PdfName, PdfObject>> {
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Map.Entry<PdfName, PdfObject> next() {
+            checkForComodification();
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return new Entry((PdfName) entries[2 * last]);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount || tree != null) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private class Entry implements Map.Entry<PdfName, PdfObject> {
+        private final PdfName key;
+
+        Entry(PdfName key) {
+            this.key = key;
+        }
+
+        @Override
+        public PdfName getKey() {
+            return key;
+        }
+
+        @Override
+        public PdfObject getValue() {
+            return get(key);
+        }
+
+        @Override
+        public PdfObject setValue(PdfObject value) {
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return key.equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            PdfObject value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
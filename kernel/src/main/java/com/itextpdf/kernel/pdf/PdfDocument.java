@@ -212,7 +212,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
     private LinkedHashMap<PdfPage, List<PdfLinkAnnotation>> linkAnnotations = new LinkedHashMap<>();
 
     /**
-     * Cache of already serialized objects from this document for smart mode.
+     * Cache of fingerprints of already serialized objects from this document for smart mode.
      */
     Map<PdfIndirectReference, byte[]> serializedObjectsCache = new HashMap<>();
 
@@ -354,6 +354,53 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         }
     }
 
+    /**
+     * Reads the objects of the given indirect references at once. The objects are read in the order of their
+     * positions in the document and the objects which are close to each other are read from the source with
+     * a single read, which saves the seeks over slow sources. The objects which are already read,
+     * as well as the references which don't belong to the document read by {@link PdfReader}, are skipped.
+     *
+     * @param references the indirect references of the objects to read.
+     */
+    public void resolveObjects(Collection<PdfIndirectReference> references) {
+        checkClosingStatus();
+        if (reader != null) {
+            reader.readObjects(references);
+        }
+    }
+
+    /**
+     * Reads all the objects reachable from the page, e.g. its content streams, resources and annotations,
+     * with {@link #resolveObjects(Collection)}. The objects are read level by level, i.e. the objects referred
+     * by the page dictionary first, then the objects referred by them and so on. Other pages and page tree nodes
+     * are read when they are referred, but the objects reachable from them are not.
+     *
+     * @param pageNum page number.
+     */
+    public void resolvePageObjects(int pageNum) {
+        PdfDictionary pageDictionary = getPage(pageNum).getPdfObject();
+        if (reader == null) {
+            return;
+        }
+        Set<PdfIndirectReference> visited = new HashSet<>();
+        visited.add(pageDictionary.getIndirectReference());
+        List<PdfObject> level = Collections.<PdfObject>singletonList(pageDictionary);
+        while (!level.isEmpty()) {
+            List<PdfIndirectReference> references = new ArrayList<>();
+            for (PdfObject object : level) {
+                collectIndirectReferences(object, visited, references);
+            }
+            reader.readObjects(references);
+            level = new ArrayList<>(references.size());
+            for (PdfIndirectReference reference : references) {
+                PdfObject object = reference.getRefersTo(false);
+                if (object != null && !isPageTreeNode(object)) {
+                    level.add(object);
+                }
+            }
+        }
+    }
+
     /**
      * Get number of indirect objects in the document.
      *
@@ -803,7 +850,8 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     if (isFlushUnusedObjects()) {
                         for (int i = 0; i < xref.size(); i++) {
                             PdfIndirectReference indirectReference = xref.get(i);
-                            if (!indirectReference.isFree() && !indirectReference.checkState(PdfObject.FLUSHED)) {
+                            if (indirectReference != null && !indirectReference.isFree()
+                                    && !indirectReference.checkState(PdfObject.FLUSHED)) {
                                 PdfObject object = indirectReference.getRefersTo();
                                 object.flush();
                             }
@@ -811,6 +859,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     }
 
                 }
+                writer.writePendingObjects();
 
                 PdfObject fileId = getFileId(crypto, writer.properties);
 
@@ -1625,6 +1674,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         try {
             if (reader != null) {
                 reader.pdfDocument = this;
+                reader.setReadObjectsCacheSize(properties.readObjectsCacheSize);
                 reader.readPdf();
                 Counter counter = getCounter();
                 if (counter != null) {
@@ -1666,6 +1716,15 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                 }
                 if (properties.appendMode && (reader.hasRebuiltXref() || reader.hasFixedXref()))
                     throw new PdfException(PdfException.AppendModeRequiresADocumentWithoutErrorsEvenIfRecoveryWasPossible);
+                if (reader.properties.concurrentReading) {
+                    if (writer != null) {
+                        throw new PdfException(PdfException.ConcurrentReadingIsSupportedOnlyForDocumentOpenedInReadingMode);
+                    }
+                    // pages tree isn't thread safe, so all the pages are loaded in advance
+                    for (int i = 1; i <= getNumberOfPages(); i++) {
+                        getPage(i);
+                    }
+                }
             }
             if (writer != null) {
                 if (reader != null && reader.hasXrefStm() && writer.properties.isFullCompression == null) {
@@ -1680,6 +1739,9 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                 writer.document = this;
                 String producer = null;
                 if (reader == null) {
+                    if (writer.properties.compactXref) {
+                        xref.enableCompactMode();
+                    }
                     catalog = new PdfCatalog(this);
                     info = new PdfDocumentInfo(this).addCreationDate();
                     producer = Version.getInstance().getVersion();
@@ -2135,6 +2197,42 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         }
     }
 
+    private static void collectIndirectReferences(PdfObject object, Set<PdfIndirectReference> visited, List<PdfIndirectReference> references) {
+        if (object.isArray()) {
+            PdfArray array = (PdfArray) object;
+            for (int i = 0; i < array.size(); i++) {
+                collectIndirectReference(array.get(i, false), visited, references);
+            }
+        } else if (object.isDictionary() || object.isStream()) {
+            PdfDictionary dictionary = (PdfDictionary) object;
+            for (PdfName key : dictionary.keySet()) {
+                collectIndirectReference(dictionary.get(key, false), visited, references);
+            }
+        }
+    }
+
+    private static void collectIndirectReference(PdfObject object, Set<PdfIndirectReference> visited, List<PdfIndirectReference> references) {
+        if (object == null) {
+            return;
+        }
+        PdfIndirectReference reference = object.isIndirectReference() ? (PdfIndirectReference) object : object.getIndirectReference();
+        if (reference != null) {
+            if (visited.add(reference)) {
+                references.add(reference);
+            }
+        } else if (!isPageTreeNode(object)) {
+            collectIndirectReferences(object, visited, references);
+        }
+    }
+
+    private static boolean isPageTreeNode(PdfObject object) {
+        if (!object.isDictionary()) {
+            return false;
+        }
+        PdfObject type = ((PdfDictionary) object).get(PdfName.Type, false);
+        return PdfName.Page.equals(type) || PdfName.Pages.equals(type);
+    }
+
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
         eventDispatcher = new EventDispatcher();
@@ -62,8 +62,13 @@ public class PdfIndirectReference extends PdfObject implements Comparable<PdfInd
 
     /**
      * PdfObject that current PdfIndirectReference instance refers to.
+     * It's volatile, so that objects read by one thread are safely published to the others,
+     * see {@link ReaderProperties#setConcurrentReading(boolean)}. Threads which find the object already read
+     * don't take the lock of the {@link PdfReader}, so this is the only guarantee that they see the object
+     * completely initialized. The field is written once per read object, under the lock of the reader;
+     * a volatile read is an ordinary load on common platforms, so single-threaded access is barely affected.
      */
-    protected PdfObject refersTo = null;
+    protected volatile PdfObject refersTo = null;
 
     /**
      * Indirect reference number of object stream containing refersTo object.
@@ -123,10 +128,12 @@ public class PdfIndirectReference extends PdfObject implements Comparable<PdfInd
      */
     public PdfObject getRefersTo(boolean recursively) {
         if (!recursively) {
-            if (refersTo == null && !checkState(FLUSHED) && !checkState(MODIFIED) && getReader() != null) {
-                refersTo = getReader().readObject(this);
+            PdfObject object = refersTo;
+            if (object == null && !checkState(FLUSHED) && !checkState(MODIFIED) && getReader() != null) {
+                // the reader sets refersTo itself, under its lock
+                object = getReader().readObject(this);
             }
-            return refersTo;
+            return object;
         } else {
             PdfObject currentRefersTo = getRefersTo(false);
             for (int i = 0; i < LENGTH_OF_INDIRECTS_CHAIN; i++) {
@@ -44,12 +44,18 @@
 package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.font.PdfEncodings;
 import java.io.Serializable;
 import java.text.MessageFormat;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,12 +66,15 @@ public class PdfNameTree implements Serializable {
     private static final long serialVersionUID = 8153711383828989907L;
 
     private PdfCatalog catalog;
-    private Map<String, PdfObject> items = new HashMap<>();
+    private Map<String, PdfObject> items;
+    // whether the names and limits of the nodes of the tree are sorted by bytes, null if not checked yet
+    private transient Boolean sortedByBytes;
     private PdfName treeType;
     private boolean modified;
 
     /**
-     * Creates the NameTree of current Document
+     * Creates the NameTree of current Document.
+     * The names are not read until they are requested.
      *
      * @param catalog  Document catalog
      * @param treeType the type of tree. Dests Tree, AP Tree etc.
@@ -73,7 +82,19 @@ public class PdfNameTree implements Serializable {
     public PdfNameTree(PdfCatalog catalog, PdfName treeType) {
         this.treeType = treeType;
         this.catalog = catalog;
-        items = getNames();
+    }
+
+    /**
+     * Builds a name tree from the entries sorted by name. Leaf and intermediate nodes are flushed
+     * as soon as they are built, so only their limits are kept in memory, which allows
+     * to write very large trees without having all the entries in memory at once.
+     *
+     * @param sortedEntries the entries of the tree, sorted by name
+     * @param document      the document the tree is written to
+     * @return PdfDictionary containing the root of the name tree
+     */
+    public static PdfDictionary buildTree(Iterator<Map.Entry<String, PdfObject>> sortedEntries, PdfDocument document) {
+        return buildTree(sortedEntries, document, true);
     }
 
     /**
@@ -82,15 +103,15 @@ public class PdfNameTree implements Serializable {
      * @return Map containing the PdfObjects stored in the tree
      */
     public Map<String, PdfObject> getNames() {
-        if (items.size() > 0) {
+        if (items != null) {
             return items;
         }
+        items = new HashMap<>();
 
-        PdfDictionary dictionary = catalog.getPdfObject().getAsDictionary(PdfName.Names);
+        PdfDictionary dictionary = getTreeRoot();
         if (dictionary != null) {
-            dictionary = dictionary.getAsDictionary(treeType);
-            if (dictionary != null) {
-                items = readTree(dictionary);
+            iterateItems(dictionary, items, null);
+            if (treeType.equals(PdfName.Dests)) {
                 //@TODO It's done for auto porting to itextsharp, cuz u cannot change collection which you iterate
                 // in for loop (even if you change only value of a Map entry) in .NET. Java doesn't have such a problem.
                 // We should find a better solution in the future.
@@ -123,6 +144,69 @@ public class PdfNameTree implements Serializable {
         return items;
     }
 
+    /**
+     * Gets the object stored in the name tree for the name. Unless all the names have already been read
+     * by {@link #getNames()}, the tree is searched using the /Limits of its nodes, comparing the bytes of the names
+     * as the tree is sorted by them, so only the nodes on the path to the leaf containing the name are read.
+     * The name is searched in PDFDocEncoding and, if it's not found, in UTF-16BE, as it may be written in either.
+     * If the name is not found this way and the tree turns out not to be sorted properly, all the names are checked,
+     * so the result is always the same as with {@link #getNames()}.
+     *
+     * @param key the name
+     * @return the same object as {@code getNames().get(key)}, or {@code null} if there is no such name in the tree
+     */
+    public PdfObject getEntry(String key) {
+        if (items != null) {
+            return items.get(key);
+        }
+        boolean dests = treeType.equals(PdfName.Dests);
+        if (dests) {
+            PdfDictionary destinations = catalog.getPdfObject().getAsDictionary(PdfName.Dests);
+            PdfArray array = destinations != null ? getNameArray(destinations.get(new PdfName(key))) : null;
+            if (array != null) {
+                return array;
+            }
+        }
+        PdfDictionary root = getTreeRoot();
+        if (root == null) {
+            return null;
+        }
+        PdfObject value = findEntry(root, key, getNameBytes(key));
+        if (value == null && PdfEncodings.isPdfDocEncoding(key)) {
+            // the name may also be written in UTF-16BE, which places it among the names starting with the byte order mark
+            value = findEntry(root, key, PdfEncodings.convertToBytes(key, PdfEncodings.UNICODE_BIG));
+        }
+        if (dests) {
+            value = getNameArray(value);
+        }
+        if (value == null) {
+            if (sortedByBytes == null) {
+                sortedByBytes = isSortedByBytes(root, null, new byte[1][]);
+            }
+            if (!sortedByBytes) {
+                // the /Limits of the nodes do not match the names, so all the names have to be checked
+                Map<String, PdfObject> names = new HashMap<>();
+                iterateItems(root, names, null);
+                value = dests ? getNameArray(names.get(key)) : names.get(key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets the iterator over the entries of the name tree. Unless all the names have already been read
+     * by {@link #getNames()}, the nodes of the tree are read one by one while iterating,
+     * and the entries are not collected into a map.
+     *
+     * @return the iterator over the same entries as {@code getNames().entrySet()} contains
+     */
+    public Iterator<Map.Entry<String, PdfObject>> getEntriesIterator() {
+        if (items != null) {
+            return items.entrySet().iterator();
+        }
+        return new NameTreeIterator();
+    }
+
     /**
      * Add an entry to the name tree
      *
@@ -130,7 +214,7 @@ public class PdfNameTree implements Serializable {
      * @param value object to add
      */
     public void addEntry(String key, PdfObject value) {
-        PdfObject existingVal = items.get(key);
+        PdfObject existingVal = getNames().get(key);
         if (existingVal != null) {
             if (value.getIndirectReference() != null && value.getIndirectReference().equals(existingVal.getIndirectReference())) {
                 return;
@@ -156,75 +240,251 @@ public class PdfNameTree implements Serializable {
      * @return PdfDictionary containing the name tree
      */
     public PdfDictionary buildTree() {
+        final Map<String, PdfObject> items = getNames();
         String[] names = new String[items.size()];
         names = items.keySet().toArray(names);
         Arrays.sort(names);
-        if (names.length <= NODE_SIZE) {
-            PdfDictionary dic = new PdfDictionary();
-            PdfArray ar = new PdfArray();
-            for (String name : names) {
-                ar.add(new PdfString(name, null));
-                ar.add(items.get(name));
+        final Iterator<String> sortedNames = Arrays.asList(names).iterator();
+        return buildTree(new Iterator<Map.Entry<String, PdfObject>>() {
+            @Override
+            public boolean hasNext() {
+                return sortedNames.hasNext();
             }
-            dic.put(PdfName.Names, ar);
-            return dic;
+
+            @Override
+            public Map.Entry<String, PdfObject> next() {
+                String name = sortedNames.next();
+                return new AbstractMap.SimpleImmutableEntry<>(name, items.get(name));
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        }, catalog.getDocument(), false);
+    }
+
+    private static PdfDictionary buildTree(Iterator<Map.Entry<String, PdfObject>> sortedEntries, PdfDocument document, boolean flushNodes) {
+        List<PdfDictionary> kids = new ArrayList<>();
+        List<String> firstNames = new ArrayList<>();
+        List<String> lastNames = new ArrayList<>();
+        PdfArray arr = new PdfArray();
+        String firstName = null;
+        String lastName = null;
+        int count = 0;
+        while (sortedEntries.hasNext()) {
+            Map.Entry<String, PdfObject> entry = sortedEntries.next();
+            if (count == NODE_SIZE) {
+                kids.add(buildLeaf(firstName, lastName, arr, document, flushNodes));
+                firstNames.add(firstName);
+                lastNames.add(lastName);
+                arr = new PdfArray();
+                count = 0;
+            }
+            if (count == 0) {
+                firstName = entry.getKey();
+            }
+            lastName = entry.getKey();
+            arr.add(new PdfString(entry.getKey(), null));
+            arr.add(entry.getValue());
+            count++;
         }
-        int skip = NODE_SIZE;
-        PdfDictionary[] kids = new PdfDictionary[(names.length + NODE_SIZE - 1) / NODE_SIZE];
-        for (int k = 0; k < kids.length; ++k) {
-            int offset = k * NODE_SIZE;
-            int end = Math.min(offset + NODE_SIZE, names.length);
+        if (kids.isEmpty()) {
             PdfDictionary dic = new PdfDictionary();
-            PdfArray arr = new PdfArray();
-            arr.add(new PdfString(names[offset], null));
-            arr.add(new PdfString(names[end - 1], null));
-            dic.put(PdfName.Limits, arr);
-            arr = new PdfArray();
-            for (; offset < end; ++offset) {
-                arr.add(new PdfString(names[offset], null));
-                arr.add(items.get(names[offset]));
-            }
             dic.put(PdfName.Names, arr);
-            dic.makeIndirect(catalog.getDocument());
-            kids[k] = dic;
+            return dic;
         }
-        int top = kids.length;
+        kids.add(buildLeaf(firstName, lastName, arr, document, flushNodes));
+        firstNames.add(firstName);
+        lastNames.add(lastName);
+
+        int top = kids.size();
         while (true) {
             if (top <= NODE_SIZE) {
-                PdfArray arr = new PdfArray();
+                arr = new PdfArray();
                 for (int i = 0; i < top; ++i)
-                    arr.add(kids[i]);
+                    arr.add(kids.get(i));
                 PdfDictionary dic = new PdfDictionary();
                 dic.put(PdfName.Kids, arr);
                 return dic;
             }
-            skip *= NODE_SIZE;
-            int tt = (names.length + skip - 1) / skip;
+            int tt = (top + NODE_SIZE - 1) / NODE_SIZE;
             for (int i = 0; i < tt; ++i) {
                 int offset = i * NODE_SIZE;
                 int end = Math.min(offset + NODE_SIZE, top);
-                PdfDictionary dic = new PdfDictionary().makeIndirect(catalog.getDocument());
-                PdfArray arr = new PdfArray();
-                arr.add(new PdfString(names[i * skip], null));
-                arr.add(new PdfString(names[Math.min((i + 1) * skip, names.length) - 1], null));
+                PdfDictionary dic = new PdfDictionary().makeIndirect(document);
+                arr = new PdfArray();
+                arr.add(new PdfString(firstNames.get(offset), null));
+                arr.add(new PdfString(lastNames.get(end - 1), null));
                 dic.put(PdfName.Limits, arr);
                 arr = new PdfArray();
                 for (; offset < end; ++offset) {
-                    arr.add(kids[offset]);
+                    arr.add(kids.get(offset));
                 }
                 dic.put(PdfName.Kids, arr);
-                kids[i] = dic;
+                if (flushNodes) {
+                    dic.flush();
+                }
+                kids.set(i, dic);
+                firstNames.set(i, firstNames.get(i * NODE_SIZE));
+                lastNames.set(i, lastNames.get(end - 1));
             }
             top = tt;
         }
     }
 
-    private Map<String, PdfObject> readTree(PdfDictionary dictionary) {
-        Map<String, PdfObject> items = new HashMap<String, PdfObject>();
-        if (dictionary != null) {
-            iterateItems(dictionary, items, null);
+    private static PdfDictionary buildLeaf(String firstName, String lastName, PdfArray names, PdfDocument document, boolean flushNodes) {
+        PdfDictionary dic = new PdfDictionary();
+        PdfArray arr = new PdfArray();
+        arr.add(new PdfString(firstName, null));
+        arr.add(new PdfString(lastName, null));
+        dic.put(PdfName.Limits, arr);
+        dic.put(PdfName.Names, names);
+        dic.makeIndirect(document);
+        if (flushNodes) {
+            dic.flush();
         }
-        return items;
+        return dic;
+    }
+
+    private static PdfObject findEntry(PdfDictionary node, String key, byte[] keyBytes) {
+        PdfArray names = node.getAsArray(PdfName.Names);
+        if (names != null) {
+            int low = 0;
+            int high = names.size() / 2 - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                PdfString name = names.getAsString(2 * mid);
+                int cmp = name != null ? compareNames(name.getValueBytes(), keyBytes) : 0;
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else if (name != null) {
+                    return names.get(2 * mid + 1);
+                } else {
+                    break;
+                }
+            }
+            // names are not sorted properly
+            for (int k = 0; k + 1 < names.size(); k += 2) {
+                PdfString name = names.getAsString(k);
+                if (name != null && name.toUnicodeString().equals(key)) {
+                    return names.get(k + 1);
+                }
+            }
+            return null;
+        }
+        PdfArray kids = node.getAsArray(PdfName.Kids);
+        if (kids == null) {
+            return null;
+        }
+        int low = 0;
+        int high = kids.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            PdfDictionary kid = kids.getAsDictionary(mid);
+            PdfArray limits = kid != null ? kid.getAsArray(PdfName.Limits) : null;
+            PdfString lowerLimit = limits != null ? limits.getAsString(0) : null;
+            PdfString upperLimit = limits != null ? limits.getAsString(1) : null;
+            if (lowerLimit == null || upperLimit == null) {
+                // the limits are missing, so all the kids have to be checked
+                for (int k = 0; k < kids.size(); k++) {
+                    kid = kids.getAsDictionary(k);
+                    PdfObject value = kid != null ? findEntry(kid, key, keyBytes) : null;
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return null;
+            }
+            if (compareNames(lowerLimit.getValueBytes(), keyBytes) > 0) {
+                high = mid - 1;
+            } else if (compareNames(upperLimit.getValueBytes(), keyBytes) < 0) {
+                low = mid + 1;
+            } else {
+                return findEntry(kid, key, keyBytes);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the bytes of the name as they are written into the tree by {@link #buildTree()},
+     * PDFDocEncoding if the name allows it and UTF-16BE otherwise.
+     */
+    private static byte[] getNameBytes(String name) {
+        return PdfEncodings.isPdfDocEncoding(name) ? PdfEncodings.convertToBytes(name, PdfEncodings.PDF_DOC_ENCODING)
+                : PdfEncodings.convertToBytes(name, PdfEncodings.UNICODE_BIG);
+    }
+
+    /**
+     * Checks that the names of the subtree are in ascending order of their bytes following the specified name,
+     * that they are within the /Limits of the nodes containing them and that the /Limits of the nodes do not overlap,
+     * so that a name which is not found by comparing it with the /Limits is not in the subtree.
+     *
+     * @param node the root of the subtree
+     * @param lowerLimit the lower limit of the parent nodes, or {@code null} if they do not have /Limits
+     * @param lastName the last name or upper limit preceding the subtree, updated with the one of the subtree
+     */
+    private static boolean isSortedByBytes(PdfDictionary node, byte[] lowerLimit, byte[][] lastName) {
+        PdfArray limits = node.getAsArray(PdfName.Limits);
+        PdfString nodeLowerLimit = limits != null ? limits.getAsString(0) : null;
+        PdfString nodeUpperLimit = limits != null ? limits.getAsString(1) : null;
+        if (nodeLowerLimit != null) {
+            byte[] lower = nodeLowerLimit.getValueBytes();
+            if (lowerLimit != null && compareNames(lower, lowerLimit) < 0 || lastName[0] != null && compareNames(lower, lastName[0]) <= 0) {
+                return false;
+            }
+            lowerLimit = lower;
+        }
+        PdfArray names = node.getAsArray(PdfName.Names);
+        if (names != null) {
+            if (names.size() % 2 != 0) {
+                return false;
+            }
+            for (int k = 0; k < names.size(); k += 2) {
+                PdfString name = names.getAsString(k);
+                byte[] nameBytes = name != null ? name.getValueBytes() : null;
+                if (nameBytes == null || lastName[0] != null && compareNames(nameBytes, lastName[0]) <= 0
+                        || lowerLimit != null && compareNames(nameBytes, lowerLimit) < 0) {
+                    return false;
+                }
+                lastName[0] = nameBytes;
+            }
+        } else {
+            PdfArray kids = node.getAsArray(PdfName.Kids);
+            for (int k = 0; kids != null && k < kids.size(); k++) {
+                PdfDictionary kid = kids.getAsDictionary(k);
+                if (kid == null || !isSortedByBytes(kid, lowerLimit, lastName)) {
+                    return false;
+                }
+            }
+        }
+        if (nodeUpperLimit != null) {
+            byte[] upper = nodeUpperLimit.getValueBytes();
+            if (lastName[0] != null && compareNames(upper, lastName[0]) < 0) {
+                return false;
+            }
+            lastName[0] = upper;
+        }
+        return true;
+    }
+
+    private static int compareNames(byte[] nameBytes, byte[] keyBytes) {
+        int length = Math.min(nameBytes.length, keyBytes.length);
+        for (int i = 0; i < length; i++) {
+            int cmp = (nameBytes[i] & 0xff) - (keyBytes[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return nameBytes.length - keyBytes.length;
+    }
+
+    private PdfDictionary getTreeRoot() {
+        PdfDictionary dictionary = catalog.getPdfObject().getAsDictionary(PdfName.Names);
+        return dictionary != null ? dictionary.getAsDictionary(treeType) : null;
     }
 
     private PdfString iterateItems(PdfDictionary dictionary, Map<String, PdfObject> items, PdfString leftOver) {
@@ -264,4 +524,128 @@ public class PdfNameTree implements Serializable {
         }
         return null;
     }
+
+    /**
+     * Reads the leaves of the tree one by one. For the Dests tree the destinations from the /Dests dictionary
+     * of the catalog are returned after the ones from the tree and take priority over them, as in {@link #getNames()}.
+     */
+    private class NameTreeIterator implements Iterator<Map.Entry<String, PdfObject>> {
+        private final List<PdfArray> kidsPath = new ArrayList<>();
+        private final List<Integer> kidsIndexes = new ArrayList<>();
+        private final PdfDictionary destinations;
+        private Iterator<PdfName> destinationsIterator;
+        private PdfArray names;
+        private int namesIndex;
+        private PdfString leftOver;
+        private Map.Entry<String, PdfObject> next;
+
+        NameTreeIterator() {
+            destinations = treeType.equals(PdfName.Dests) ? catalog.getPdfObject().getAsDictionary(PdfName.Dests) : null;
+            PdfDictionary root = getTreeRoot();
+            if (root != null) {
+                visitNode(root);
+            }
+            next = findNext();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, PdfObject> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, PdfObject> entry = next;
+            next = findNext();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private Map.Entry<String, PdfObject> findNext() {
+            while (true) {
+                if (names != null) {
+                    while (namesIndex < names.size()) {
+                        int k = namesIndex;
+                        PdfString name;
+                        if (leftOver == null)
+                            name = names.getAsString(k++);
+                        else {
+                            name = leftOver;
+                            leftOver = null;
+                        }
+                        if (k < names.size()) {
+                            namesIndex = k + 1;
+                            Map.Entry<String, PdfObject> entry = name != null ? createEntry(name.toUnicodeString(), names.get(k)) : null;
+                            if (entry != null) {
+                                return entry;
+                            }
+                        } else {
+                            leftOver = name;
+                            namesIndex = k;
+                        }
+                    }
+                    names = null;
+                } else if (!kidsPath.isEmpty()) {
+                    int last = kidsPath.size() - 1;
+                    PdfArray kids = kidsPath.get(last);
+                    int index = (int) kidsIndexes.get(last);
+                    if (index < kids.size()) {
+                        kidsIndexes.set(last, index + 1);
+                        PdfDictionary kid = kids.getAsDictionary(index);
+                        if (kid != null) {
+                            visitNode(kid);
+                        }
+                    } else {
+                        kidsPath.remove(last);
+                        kidsIndexes.remove(last);
+                    }
+                } else if (destinations != null) {
+                    if (destinationsIterator == null) {
+                        destinationsIterator = destinations.keySet().iterator();
+                    }
+                    while (destinationsIterator.hasNext()) {
+                        PdfName key = destinationsIterator.next();
+                        PdfArray array = getNameArray(destinations.get(key));
+                        if (array != null) {
+                            return new AbstractMap.SimpleImmutableEntry<String, PdfObject>(key.getValue(), array);
+                        }
+                    }
+                    return null;
+                } else {
+                    return null;
+                }
+            }
+        }
+
+        private void visitNode(PdfDictionary node) {
+            PdfArray nodeNames = node.getAsArray(PdfName.Names);
+            if (nodeNames != null) {
+                names = nodeNames;
+                namesIndex = 0;
+            } else {
+                PdfArray kids = node.getAsArray(PdfName.Kids);
+                if (kids != null) {
+                    kidsPath.add(kids);
+                    kidsIndexes.add(0);
+                }
+            }
+        }
+
+        private Map.Entry<String, PdfObject> createEntry(String key, PdfObject value) {
+            if (destinations != null || treeType.equals(PdfName.Dests)) {
+                value = getNameArray(value);
+                if (value == null || destinations != null && getNameArray(destinations.get(new PdfName(key))) != null) {
+                    return null;
+                }
+            }
+            return new AbstractMap.SimpleImmutableEntry<>(key, value);
+        }
+    }
 }
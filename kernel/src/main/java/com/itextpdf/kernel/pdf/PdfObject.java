@@ -182,6 +182,7 @@ public abstract class PdfObject implements Serializable {
                 document.checkIsoConformance(this, IsoKey.PDF_OBJECT);
                 document.flushObject(this, canBeInObjStm && getType() != STREAM
                         && getType() != INDIRECT_REFERENCE && getIndirectReference().getGenNumber() == 0);
+                restoreIfEvicted();
             }
         } catch (IOException e) {
             throw new PdfException(PdfException.CannotFlushObject, e, this);
@@ -344,6 +345,7 @@ public abstract class PdfObject implements Serializable {
         if (indirectReference != null) {
             indirectReference.setState(MODIFIED);
             setState(FORBID_RELEASE);
+            restoreIfEvicted();
         }
         return this;
     }
@@ -566,4 +568,15 @@ public abstract class PdfObject implements Serializable {
                 : obj2;
         return direct1 != null && direct1.equals(direct2);
     }
+
+    /**
+     * Sets this object back to its indirect reference if it was evicted from the reader's objects cache
+     * while it was still in use, see {@link StampingProperties#setReadObjectsCacheSize(int)}.
+     */
+    private void restoreIfEvicted() {
+        PdfIndirectReference reference = getIndirectReference();
+        if (reference != null && reference.refersTo == null && reference.getReader() != null) {
+            reference.getReader().restoreEvictedObject(reference);
+        }
+    }
 }
@@ -253,16 +253,7 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
 
     private void write(PdfStream pdfStream) {
         try {
-            boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
-            if (!userDefinedCompression) {
-                int defaultCompressionLevel = document != null ?
-                        document.getWriter().getCompressionLevel() :
-                        CompressionConstants.DEFAULT_COMPRESSION;
-                pdfStream.setCompressionLevel(defaultCompressionLevel);
-            }
-            boolean toCompress = pdfStream.getCompressionLevel() != CompressionConstants.NO_COMPRESSION;
-            boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
-
+            boolean compress = prepareStream(pdfStream);
             if (pdfStream.getInputStream() != null) {
                 java.io.OutputStream fout = this;
                 DeflaterOutputStream def = null;
@@ -270,8 +261,7 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                 if (crypto != null && !crypto.isEmbeddedFilesOnly()) {
                     fout = ose = crypto.getEncryptionStream(fout);
                 }
-                if (toCompress && (allowCompression || userDefinedCompression)) {
-                    updateCompressionFilter(pdfStream);
+                if (compress) {
                     fout = def = new DeflaterOutputStream(fout, pdfStream.getCompressionLevel(), 0x8000);
                 }
                 this.write((PdfDictionary) pdfStream);
@@ -295,68 +285,140 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                 pdfStream.updateLength(length.intValue());
                 writeBytes(PdfOutputStream.endstream);
             } else {
-                //When document is opened in stamping mode the output stream can be uninitialized.
-                //We have to initialize it and write all data from streams input to streams output.
-                if (pdfStream.getOutputStream() == null && pdfStream.getIndirectReference().getReader() != null) {
-                    // If new specific compression is set for stream,
-                    // then compressed stream should be decoded and written with new compression settings
-                    byte[] bytes = pdfStream.getIndirectReference().getReader().readStreamBytes(pdfStream, false);
-                    if (userDefinedCompression) {
-                        bytes = decodeFlateBytes(pdfStream, bytes);
-                    }
-                    pdfStream.initOutputStream(new ByteArrayOutputStream(bytes.length));
-                    pdfStream.getOutputStream().write(bytes);
-                }
-                assert pdfStream.getOutputStream() != null : "PdfStream lost OutputStream";
                 ByteArrayOutputStream byteArrayStream;
                 try {
-                    if (toCompress && !containsFlateFilter(pdfStream) && (allowCompression || userDefinedCompression)) { // compress
-                        updateCompressionFilter(pdfStream);
-                        byteArrayStream = new ByteArrayOutputStream();
-                        DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, pdfStream.getCompressionLevel());
-                        if (pdfStream instanceof PdfObjectStream) {
-                            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
-                            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
-                            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        } else {
-                            assert pdfStream.getOutputStream() != null : "Error in outputStream";
-                            ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        }
-                        zip.finish();
-                    } else {
-                        if (pdfStream instanceof PdfObjectStream) {
-                            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
-                            byteArrayStream = new ByteArrayOutputStream();
-                            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(byteArrayStream);
-                            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(byteArrayStream);
-                        } else {
-                            assert pdfStream.getOutputStream() != null : "Error in outputStream";
-                            byteArrayStream = (ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream();
-                        }
-                    }
-                    if (checkEncryption(pdfStream)) {
-                        ByteArrayOutputStream encodedStream = new ByteArrayOutputStream();
-                        OutputStreamEncryption ose = crypto.getEncryptionStream(encodedStream);
-                        byteArrayStream.writeTo(ose);
-                        ose.finish();
-                        byteArrayStream = encodedStream;
-                    }
+                    byteArrayStream = encodeStreamContent(getStreamContentParts(pdfStream), compress, pdfStream.getCompressionLevel());
                 } catch (IOException ioe) {
                     throw new PdfException(PdfException.IoException, ioe);
                 }
-                pdfStream.put(PdfName.Length, new PdfNumber(byteArrayStream.size()));
-                pdfStream.updateLength((int) byteArrayStream.size());
-                this.write((PdfDictionary) pdfStream);
-                writeBytes(PdfOutputStream.stream);
-                byteArrayStream.writeTo(this);
-                byteArrayStream.close();
-                writeBytes(PdfOutputStream.endstream);
+                writeStreamContent(pdfStream, byteArrayStream);
             }
         } catch (IOException e) {
             throw new PdfException(PdfException.CannotWriteToPdfStream, e, pdfStream);
         }
     }
 
+    /**
+     * Prepares the stream for writing: sets the default compression level, initializes the content
+     * of the streams which are read in stamping mode and updates the /Filter entry if the content is to be compressed.
+     * The stream dictionary must not be changed after this method was called and till the stream is written.
+     *
+     * @param pdfStream the stream to prepare.
+     * @return true if the stream content shall be compressed with Flate filter.
+     * @throws IOException on error.
+     */
+    boolean prepareStream(PdfStream pdfStream) throws IOException {
+        boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
+        if (!userDefinedCompression) {
+            int defaultCompressionLevel = document != null ?
+                    document.getWriter().getCompressionLevel() :
+                    CompressionConstants.DEFAULT_COMPRESSION;
+            pdfStream.setCompressionLevel(defaultCompressionLevel);
+        }
+        boolean toCompress = pdfStream.getCompressionLevel() != CompressionConstants.NO_COMPRESSION;
+        boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
+
+        boolean compress;
+        if (pdfStream.getInputStream() != null) {
+            compress = toCompress && (allowCompression || userDefinedCompression);
+        } else {
+            //When document is opened in stamping mode the output stream can be uninitialized.
+            //We have to initialize it and write all data from streams input to streams output.
+            if (pdfStream.getOutputStream() == null && pdfStream.getIndirectReference().getReader() != null) {
+                // If new specific compression is set for stream,
+                // then compressed stream should be decoded and written with new compression settings
+                byte[] bytes = pdfStream.getIndirectReference().getReader().readStreamBytes(pdfStream, false);
+                if (userDefinedCompression) {
+                    bytes = decodeFlateBytes(pdfStream, bytes);
+                }
+                pdfStream.initOutputStream(new ByteArrayOutputStream(bytes.length));
+                pdfStream.getOutputStream().write(bytes);
+            }
+            assert pdfStream.getOutputStream() != null : "PdfStream lost OutputStream";
+            compress = toCompress && !containsFlateFilter(pdfStream) && (allowCompression || userDefinedCompression);
+        }
+        if (compress) {
+            updateCompressionFilter(pdfStream);
+        }
+        return compress;
+    }
+
+    /**
+     * Gets the buffers which hold the content of the stream. Object stream content consists of
+     * the index part and the objects part, other streams have a single buffer.
+     *
+     * @param pdfStream the stream which content is kept in its output stream.
+     * @return the content buffers in the order they are to be written.
+     */
+    static ByteArrayOutputStream[] getStreamContentParts(PdfStream pdfStream) {
+        assert pdfStream.getOutputStream() != null : "Error in outputStream";
+        if (pdfStream instanceof PdfObjectStream) {
+            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
+            return new ByteArrayOutputStream[] {
+                    (ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream(),
+                    (ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()};
+        } else {
+            return new ByteArrayOutputStream[] {(ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()};
+        }
+    }
+
+    /**
+     * Joins the content parts of the stream and deflates them if needed.
+     * The method does not touch the document, so it can be called from any thread.
+     *
+     * @param contentParts     the stream content, see {@link #getStreamContentParts(PdfStream)}.
+     * @param compress         true if the content shall be compressed with Flate filter.
+     * @param compressionLevel the compression level.
+     * @return the encoded stream content. If there is nothing to encode, the passed buffer itself is returned.
+     * @throws IOException on error.
+     */
+    static ByteArrayOutputStream encodeStreamContent(ByteArrayOutputStream[] contentParts, boolean compress, int compressionLevel) throws IOException {
+        if (!compress && contentParts.length == 1) {
+            return contentParts[0];
+        }
+        ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
+        java.io.OutputStream out = byteArrayStream;
+        DeflaterOutputStream zip = null;
+        if (compress) {
+            out = zip = new DeflaterOutputStream(byteArrayStream, compressionLevel);
+        }
+        for (ByteArrayOutputStream part : contentParts) {
+            part.writeTo(out);
+        }
+        if (zip != null) {
+            zip.finish();
+        }
+        return byteArrayStream;
+    }
+
+    /**
+     * Encrypts the encoded stream content if needed and writes the stream with the updated /Length.
+     *
+     * @param pdfStream        the stream to write.
+     * @param byteArrayStream  the encoded stream content, see {@link #encodeStreamContent(ByteArrayOutputStream[], boolean, int)}.
+     * @throws IOException on error.
+     */
+    void writeStreamContent(PdfStream pdfStream, ByteArrayOutputStream byteArrayStream) throws IOException {
+        if (checkEncryption(pdfStream)) {
+            try {
+                ByteArrayOutputStream encodedStream = new ByteArrayOutputStream();
+                OutputStreamEncryption ose = crypto.getEncryptionStream(encodedStream);
+                byteArrayStream.writeTo(ose);
+                ose.finish();
+                byteArrayStream = encodedStream;
+            } catch (IOException ioe) {
+                throw new PdfException(PdfException.IoException, ioe);
+            }
+        }
+        pdfStream.put(PdfName.Length, new PdfNumber(byteArrayStream.size()));
+        pdfStream.updateLength((int) byteArrayStream.size());
+        this.write((PdfDictionary) pdfStream);
+        writeBytes(PdfOutputStream.stream);
+        byteArrayStream.writeTo(this);
+        byteArrayStream.close();
+        writeBytes(PdfOutputStream.endstream);
+    }
+
     protected boolean checkEncryption(PdfStream pdfStream) {
         if (crypto == null || crypto.isEmbeddedFilesOnly()) {
             return false;
@@ -44,6 +44,8 @@
 package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.events.PdfDocumentEvent;
 import com.itextpdf.kernel.geom.PageSize;
@@ -266,7 +268,7 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
      *
      * @return {@link PdfResources} wrapper of the page.
      */
-    public PdfResources getResources() {
+    public synchronized PdfResources getResources() {
 
         if (this.resources == null) {
             boolean readOnly = false;
@@ -686,6 +688,45 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
         }
     }
 
+    /**
+     * Gets the whole page content as a single source of the decoded bytes.
+     * Unlike {@link #getContentBytes()}, the decoded bytes of the content streams are not copied
+     * into one array, the source reads them one after another. The bytes are the same as
+     * the ones returned by {@link #getContentBytes()}.
+     *
+     * @return source of the decoded page content.
+     * @throws PdfException in case of any {@link IOException).
+     */
+    public IRandomAccessSource getContentSource() {
+        try {
+            RandomAccessSourceFactory factory = new RandomAccessSourceFactory();
+            int streamCount = getContentStreamCount();
+            List<IRandomAccessSource> sources = new ArrayList<>(streamCount);
+            IRandomAccessSource lineBreak = null;
+            byte[] streamBytes;
+            for (int i = 0; i < streamCount; i++) {
+                streamBytes = getStreamBytes(i);
+                if (0 != streamBytes.length) {
+                    sources.add(factory.createSource(streamBytes));
+                    if (!Character.isWhitespace((char) streamBytes[streamBytes.length - 1])) {
+                        if (lineBreak == null) {
+                            lineBreak = factory.createSource(new byte[] {'\n'});
+                        }
+                        sources.add(lineBreak);
+                    }
+                }
+            }
+            if (sources.isEmpty()) {
+                return factory.createSource(new byte[0]);
+            } else if (sources.size() == 1) {
+                return sources.get(0);
+            }
+            return factory.createGrouped(sources.toArray(new IRandomAccessSource[sources.size()]));
+        } catch (IOException ioe) {
+            throw new PdfException(PdfException.CannotGetContentBytes, ioe, this);
+        }
+    }
+
     /**
      * Gets decoded bytes of a certain stream of a page content.
      *
@@ -46,18 +46,16 @@ package com.itextpdf.kernel.pdf;
 class PdfPages extends PdfObjectWrapper<PdfDictionary> {
     
 	private static final long serialVersionUID = 404629033132277362L;
-	private int from;
     private PdfNumber count;
     private final PdfArray kids;
     private final PdfPages parent;
 
-    public PdfPages(int from, PdfDocument pdfDocument, PdfPages parent) {
+    public PdfPages(PdfDocument pdfDocument, PdfPages parent) {
         super(new PdfDictionary());
         if (pdfDocument.getWriter() != null) {
             getPdfObject().makeIndirect(pdfDocument);
         }
         setForbidRelease();
-        this.from = from;
         this.count = new PdfNumber(0);
         this.kids = new PdfArray();
         this.parent = parent;
@@ -66,14 +64,13 @@ class PdfPages extends PdfObjectWrapper<PdfDictionary> {
         getPdfObject().put(PdfName.Count, this.count);
     }
 
-    public PdfPages(int from, PdfDocument pdfDocument) {
-        this(from, pdfDocument, null);
+    public PdfPages(PdfDocument pdfDocument) {
+        this(pdfDocument, null);
     }
 
-    public PdfPages(int from, int maxCount, PdfDictionary pdfObject, PdfPages parent) {
+    public PdfPages(int maxCount, PdfDictionary pdfObject, PdfPages parent) {
         super(pdfObject);
         setForbidRelease();
-        this.from = from;
         this.count = pdfObject.getAsNumber(PdfName.Count);
         this.parent = parent;
         if (this.count == null) {
@@ -92,21 +89,31 @@ class PdfPages extends PdfObjectWrapper<PdfDictionary> {
         page.put(PdfName.Parent, getPdfObject());
     }
 
+    /**
+     * Inserts the page into the kids of this node.
+     *
+     * @param index zero-based index of the page among the pages of this node
+     */
     public boolean addPage(int index, PdfPage pdfPage) {
-        if (index < from || index > from + getCount())
+        if (index < 0 || index > getCount())
             return false;
-        kids.add(index - from, pdfPage.getPdfObject());
+        kids.add(index, pdfPage.getPdfObject());
         pdfPage.getPdfObject().put(PdfName.Parent, getPdfObject());
         incrementCount();
         setModified();
         return true;
     }
 
-    public boolean removePage(int pageNum) {
-        if (pageNum < from || pageNum >= from + getCount())
+    /**
+     * Removes the page from the kids of this node.
+     *
+     * @param index zero-based index of the page among the pages of this node
+     */
+    public boolean removePage(int index) {
+        if (index < 0 || index >= getCount())
             return false;
         decrementCount();
-        kids.remove(pageNum - from);
+        kids.remove(index);
         return true;
     }
 
@@ -132,18 +139,10 @@ class PdfPages extends PdfObjectWrapper<PdfDictionary> {
         }
     }
 
-    public int getFrom() {
-        return from;
-    }
-
     public int getCount() {
         return count.intValue();
     }
 
-    public void correctFrom(int correction){
-        from += correction;
-    }
-
     public PdfArray getKids() {
         return getPdfObject().getAsArray(PdfName.Kids);
     }
@@ -166,14 +165,6 @@ class PdfPages extends PdfObjectWrapper<PdfDictionary> {
             parent.decrementCount();
     }
 
-    public int compareTo(int index) {
-        if (index < from)
-            return 1;
-        if (index >= from + getCount())
-            return -1;
-        return 0;
-    }
-
     @Override
     protected boolean isWrappedObjectMustBeIndirect() {
         return true;
@@ -0,0 +1,401 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the leaves of {@link PdfPagesTree}, that is the {@link PdfPages} nodes which contain pages
+ * and the nodes which haven't been split yet. The leaves are kept in the document order in a weight-balanced
+ * binary tree, every node of which stores the number of the pages in its subtree. This allows to find the leaf
+ * containing a page and the number of the first page of a leaf in logarithmic time, and to insert and remove
+ * leaves or change their page count without renumbering the following leaves.
+ * <p/>
+ * The pages of a leaf are read only when the leaf is loaded, so the memory used by the index
+ * depends on the number of the pages which have been accessed rather than on the total number of pages.
+ */
+class PdfPagesIndex implements Serializable {
+
+    private static final long serialVersionUID = -5187262916617315468L;
+
+    /**
+     * A subtree is rebuilt when one of its children contains more than this part of its leaves.
+     */
+    private static final float BALANCE = 0.7f;
+
+    private Leaf root;
+    private final Map<PdfDictionary, Leaf> leaves = new IdentityHashMap<>();
+
+    /**
+     * A leaf of the pages tree, a node of the index.
+     */
+    static final class Leaf implements Serializable {
+
+        private static final long serialVersionUID = 3052187342386930152L;
+
+        private final PdfPages pdfPages;
+        private List<PdfDictionary> pageRefs;
+        private List<PdfPage> pages;
+
+        private Leaf left;
+        private Leaf right;
+        private Leaf parent;
+        // the number of the leaves and of the pages in the subtree of the index
+        private int size = 1;
+        private int count;
+
+        Leaf(PdfPages pdfPages) {
+            this.pdfPages = pdfPages;
+            this.count = pdfPages.getCount();
+        }
+
+        PdfPages getPdfPages() {
+            return pdfPages;
+        }
+
+        /**
+         * Checks whether the kids of the leaf have been read and are known to be pages.
+         */
+        boolean isLoaded() {
+            return pageRefs != null;
+        }
+
+        /**
+         * Marks the leaf as loaded.
+         *
+         * @param pageRefs the page dictionaries of the leaf, one for each page it counts
+         */
+        void load(List<PdfDictionary> pageRefs) {
+            this.pageRefs = pageRefs;
+            this.pages = new ArrayList<>(pageRefs.size());
+            for (int i = 0; i < pageRefs.size(); i++) {
+                pages.add(null);
+            }
+        }
+
+        /**
+         * Gets the page dictionaries of a loaded leaf. The list is modified along with the kids of the leaf.
+         */
+        List<PdfDictionary> getPageRefs() {
+            return pageRefs;
+        }
+
+        /**
+         * Gets the {@link PdfPage} objects of a loaded leaf, which contains {@code null} for the pages
+         * which haven't been requested yet. The list is modified along with the kids of the leaf.
+         */
+        List<PdfPage> getPages() {
+            return pages;
+        }
+    }
+
+    /**
+     * Gets the number of the pages in all the leaves.
+     */
+    int getPageCount() {
+        return root != null ? root.count : 0;
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Finds the leaf containing the page.
+     *
+     * @param pageNum zero-based page number
+     * @return the leaf, or {@code null} if the page number is out of the range of the pages of the leaves
+     */
+    Leaf find(int pageNum) {
+        if (pageNum < 0) {
+            return null;
+        }
+        Leaf leaf = root;
+        while (leaf != null) {
+            int leftCount = count(leaf.left);
+            if (pageNum < leftCount) {
+                leaf = leaf.left;
+            } else {
+                pageNum -= leftCount;
+                int ownCount = leaf.pdfPages.getCount();
+                if (pageNum < ownCount) {
+                    return leaf;
+                }
+                pageNum -= ownCount;
+                leaf = leaf.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the leaf of the {@link PdfPages} node.
+     *
+     * @param pagesDictionary the dictionary of the node
+     * @return the leaf, or {@code null} if the node isn't a leaf
+     */
+    Leaf get(PdfDictionary pagesDictionary) {
+        return leaves.get(pagesDictionary);
+    }
+
+    /**
+     * Gets the zero-based number of the first page of the leaf.
+     */
+    int getFrom(Leaf leaf) {
+        int from = count(leaf.left);
+        for (Leaf child = leaf, parent = leaf.parent; parent != null; child = parent, parent = parent.parent) {
+            if (parent.right == child) {
+                from += count(parent.left) + parent.pdfPages.getCount();
+            }
+        }
+        return from;
+    }
+
+    Leaf first() {
+        Leaf leaf = root;
+        while (leaf != null && leaf.left != null) {
+            leaf = leaf.left;
+        }
+        return leaf;
+    }
+
+    Leaf last() {
+        Leaf leaf = root;
+        while (leaf != null && leaf.right != null) {
+            leaf = leaf.right;
+        }
+        return leaf;
+    }
+
+    /**
+     * Gets the leaf following the specified one in the document order, or {@code null} if it's the last one.
+     */
+    Leaf next(Leaf leaf) {
+        if (leaf.right != null) {
+            leaf = leaf.right;
+            while (leaf.left != null) {
+                leaf = leaf.left;
+            }
+            return leaf;
+        }
+        while (leaf.parent != null && leaf.parent.right == leaf) {
+            leaf = leaf.parent;
+        }
+        return leaf.parent;
+    }
+
+    /**
+     * Gets the {@link PdfPages} nodes of all the leaves in the document order.
+     */
+    List<PdfPages> getPdfPages() {
+        List<PdfPages> result = new ArrayList<>(root != null ? root.size : 0);
+        for (Leaf leaf = first(); leaf != null; leaf = next(leaf)) {
+            result.add(leaf.pdfPages);
+        }
+        return result;
+    }
+
+    /**
+     * Appends the leaf after all the other ones.
+     */
+    Leaf add(Leaf leaf) {
+        if (root == null) {
+            leaves.put(leaf.pdfPages.getPdfObject(), leaf);
+            root = leaf;
+            return leaf;
+        }
+        return addAfter(last(), leaf);
+    }
+
+    /**
+     * Inserts the leaf right after the existing one.
+     */
+    Leaf addAfter(Leaf existing, Leaf leaf) {
+        leaves.put(leaf.pdfPages.getPdfObject(), leaf);
+        if (existing.right == null) {
+            existing.right = leaf;
+            leaf.parent = existing;
+        } else {
+            Leaf successor = existing.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.left = leaf;
+            leaf.parent = successor;
+        }
+        update(leaf.parent);
+        return leaf;
+    }
+
+    /**
+     * Replaces the leaf with the leaves its node is split into.
+     */
+    void replace(Leaf leaf, List<PdfPages> pdfPages) {
+        Leaf previous = leaf;
+        for (PdfPages pages : pdfPages) {
+            previous = addAfter(previous, new Leaf(pages));
+        }
+        remove(leaf);
+    }
+
+    void remove(Leaf leaf) {
+        leaves.remove(leaf.pdfPages.getPdfObject());
+        Leaf lowest;
+        if (leaf.left != null && leaf.right != null) {
+            // the successor takes the place of the leaf
+            Leaf successor = leaf.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            if (successor.parent != leaf) {
+                lowest = successor.parent;
+                replaceChild(successor, successor.right);
+                successor.right = leaf.right;
+                successor.right.parent = successor;
+            } else {
+                lowest = successor;
+            }
+            replaceChild(leaf, successor);
+            successor.left = leaf.left;
+            successor.left.parent = successor;
+        } else {
+            lowest = leaf.parent;
+            replaceChild(leaf, leaf.left != null ? leaf.left : leaf.right);
+        }
+        leaf.left = leaf.right = leaf.parent = null;
+        update(lowest);
+    }
+
+    /**
+     * Updates the index after the page count of the leaf has been changed.
+     */
+    void updateCount(Leaf leaf) {
+        update(leaf);
+    }
+
+    private void replaceChild(Leaf child, Leaf replacement) {
+        Leaf parent = child.parent;
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == child) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        if (replacement != null) {
+            replacement.parent = parent;
+        }
+    }
+
+    /**
+     * Recalculates the sizes and the page counts from the leaf up to the root
+     * and rebuilds the highest subtree on the way that isn't balanced.
+     */
+    private void update(Leaf leaf) {
+        Leaf unbalanced = null;
+        for (; leaf != null; leaf = leaf.parent) {
+            leaf.size = 1 + size(leaf.left) + size(leaf.right);
+            leaf.count = leaf.pdfPages.getCount() + count(leaf.left) + count(leaf.right);
+            if (Math.max(size(leaf.left), size(leaf.right)) > BALANCE * leaf.size) {
+                unbalanced = leaf;
+            }
+        }
+        if (unbalanced != null) {
+            Leaf[] sorted = new Leaf[unbalanced.size];
+            collect(unbalanced, sorted, 0);
+            Leaf parent = unbalanced.parent;
+            Leaf rebuilt = build(sorted, 0, sorted.length - 1);
+            rebuilt.parent = parent;
+            if (parent == null) {
+                root = rebuilt;
+            } else if (parent.left == unbalanced) {
+                parent.left = rebuilt;
+            } else {
+                parent.right = rebuilt;
+            }
+        }
+    }
+
+    private static int collect(Leaf leaf, Leaf[] sorted, int index) {
+        if (leaf.left != null) {
+            index = collect(leaf.left, sorted, index);
+        }
+        sorted[index++] = leaf;
+        if (leaf.right != null) {
+            index = collect(leaf.right, sorted, index);
+        }
+        return index;
+    }
+
+    private static Leaf build(Leaf[] sorted, int low, int high) {
+        if (low > high) {
+            return null;
+        }
+        int middle = (low + high) >>> 1;
+        Leaf leaf = sorted[middle];
+        leaf.left = build(sorted, low, middle - 1);
+        leaf.right = build(sorted, middle + 1, high);
+        if (leaf.left != null) {
+            leaf.left.parent = leaf;
+        }
+        if (leaf.right != null) {
+            leaf.right.parent = leaf;
+        }
+        leaf.size = 1 + size(leaf.left) + size(leaf.right);
+        leaf.count = leaf.pdfPages.getCount() + count(leaf.left) + count(leaf.right);
+        return leaf;
+    }
+
+    private static int size(Leaf leaf) {
+        return leaf != null ? leaf.size : 0;
+    }
+
+    private static int count(Leaf leaf) {
+        return leaf != null ? leaf.count : 0;
+    }
+}
@@ -62,9 +62,7 @@ class PdfPagesTree implements Serializable {
 
     private final int leafSize = 10;
 
-    private List<PdfDictionary> pageRefs;
-    private List<PdfPages> parents;
-    private List<PdfPage> pages;
+    private PdfPagesIndex leaves;
     private PdfDocument document;
     private boolean generated = false;
     private PdfPages root;
@@ -76,25 +74,19 @@ class PdfPagesTree implements Serializable {
      */
     public PdfPagesTree(PdfCatalog pdfCatalog) {
         this.document = pdfCatalog.getDocument();
-        this.pageRefs = new ArrayList<>();
-        this.parents = new ArrayList<>();
-        this.pages = new ArrayList<>();
+        this.leaves = new PdfPagesIndex();
         if (pdfCatalog.getPdfObject().containsKey(PdfName.Pages)) {
             PdfDictionary pages = pdfCatalog.getPdfObject().getAsDictionary(PdfName.Pages);
             if (pages == null)
                 throw new PdfException(PdfException.InvalidPageStructurePagesPagesMustBePdfDictionary);
-            this.root = new PdfPages(0, Integer.MAX_VALUE, pages, null);
-            parents.add(this.root);
-            for (int i = 0; i < this.root.getCount(); i++) {
-                this.pageRefs.add(null);
-                this.pages.add(null);
-            }
+            this.root = new PdfPages(Integer.MAX_VALUE, pages, null);
+            leaves.add(new PdfPagesIndex.Leaf(this.root));
         } else {
             this.root = null;
-            this.parents.add(new PdfPages(0, this.document));
+            leaves.add(createEmptyLeaf(new PdfPages(this.document)));
         }
-        //in read mode we will create PdfPages from 0 to Count
-        // and reserve null indexes for pageRefs and pages.
+        //in read mode the root is the only leaf, it is split and its pages are read
+        // only when they are requested.
     }
 
     /**
@@ -108,14 +100,13 @@ class PdfPagesTree implements Serializable {
             throw new IndexOutOfBoundsException(MessageFormat.format(PdfException.RequestedPageNumberIsOutOfBounds, pageNum));
         }
         --pageNum;
-        PdfPage pdfPage = pages.get(pageNum);
+        PdfPagesIndex.Leaf leaf = loadPage(pageNum);
+        int offset = pageNum - leaves.getFrom(leaf);
+        PdfPage pdfPage = leaf.getPages().get(offset);
         if (pdfPage == null) {
-            loadPage(pageNum);
-            pdfPage = new PdfPage(pageRefs.get(pageNum));
-            int parentIndex = findPageParent(pageNum);
-            PdfPages parentPages = parents.get(parentIndex);
-            pdfPage.parentPages = parentPages;
-            pages.set(pageNum, pdfPage);
+            pdfPage = new PdfPage(leaf.getPageRefs().get(offset));
+            pdfPage.parentPages = leaf.getPdfPages();
+            leaf.getPages().set(offset, pdfPage);
         }
         return pdfPage;
     }
@@ -141,7 +132,7 @@ class PdfPagesTree implements Serializable {
      * @return total number of pages
      */
     public int getNumberOfPages() {
-        return pageRefs.size();
+        return leaves.getPageCount();
     }
 
     /**
@@ -149,7 +140,24 @@ class PdfPagesTree implements Serializable {
      * in this tree, or 0 if this tree does not contain the page.
      */
     public int getPageNumber(PdfPage page) {
-        return pages.indexOf(page) + 1;
+        PdfPagesIndex.Leaf leaf = page.parentPages != null ? leaves.get(page.parentPages.getPdfObject()) : null;
+        if (leaf != null && leaf.isLoaded()) {
+            int offset = leaf.getPages().indexOf(page);
+            if (offset >= 0) {
+                return leaves.getFrom(leaf) + offset + 1;
+            }
+        }
+        int from = 0;
+        for (leaf = leaves.first(); leaf != null; leaf = leaves.next(leaf)) {
+            if (leaf.isLoaded()) {
+                int offset = leaf.getPages().indexOf(page);
+                if (offset >= 0) {
+                    return from + offset + 1;
+                }
+            }
+            from += leaf.getPdfPages().getCount();
+        }
+        return 0;
     }
 
     /**
@@ -157,20 +165,16 @@ class PdfPagesTree implements Serializable {
      * specified by it's PdfDictionary, or 0 if this tree does not contain the page.
      */
     public int getPageNumber(PdfDictionary pageDictionary) {
-        int pageNum = pageRefs.indexOf(pageDictionary);
-        if (pageNum >= 0) {
-            return pageNum + 1;
-        }
-        for (int i = 0; i < pageRefs.size(); i++) {
-            if (pageRefs.get(i) == null) {
-                loadPage(i);
-            }
-            if (pageRefs.get(i).equals(pageDictionary)) {
-                return i + 1;
+        // descend the tree using /Parent and /Count entries, that doesn't require to load all the pages
+        int pageNum = findPageIndex(pageDictionary);
+        if (pageNum >= 0 && pageNum < getNumberOfPages()) {
+            // /Count entries may not match the kids, so the found place is checked on the loaded tree
+            PdfPagesIndex.Leaf leaf = loadPage(pageNum);
+            if (leaf.getPageRefs().get(pageNum - leaves.getFrom(leaf)) == pageDictionary) {
+                return pageNum + 1;
             }
         }
-
-        return 0;
+        return findPageIndexLinear(pageDictionary) + 1;
     }
 
     /**
@@ -179,28 +183,29 @@ class PdfPagesTree implements Serializable {
      * @param pdfPage {@see PdfPage}
      */
     public void addPage(PdfPage pdfPage) {
-        PdfPages pdfPages;
+        PdfPagesIndex.Leaf leaf;
         if (root != null) { // in this case we save tree structure
-            if (pageRefs.size() == 0) {
-                pdfPages = root;
-            } else {
-                loadPage(pageRefs.size() - 1);
-                pdfPages = parents.get(parents.size() - 1);
+            if (getNumberOfPages() > 0) {
+                loadPage(getNumberOfPages() - 1);
+            }
+            leaf = leaves.last();
+            if (!leaf.isLoaded()) {                                         // empty PdfPages, nothing to read
+                leaf.load(new ArrayList<PdfDictionary>());
             }
         } else {
-            pdfPages = parents.get(parents.size() - 1);
-            if (pdfPages.getCount() % leafSize == 0 && pageRefs.size() > 0) {
-                pdfPages = new PdfPages(pdfPages.getFrom() + pdfPages.getCount(), document);
-                parents.add(pdfPages);
+            leaf = leaves.last();
+            if (leaf.getPdfPages().getCount() % leafSize == 0 && getNumberOfPages() > 0) {
+                leaf = leaves.add(createEmptyLeaf(new PdfPages(document)));
             }
         }
 
-
+        PdfPages pdfPages = leaf.getPdfPages();
         pdfPage.makeIndirect(document);
         pdfPages.addPage(pdfPage.getPdfObject());
         pdfPage.parentPages = pdfPages;
-        pageRefs.add(pdfPage.getPdfObject());
-        pages.add(pdfPage);
+        leaf.getPageRefs().add(pdfPage.getPdfObject());
+        leaf.getPages().add(pdfPage);
+        leaves.updateCount(leaf);
     }
 
     /**
@@ -211,21 +216,21 @@ class PdfPagesTree implements Serializable {
      */
     public void addPage(int index, PdfPage pdfPage) {
         --index;
-        if (index > pageRefs.size())
+        if (index < 0 || index > getNumberOfPages())
             throw new IndexOutOfBoundsException("index");
-        if (index == pageRefs.size()) {
+        if (index == getNumberOfPages()) {
             addPage(pdfPage);
             return;
         }
-        loadPage(index);
+        PdfPagesIndex.Leaf leaf = loadPage(index);
+        int offset = index - leaves.getFrom(leaf);
         pdfPage.makeIndirect(document);
-        int parentIndex = findPageParent(index);
-        PdfPages parentPages = parents.get(parentIndex);
-        parentPages.addPage(index, pdfPage);
+        PdfPages parentPages = leaf.getPdfPages();
+        parentPages.addPage(offset, pdfPage);
         pdfPage.parentPages = parentPages;
-        correctPdfPagesFromProperty(parentIndex + 1, +1);
-        pageRefs.add(index, pdfPage.getPdfObject());
-        pages.add(index, pdfPage);
+        leaf.getPageRefs().add(offset, pdfPage.getPdfObject());
+        leaf.getPages().add(offset, pdfPage);
+        leaves.updateCount(leaf);
     }
 
     /**
@@ -256,12 +261,13 @@ class PdfPagesTree implements Serializable {
      * @throws PdfException in case empty document
      */
     protected PdfObject generateTree() {
-        if (pageRefs.size() == 0)
+        if (getNumberOfPages() == 0)
             throw new PdfException(PdfException.DocumentHasNoPages);
         if (generated)
             throw new PdfException(PdfException.PdfPagesTreeCouldBeGeneratedOnlyOnce);
 
         if (root == null) {
+            List<PdfPages> parents = leaves.getPdfPages();
             while (parents.size() != 1) {
                 List<PdfPages> nextParents = new ArrayList<>();
                 //dynamicLeafSize helps to avoid PdfPages leaf with only one page
@@ -274,7 +280,7 @@ class PdfPagesTree implements Serializable {
                         if (pageCount <= 1) {
                             dynamicLeafSize++;
                         } else {
-                            current = new PdfPages(-1, document);
+                            current = new PdfPages(document);
                             nextParents.add(current);
                             dynamicLeafSize = leafSize;
                         }
@@ -291,12 +297,11 @@ class PdfPagesTree implements Serializable {
     }
 
     protected void clearPageRefs() {
-        pageRefs = null;
-        pages = null;
+        leaves = null;
     }
 
     protected List<PdfPages> getParents() {
-        return parents;
+        return leaves.getPdfPages();
     }
 
     protected PdfPages getRoot() {
@@ -305,128 +310,194 @@ class PdfPagesTree implements Serializable {
 
     protected PdfPages findPageParent(PdfPage pdfPage) {
         int pageNum = getPageNumber(pdfPage) - 1;
-        int parentIndex = findPageParent(pageNum);
-        return parents.get(parentIndex);
+        PdfPagesIndex.Leaf leaf = pageNum >= 0 ? leaves.find(pageNum) : leaves.first();
+        return leaf.getPdfPages();
     }
 
-    private void loadPage(int pageNum) {
-        PdfDictionary targetPage = pageRefs.get(pageNum);
-        if (targetPage != null)
-            return;
-        //if we go here, we have to split PdfPages that contains pageNum
-        int parentIndex = findPageParent(pageNum);
-        PdfPages parent = parents.get(parentIndex);
-        PdfArray kids = parent.getKids();
-        if (kids == null) {
-            throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum + 1);
-        }
-        int kidsCount = parent.getCount();
-        // we should handle separated pages, it means every PdfArray kids must contain either PdfPage or PdfPages,
-        // mix of PdfPage and PdfPages not allowed.
-        boolean findPdfPages = false;
-        // NOTE optimization? when we already found needed index
+    private static PdfPagesIndex.Leaf createEmptyLeaf(PdfPages pdfPages) {
+        PdfPagesIndex.Leaf leaf = new PdfPagesIndex.Leaf(pdfPages);
+        leaf.load(new ArrayList<PdfDictionary>());
+        return leaf;
+    }
+
+    private static int indexOfKid(PdfArray kids, PdfDictionary kid) {
+        PdfIndirectReference reference = kid.getIndirectReference();
         for (int i = 0; i < kids.size(); i++) {
-            PdfDictionary page = kids.getAsDictionary(i);
-            if (page == null) {                                             // null values not allowed in pages tree.
+            PdfObject object = kids.get(i, false);
+            if (object == kid || reference != null && object == reference) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splits the {@link PdfPages} nodes containing the page until it is found in a node which kids are pages,
+     * and reads the kids of that node.
+     *
+     * @param pageNum zero-based page number
+     * @return loaded leaf, which contains the page
+     */
+    private PdfPagesIndex.Leaf loadPage(int pageNum) {
+        PdfPagesIndex.Leaf leaf = leaves.find(pageNum);
+        while (leaf != null && !leaf.isLoaded()) {
+            //if we go here, we have to split PdfPages that contains pageNum
+            PdfPages parent = leaf.getPdfPages();
+            PdfArray kids = parent.getKids();
+            if (kids == null) {
                 throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum + 1);
             }
-            PdfObject pageKids = page.get(PdfName.Kids);
-            if (pageKids != null) {
-                if (pageKids.getType() == PdfObject.ARRAY) {
-                    findPdfPages = true;
-                } else {                                                    // kids must be of type array
+            int kidsCount = parent.getCount();
+            // we should handle separated pages, it means every PdfArray kids must contain either PdfPage or PdfPages,
+            // mix of PdfPage and PdfPages not allowed.
+            boolean findPdfPages = false;
+            // NOTE optimization? when we already found needed index
+            for (int i = 0; i < kids.size(); i++) {
+                PdfDictionary page = kids.getAsDictionary(i);
+                if (page == null) {                                             // null values not allowed in pages tree.
                     throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum + 1);
                 }
+                PdfObject pageKids = page.get(PdfName.Kids);
+                if (pageKids != null) {
+                    if (pageKids.getType() == PdfObject.ARRAY) {
+                        findPdfPages = true;
+                    } else {                                                    // kids must be of type array
+                        throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum + 1);
+                    }
+                }
             }
-        }
-        if (findPdfPages) {
-            // handle mix of PdfPage and PdfPages.
-            // handle count property!
-            List<PdfPages> newParents = new ArrayList<>(kids.size());
-            PdfPages lastPdfPages = null;
-            for (int i = 0; i < kids.size() && kidsCount > 0; i++) {
-                PdfDictionary pdfPagesObject = kids.getAsDictionary(i);
-                if (pdfPagesObject.getAsArray(PdfName.Kids) == null) {      // pdfPagesObject is PdfPage
-                    if (lastPdfPages == null) {                             // possible if only first kid is PdfPage
-                        lastPdfPages = new PdfPages(parent.getFrom(), document, parent);
-                        kids.set(i, lastPdfPages.getPdfObject());
+            if (findPdfPages) {
+                // handle mix of PdfPage and PdfPages.
+                // handle count property!
+                List<PdfPages> newParents = new ArrayList<>(kids.size());
+                PdfPages lastPdfPages = null;
+                for (int i = 0; i < kids.size() && kidsCount > 0; i++) {
+                    PdfDictionary pdfPagesObject = kids.getAsDictionary(i);
+                    if (pdfPagesObject.getAsArray(PdfName.Kids) == null) {      // pdfPagesObject is PdfPage
+                        if (lastPdfPages == null) {                             // possible if only first kid is PdfPage
+                            lastPdfPages = new PdfPages(document, parent);
+                            kids.set(i, lastPdfPages.getPdfObject());
+                            newParents.add(lastPdfPages);
+                        }
+                        lastPdfPages.addPage(pdfPagesObject);
+                        kids.remove(i);
+                        i--;
+                        kidsCount--;
+                    } else {                                                    // pdfPagesObject is PdfPages
+                        lastPdfPages = new PdfPages(kidsCount, pdfPagesObject, parent);
                         newParents.add(lastPdfPages);
+                        kidsCount -= lastPdfPages.getCount();
                     }
-                    lastPdfPages.addPage(pdfPagesObject);
-                    kids.remove(i);
-                    i--;
-                    kidsCount--;
-                } else {                                                    // pdfPagesObject is PdfPages
-                    int from = lastPdfPages == null
-                            ? parent.getFrom()
-                            : lastPdfPages.getFrom() + lastPdfPages.getCount();
-                    lastPdfPages = new PdfPages(from, kidsCount, pdfPagesObject, parent);
-                    newParents.add(lastPdfPages);
-                    kidsCount -= lastPdfPages.getCount();
                 }
+                leaves.replace(leaf, newParents);
+                leaf = leaves.find(pageNum);
+            } else {
+                // Possible exception in case kids.getSize() < parent.getCount().
+                // In any case parent.getCount() has higher priority.
+                List<PdfDictionary> pageRefs = new ArrayList<>(parent.getCount());
+                for (int i = 0; i < parent.getCount(); i++) {
+                    pageRefs.add(kids.getAsDictionary(i));
+                }
+                leaf.load(pageRefs);
             }
-            parents.remove(parentIndex);
-            for (int i = newParents.size() - 1; i >= 0; i--) {
-                parents.add(parentIndex, newParents.get(i));
-            }
-            // recursive call, to load needed pageRef.
-            // NOTE optimization? add to loadPage startParentIndex.
-            loadPage(pageNum);
-        } else {
-            int from = parent.getFrom();
-            // Possible exception in case kids.getSize() < parent.getCount().
-            // In any case parent.getCount() has higher priority.
-            // NOTE optimization? when we already found needed index
-            for (int i = 0; i < parent.getCount(); i++) {
-                pageRefs.set(from + i, kids.getAsDictionary(i));
-            }
         }
+        if (leaf == null) {                                                     // /Count entries of the kids are less than expected
+            throw new PdfException(PdfException.InvalidPageStructure1).setMessageParams(pageNum + 1);
+        }
+        return leaf;
     }
 
     // zero-based index
     private boolean internalRemovePage(int pageNum) {
-        int parentIndex = findPageParent(pageNum);
-        PdfPages pdfPages = parents.get(parentIndex);
-        if (pdfPages.removePage(pageNum)) {
+        PdfPagesIndex.Leaf leaf = loadPage(pageNum);
+        int offset = pageNum - leaves.getFrom(leaf);
+        PdfPages pdfPages = leaf.getPdfPages();
+        if (pdfPages.removePage(offset)) {
+            leaf.getPageRefs().remove(offset);
+            leaf.getPages().remove(offset);
             if (pdfPages.getCount() == 0) {
-                parents.remove(parentIndex);
+                leaves.remove(leaf);
                 pdfPages.removeFromParent();
-                --parentIndex;
+            } else {
+                leaves.updateCount(leaf);
             }
-            if (parents.size() == 0) {
+            if (leaves.isEmpty()) {
                 root = null;
-                parents.add(new PdfPages(0, document));
-            } else {
-                correctPdfPagesFromProperty(parentIndex + 1, -1);
+                leaves.add(createEmptyLeaf(new PdfPages(document)));
             }
-            pageRefs.remove(pageNum);
-            pages.remove(pageNum);
             return true;
         } else {
             return false;
         }
     }
 
-    // zero-based index
-    private int findPageParent(int pageNum) {
-        int low = 0;
-        int high = parents.size() - 1;
-        while (low != high) {
-            int middle = (low + high + 1) / 2;
-            if (parents.get(middle).compareTo(pageNum) > 0) {
-                high = middle - 1;
-            } else {
-                low = middle;
+    /**
+     * Searches the page page by page, the leaves that have been loaded already are checked first.
+     *
+     * @return zero-based page index or -1 if the tree doesn't contain the page
+     */
+    private int findPageIndexLinear(PdfDictionary pageDictionary) {
+        int from = 0;
+        for (PdfPagesIndex.Leaf leaf = leaves.first(); leaf != null; leaf = leaves.next(leaf)) {
+            if (leaf.isLoaded()) {
+                int offset = leaf.getPageRefs().indexOf(pageDictionary);
+                if (offset >= 0) {
+                    return from + offset;
+                }
             }
+            from += leaf.getPdfPages().getCount();
         }
-        return low;
+        for (int i = 0; i < getNumberOfPages(); ) {
+            PdfPagesIndex.Leaf leaf = loadPage(i);
+            from = leaves.getFrom(leaf);
+            int offset = leaf.getPageRefs().indexOf(pageDictionary);
+            if (offset >= 0) {
+                return from + offset;
+            }
+            i = from + leaf.getPdfPages().getCount();
+        }
+        return -1;
     }
 
-    private void correctPdfPagesFromProperty(int index, int correction) {
-        for (int i = index; i < parents.size(); i++) {
-            if (parents.get(i) != null) {
-                parents.get(i).correctFrom(correction);
+    /**
+     * Calculates zero-based page index by going up from the page via /Parent entries until a leaf of the tree
+     * or the root is reached and summing the /Count of the preceding kids on every level.
+     * Only the {@link PdfPages} siblings on the path to the page are read, preceding pages are not loaded
+     * unless they share a /Kids array with {@link PdfPages} nodes.
+     *
+     * @return page index or -1 if the page isn't reachable from the root of the tree
+     */
+    private int findPageIndex(PdfDictionary pageDictionary) {
+        int index = 0;
+        PdfDictionary kid = pageDictionary;
+        // tree can't be deeper than number of pages, it protects from cycles in /Parent entries
+        for (int level = 0; level <= getNumberOfPages(); level++) {
+            PdfDictionary parent = kid.getAsDictionary(PdfName.Parent);
+            PdfArray kids = parent != null ? parent.getAsArray(PdfName.Kids) : null;
+            int kidIndex = kids != null ? indexOfKid(kids, kid) : -1;
+            if (kidIndex < 0) {
+                return -1;
+            }
+            PdfPagesIndex.Leaf leaf = leaves.get(parent);
+            if (leaf != null && leaf.isLoaded()) {                              // all the kids are pages
+                return leaves.getFrom(leaf) + index + kidIndex;
+            }
+            for (int i = 0; i < kidIndex; i++) {
+                PdfDictionary sibling = kids.getAsDictionary(i);
+                if (sibling == null) {
+                    return -1;
+                }
+                PdfNumber count = sibling.getAsNumber(PdfName.Count);
+                index += sibling.get(PdfName.Kids) != null && count != null ? count.intValue() : 1;
+            }
+            if (leaf != null) {
+                return leaves.getFrom(leaf) + index;
+            }
+            if (root != null && parent == root.getPdfObject()) {
+                return index;
             }
+            kid = parent;
         }
+        return -1;
     }
 }
@@ -46,21 +46,46 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.source.GetBufferedRandomAccessSource;
 import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RASInputStream;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.source.WindowRandomAccessSource;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.filters.FilterHandlers;
+import com.itextpdf.kernel.pdf.filters.FlateDecodeFilter;
 import com.itextpdf.kernel.pdf.filters.IFilterHandler;
+import com.itextpdf.kernel.pdf.filters.IStreamingFilterHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Reads a PDF document.
@@ -76,6 +101,13 @@ public class PdfReader implements Closeable, Serializable {
     private static final byte[] endstream = ByteUtils.getIsoBytes("endstream");
     private static final byte[] endobj = ByteUtils.getIsoBytes("endobj");
 
+    private static final long MIN_XREF_REBUILD_CHUNK_SIZE = 1 << 20;
+    private static final int XREF_REBUILD_CHUNKS_PER_WORKER = 4;
+
+    private static final int MAX_PREFETCH_GAP = 4 * 1024;
+    private static final int MAX_PREFETCH_OBJECT_SIZE = 64 * 1024;
+    private static final int MAX_PREFETCH_SIZE = 1024 * 1024;
+
     protected static boolean correctStreamLength = true;
 
     private boolean unethicalReading;
@@ -106,6 +138,36 @@ public class PdfReader implements Closeable, Serializable {
     protected boolean fixedXref = false;
     protected boolean xrefStm = false;
 
+    /**
+     * The maximal number of read objects which are kept in memory, zero means no limit.
+     */
+    private int readObjectsCacheSize = 0;
+
+    /**
+     * References to the read objects which can be evicted, in the order the objects were read.
+     */
+    private transient LinkedHashSet<PdfIndirectReference> cachedObjects;
+
+    /**
+     * Evicted objects which are still reachable from the application code.
+     */
+    private transient Map<PdfIndirectReference, EvictedObject> evictedObjects;
+    private transient ReferenceQueue<PdfObject> evictedObjectsQueue;
+
+    /**
+     * Decoded object streams in the access order, the total size is limited by
+     * {@link ReaderProperties#setObjectStreamsCacheSize(long)}.
+     */
+    private transient LinkedHashMap<PdfIndirectReference, DecodedObjectStream> objectStreamsCache;
+    private transient long objectStreamsCacheSize;
+
+    /**
+     * Sorted offsets of all the objects of the document, used to estimate the sizes of the prefetched objects.
+     */
+    private transient long[] sortedObjectOffsets;
+    private long objectStreamsCacheHits;
+    private long objectStreamsCacheMisses;
+
     /**
      * Constructs a new PdfReader.
      *
@@ -186,6 +248,8 @@ public class PdfReader implements Closeable, Serializable {
      */
     public void close() throws IOException {
         tokens.close();
+        objectStreamsCache = null;
+        objectStreamsCacheSize = 0;
     }
 
     /**
@@ -254,6 +318,26 @@ public class PdfReader implements Closeable, Serializable {
         return fixedXref;
     }
 
+    /**
+     * Gets the number of reads of compressed objects which found their object stream already decoded,
+     * see {@link ReaderProperties#setObjectStreamsCacheSize(long)}.
+     *
+     * @return the number of hits of the decoded object streams cache.
+     */
+    public long getObjectStreamsCacheHits() {
+        return objectStreamsCacheHits;
+    }
+
+    /**
+     * Gets the number of reads of compressed objects which required decoding of their object stream,
+     * see {@link ReaderProperties#setObjectStreamsCacheSize(long)}.
+     *
+     * @return the number of misses of the decoded object streams cache.
+     */
+    public long getObjectStreamsCacheMisses() {
+        return objectStreamsCacheMisses;
+    }
+
     /**
      * Gets position of the last Cross-Reference table.
      *
@@ -272,11 +356,18 @@ public class PdfReader implements Closeable, Serializable {
      * @throws IOException on error.
      */
     public byte[] readStreamBytes(PdfStream stream, boolean decode) throws IOException {
-        byte[] b = readStreamBytesRaw(stream);
-        if (decode && b != null) {
-            return decodeBytes(b, stream);
+        if (decode) {
+            IRandomAccessSource source = readStreamSourceRaw(stream);
+            if (source == null) {
+                return null;
+            }
+            try {
+                return decodeBytes(null, source, stream, FilterHandlers.getDefaultFilterHandlers());
+            } finally {
+                source.close();
+            }
         } else {
-            return b;
+            return readStreamBytesRaw(stream);
         }
     }
 
@@ -288,39 +379,31 @@ public class PdfReader implements Closeable, Serializable {
      * @throws IOException on error.
      */
     public byte[] readStreamBytesRaw(PdfStream stream) throws IOException {
-        PdfName type = stream.getAsName(PdfName.Type);
-        if (!PdfName.XRefStm.equals(type) && !PdfName.ObjStm.equals(type))
-            checkPdfStreamLength(stream);
-        long offset = stream.getOffset();
-        if (offset <= 0)
-            return null;
-        int length = stream.getLength();
-        if (length <= 0)
-            return new byte[0];
-        RandomAccessFileOrArray file = tokens.getSafeFile();
+        RandomAccessFileOrArray file;
+        long offset;
+        int length;
+        boolean decryptionRequired;
+        synchronized (this) {
+            PdfName type = stream.getAsName(PdfName.Type);
+            if (!PdfName.XRefStm.equals(type) && !PdfName.ObjStm.equals(type))
+                checkPdfStreamLength(stream);
+            offset = stream.getOffset();
+            if (offset <= 0)
+                return null;
+            length = stream.getLength();
+            if (length <= 0)
+                return new byte[0];
+            decryptionRequired = isDecryptionRequired(stream);
+            // an independent view of the source, so the bytes can be read without holding the lock
+            file = tokens.getSafeFile();
+        }
         byte[] bytes = null;
         try {
-            file.seek(stream.getOffset());
+            file.seek(offset);
             bytes = new byte[length];
             file.readFully(bytes);
-            if (decrypt != null && !decrypt.isEmbeddedFilesOnly()) {
-                PdfObject filter = stream.get(PdfName.Filter, true);
-                boolean skip = false;
-                if (filter != null) {
-                    if (PdfName.Crypt.equals(filter)) {
-                        skip = true;
-                    } else if (filter.getType() == PdfObject.ARRAY) {
-                        PdfArray filters = (PdfArray) filter;
-                        for (int k = 0; k < filters.size(); k++) {
-                            if (!filters.isEmpty() && PdfName.Crypt.equals(filters.get(k, true))) {
-                                skip = true;
-                                break;
-                            }
-                        }
-                    }
-                    filter.release();
-                }
-                if (!skip) {
+            if (decryptionRequired) {
+                synchronized (this) {
                     decrypt.setHashKeyForNextObject(stream.getIndirectReference().getObjNumber(), stream.getIndirectReference().getGenNumber());
                     bytes = decrypt.decryptByteArray(bytes);
                 }
@@ -335,7 +418,36 @@ public class PdfReader implements Closeable, Serializable {
     }
 
     /**
-     * Reads, decrypt and optionally decode stream bytes into {@link ByteArrayInputStream}.
+     * Gets the source of the stream bytes without copying them, if possible.
+     * For not encrypted streams the returned source is a read-only window over the source of the document
+     * (e.g. memory-mapped file), so it shall not be used after the reader is closed.
+     * Encrypted streams are read and decrypted into memory, the same way as {@link #readStreamBytesRaw(PdfStream)} does.
+     *
+     * @return {@link IRandomAccessSource} of the raw stream data or {@code null} if the stream was not read from the document.
+     * @throws IOException on error.
+     */
+    public synchronized IRandomAccessSource readStreamSourceRaw(PdfStream stream) throws IOException {
+        if (isDecryptionRequired(stream)) {
+            byte[] bytes = readStreamBytesRaw(stream);
+            return bytes != null ? new RandomAccessSourceFactory().createSource(bytes) : null;
+        }
+        PdfName type = stream.getAsName(PdfName.Type);
+        if (!PdfName.XRefStm.equals(type) && !PdfName.ObjStm.equals(type))
+            checkPdfStreamLength(stream);
+        long offset = stream.getOffset();
+        if (offset <= 0)
+            return null;
+        int length = stream.getLength();
+        if (length <= 0)
+            return new RandomAccessSourceFactory().createSource(new byte[0]);
+        return new StreamWindowRandomAccessSource(new WindowRandomAccessSource(tokens.getSafeFile().createSourceView(), offset, length));
+    }
+
+    /**
+     * Reads, decrypt and optionally decode stream bytes into {@link InputStream}.
+     * The data is read and decoded incrementally, while the returned stream is being read,
+     * so it shall be read before the reader is closed. Filters, which do not implement
+     * {@link IStreamingFilterHandler}, decode the data in memory.
      * User is responsible for closing returned stream.
      *
      * @param decode true if to get decoded stream, false if to leave it originally encoded.
@@ -343,8 +455,17 @@ public class PdfReader implements Closeable, Serializable {
      * @throws IOException on error.
      */
     public InputStream readStream(PdfStream stream, boolean decode) throws IOException {
-        byte[] bytes = readStreamBytes(stream, decode);
-        return bytes != null ? new ByteArrayInputStream(bytes) : null;
+        final IRandomAccessSource source = readStreamSourceRaw(stream);
+        if (source == null) {
+            return null;
+        }
+        InputStream in = new BufferedInputStream(new RASInputStream(source) {
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        });
+        return decode ? decodeStream(in, stream, FilterHandlers.getDefaultFilterHandlers()) : in;
     }
 
     /**
@@ -372,51 +493,36 @@ public class PdfReader implements Closeable, Serializable {
         if (b == null) {
             return null;
         }
-        PdfObject filter = streamDictionary.get(PdfName.Filter);
-        PdfArray filters = new PdfArray();
-        if (filter != null) {
-            if (filter.getType() == PdfObject.NAME) {
-                filters.add(filter);
-            } else if (filter.getType() == PdfObject.ARRAY) {
-                filters = ((PdfArray) filter);
-            }
-        }
-        PdfArray dp = new PdfArray();
-        PdfObject dpo = streamDictionary.get(PdfName.DecodeParms);
-        if (dpo == null || (dpo.getType() != PdfObject.DICTIONARY && dpo.getType() != PdfObject.ARRAY)) {
-            if (dpo != null) dpo.release();
-            dpo = streamDictionary.get(PdfName.DP);
-        }
-        if (dpo != null) {
-            if (dpo.getType() == PdfObject.DICTIONARY) {
-                dp.add(dpo);
-            } else if (dpo.getType() == PdfObject.ARRAY) {
-                dp = ((PdfArray) dpo);
-            }
-            dpo.release();
-        }
+        return decodeBytes(b, null, streamDictionary, filterHandlers);
+    }
+
+    /**
+     * Decode a stream applying the filters specified in the provided dictionary using the provided filter handlers.
+     * The data is decoded while the returned stream is being read by the filter handlers, which implement
+     * {@link IStreamingFilterHandler}, the other filter handlers decode the data in memory.
+     *
+     * @param in               the stream of the data to decode
+     * @param streamDictionary the dictionary that contains filter information
+     * @param filterHandlers   the map used to look up a handler for each type of filter
+     * @return the stream of the decoded data
+     * @throws IOException  on error.
+     * @throws PdfException if there are any problems decoding the data
+     */
+    public static InputStream decodeStream(InputStream in, PdfDictionary streamDictionary, Map<PdfName, IFilterHandler> filterHandlers) throws IOException {
+        PdfArray filters = getFilters(streamDictionary);
+        PdfArray dp = getDecodeParams(streamDictionary);
         for (int j = 0; j < filters.size(); ++j) {
             PdfName filterName = (PdfName) filters.get(j);
-            IFilterHandler filterHandler = filterHandlers.get(filterName);
-            if (filterHandler == null)
-                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
-
-            PdfDictionary decodeParams;
-            if (j < dp.size()) {
-                PdfObject dpEntry = dp.get(j, true);
-                if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
-                    decodeParams = null;
-                } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
-                    decodeParams = (PdfDictionary) dpEntry;
-                } else {
-                    throw new PdfException(PdfException.DecodeParameterType1IsNotSupported).setMessageParams(dpEntry.getClass().toString());
-                }
+            IFilterHandler filterHandler = getFilterHandler(filterName, filterHandlers);
+            PdfDictionary decodeParams = getDecodeParams(dp, j);
+            if (filterHandler instanceof IStreamingFilterHandler) {
+                in = ((IStreamingFilterHandler) filterHandler).decode(in, filterName, decodeParams, streamDictionary);
             } else {
-                decodeParams = null;
+                byte[] b = StreamUtil.inputStreamToArray(in);
+                in = new ByteArrayInputStream(filterHandler.decode(b, filterName, decodeParams, streamDictionary));
             }
-            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
         }
-        return b;
+        return in;
     }
 
     /**
@@ -528,63 +634,40 @@ public class PdfReader implements Closeable, Serializable {
         } catch (IllegalArgumentException exc) {
             throw new PdfException(PdfException.PdfVersionNotValid, version);
         }
-        try {
-            readXref();
-        } catch (RuntimeException ex) {
-            Logger logger = LoggerFactory.getLogger(PdfReader.class);
-            logger.error(LogMessageConstant.XREF_ERROR, ex);
+        if (!readXrefIndex()) {
+            try {
+                readXref();
+            } catch (RuntimeException ex) {
+                Logger logger = LoggerFactory.getLogger(PdfReader.class);
+                logger.error(LogMessageConstant.XREF_ERROR, ex);
 
-            rebuildXref();
+                rebuildXref();
+            }
+            writeXrefIndex();
         }
         readDecryptObj();
     }
 
     protected void readObjectStream(PdfStream objectStream) throws IOException {
         int objectStreamNumber = objectStream.getIndirectReference().getObjNumber();
-        int first = objectStream.getAsNumber(PdfName.First).intValue();
-        int n = objectStream.getAsNumber(PdfName.N).intValue();
-        byte[] bytes = readStreamBytes(objectStream, true);
+        DecodedObjectStream decodedObjectStream = decodeObjectStream(objectStream);
         PdfTokenizer saveTokens = tokens;
         try {
-            tokens = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes)));
-            int[] address = new int[n];
-            int[] objNumber = new int[n];
-            boolean ok = true;
-            for (int k = 0; k < n; ++k) {
-                ok = tokens.nextToken();
-                if (!ok)
-                    break;
-                if (tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
-                    ok = false;
-                    break;
-                }
-                objNumber[k] = tokens.getIntValue();
-                ok = tokens.nextToken();
-                if (!ok)
-                    break;
-                if (tokens.getTokenType() != PdfTokenizer.TokenType.Number) {
-                    ok = false;
-                    break;
-                }
-                address[k] = tokens.getIntValue() + first;
-            }
-            if (!ok)
-                throw new PdfException(PdfException.ErrorWhileReadingObjectStream);
-            for (int k = 0; k < n; ++k) {
-                tokens.seek(address[k]);
-                tokens.nextToken();
-                PdfObject obj;
-                if (tokens.getTokenType() == PdfTokenizer.TokenType.Number) {
-                    obj = new PdfNumber(tokens.getByteContent());
-                } else {
-                    tokens.seek(address[k]);
-                    obj = readObject(false, true);
-                }
-                PdfIndirectReference reference = pdfDocument.getXref().get(objNumber[k]);
+            tokens = decodedObjectStream.createTokenizer();
+            for (int k = 0; k < decodedObjectStream.objNumber.length; ++k) {
+                PdfObject obj = readObjectStreamEntry(decodedObjectStream.address[k]);
+                PdfIndirectReference reference = pdfDocument.getXref().get(decodedObjectStream.objNumber[k]);
                 // Check if this object has no incremental updates (e.g. no append mode)
-                if (reference.getObjStreamNumber() == objectStreamNumber) {
-                    reference.setRefersTo(obj);
-                    obj.setIndirectReference(reference);
+                // and was not read before, in order not to lose already loaded instance
+                if (reference.getObjStreamNumber() == objectStreamNumber && reference.refersTo == null) {
+                    if (takeEvictedObject(reference) == null) {
+                        reference.setRefersTo(obj);
+                        obj.setIndirectReference(reference);
+                    }
+                    if (cachedObjects != null) {
+                        // the cache is trimmed by the caller, after the requested object is cached
+                        cachedObjects.add(reference);
+                    }
                 }
             }
             objectStream.getIndirectReference().setState(PdfObject.ORIGINAL_OBJECT_STREAM);
@@ -593,8 +676,90 @@ public class PdfReader implements Closeable, Serializable {
         }
     }
 
-    protected PdfObject readObject(PdfIndirectReference reference) {
-        return readObject(reference, true);
+    protected synchronized PdfObject readObject(PdfIndirectReference reference) {
+        // another thread might have read the object while this one was waiting for the lock
+        if (reference.refersTo != null) {
+            return reference.refersTo;
+        }
+        PdfObject object = restoreEvictedObject(reference);
+        if (object == null) {
+            object = readObject(reference, true);
+            if (object != null) {
+                // set under the lock, so that every thread gets the same instance of the object
+                reference.refersTo = object;
+                cacheReadObject(reference);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Reads the objects of the given references which are not read yet, see {@link PdfDocument#resolveObjects(Collection)}.
+     * The objects are read in the order of their offsets, the objects which are close to each other are read from
+     * the source at once. Objects from the object streams are read after the object streams.
+     *
+     * @param references the references of the objects to read.
+     */
+    synchronized void readObjects(Collection<PdfIndirectReference> references) {
+        PdfXrefTable xref = pdfDocument.getXref();
+        List<PdfIndirectReference> objects = new ArrayList<>();
+        List<PdfIndirectReference> compressedObjects = new ArrayList<>();
+        Set<PdfIndirectReference> objectStreams = new HashSet<>();
+        for (PdfIndirectReference reference : references) {
+            if (!isReadRequired(reference)) {
+                continue;
+            }
+            if (reference.getObjStreamNumber() > 0) {
+                compressedObjects.add(reference);
+                PdfIndirectReference objectStreamReference = xref.get(reference.getObjStreamNumber());
+                if (isReadRequired(objectStreamReference) && objectStreams.add(objectStreamReference)) {
+                    objects.add(objectStreamReference);
+                }
+            } else if (reference.getOffset() > 0) {
+                objects.add(reference);
+            }
+        }
+        Collections.sort(objects, new Comparator<PdfIndirectReference>() {
+            @Override
+            public int compare(PdfIndirectReference o1, PdfIndirectReference o2) {
+                return Long.compare(o1.getOffset(), o2.getOffset());
+            }
+        });
+        PdfTokenizer saveTokens = tokens;
+        try {
+            int start = 0;
+            while (start < objects.size()) {
+                long startOffset = objects.get(start).getOffset();
+                long endOffset = getPrefetchedObjectEnd(startOffset);
+                int end = start + 1;
+                while (end < objects.size()) {
+                    long offset = objects.get(end).getOffset();
+                    long objectEnd = getPrefetchedObjectEnd(offset);
+                    if (offset - endOffset > MAX_PREFETCH_GAP || objectEnd - startOffset > MAX_PREFETCH_SIZE) {
+                        break;
+                    }
+                    endOffset = Math.max(endOffset, objectEnd);
+                    end++;
+                }
+                if (end - start > 1) {
+                    IRandomAccessSource source = saveTokens.getSafeFile().createSourceView();
+                    tokens = new PdfTokenizer(new RandomAccessFileOrArray(
+                            new PrefetchedRandomAccessSource(source, startOffset, (int) (endOffset - startOffset))));
+                }
+                for (int i = start; i < end; i++) {
+                    objects.get(i).getRefersTo(false);
+                }
+                tokens = saveTokens;
+                start = end;
+            }
+        } catch (IOException e) {
+            throw new PdfException(PdfException.CannotReadPdfObject, e);
+        } finally {
+            tokens = saveTokens;
+        }
+        for (PdfIndirectReference reference : compressedObjects) {
+            reference.getRefersTo(false);
+        }
     }
 
     protected PdfObject readObject(boolean readAsDirect) throws IOException {
@@ -985,6 +1150,7 @@ public class PdfReader implements Closeable, Serializable {
 
     protected void fixXref() throws IOException {
         fixedXref = true;
+        sortedObjectOffsets = null;
         PdfXrefTable xref = pdfDocument.getXref();
         tokens.seek(0);
         ByteBuffer buffer = new ByteBuffer(24);
@@ -1018,39 +1184,246 @@ public class PdfReader implements Closeable, Serializable {
         trailer = null;
         ByteBuffer buffer = new ByteBuffer(24);
         PdfTokenizer lineTokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new ReusableRandomAccessSource(buffer)));
+        List<Long> chunkStarts = getXrefRebuildChunkStarts();
+        if (chunkStarts.size() > 1) {
+            rebuildXrefInParallel(chunkStarts, buffer, lineTokeniser);
+        } else {
+            while (rebuildXrefLine(buffer, lineTokeniser) != -1) {
+            }
+        }
+        if (trailer == null)
+            throw new PdfException(PdfException.TrailerNotFound);
+    }
+
+    /**
+     * Scans the line which starts at the current position. Trailers are read right away, in this case
+     * the scanning is continued from the end of the trailer up to the end of the next line.
+     *
+     * @return the position of the end of the scanned line, or -1 if the end of the document is reached.
+     */
+    private long rebuildXrefLine(ByteBuffer buffer, PdfTokenizer lineTokeniser) throws IOException {
         for (; ; ) {
             long pos = tokens.getPosition();
             buffer.reset();
             if (!tokens.readLineSegment(buffer, true)) // added boolean because of mailing list issue (17 Feb. 2014)
+                return -1;
+            if (buffer.get(0) == 't' && PdfTokenizer.checkTrailer(buffer)) {
+                readRebuiltTrailer(pos);
+                continue;
+            }
+            if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
+                int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
+                if (obj != null) {
+                    addRebuiltReference(obj[0], obj[1], pos);
+                }
+            }
+            return tokens.getPosition();
+        }
+    }
+
+    private void readRebuiltTrailer(long pos) throws IOException {
+        tokens.seek(pos);
+        tokens.nextToken();
+        pos = tokens.getPosition();
+        try {
+            PdfDictionary dic = (PdfDictionary) readObject(false);
+            if (dic.get(PdfName.Root, false) != null)
+                trailer = dic;
+            else
+                tokens.seek(pos);
+        } catch (Exception e) {
+            tokens.seek(pos);
+        }
+    }
+
+    private void addRebuiltReference(int num, int gen, long pos) {
+        PdfXrefTable xref = pdfDocument.getXref();
+        if (xref.get(num) == null || xref.get(num).getGenNumber() <= gen) {
+            xref.add(new PdfIndirectReference(pdfDocument, num, gen, pos));
+        }
+    }
+
+    /**
+     * Splits the document into chunks for the parallel rebuilding of the cross reference table.
+     * Each chunk starts right after the end of a line which is not blank, i.e. at the position where
+     * the sequential scan starts a new line as well.
+     *
+     * @return the start positions of the chunks, a single chunk means that the document shall be scanned sequentially.
+     */
+    private List<Long> getXrefRebuildChunkStarts() throws IOException {
+        List<Long> chunkStarts = new ArrayList<>();
+        chunkStarts.add(0L);
+        int workersCount = properties.xrefRebuildWorkersCount;
+        long length = tokens.length();
+        if (workersCount == 0 || length < 2 * MIN_XREF_REBUILD_CHUNK_SIZE) {
+            return chunkStarts;
+        }
+        long chunkSize = Math.max(length / (workersCount * XREF_REBUILD_CHUNKS_PER_WORKER), MIN_XREF_REBUILD_CHUNK_SIZE);
+        RandomAccessFileOrArray file = new RandomAccessFileOrArray(new GetBufferedRandomAccessSource(tokens.getSafeFile().createSourceView()));
+        long lineStart = 0;
+        while (lineStart != -1 && lineStart + chunkSize < length) {
+            lineStart = findLineStart(file, lineStart + chunkSize);
+            if (lineStart != -1 && lineStart < length) {
+                chunkStarts.add(lineStart);
+            }
+        }
+        file.close();
+        return chunkStarts;
+    }
+
+    private void rebuildXrefInParallel(List<Long> chunkStarts, ByteBuffer buffer, PdfTokenizer lineTokeniser) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(properties.xrefRebuildWorkersCount, new XrefRebuildThreadFactory());
+        try {
+            List<Future<List<RebuiltXrefEntry>>> chunks = new ArrayList<>(chunkStarts.size());
+            long length = tokens.length();
+            for (int i = 0; i < chunkStarts.size(); i++) {
+                final long start = chunkStarts.get(i);
+                final long end = i + 1 < chunkStarts.size() ? chunkStarts.get(i + 1) : length;
+                // the window overlaps the next chunk by a byte which is looked at after CR
+                final IRandomAccessSource window = new WindowRandomAccessSource(tokens.getSafeFile().createSourceView(),
+                        start, Math.min(end + 1, length) - start);
+                chunks.add(executor.submit(new Callable<List<RebuiltXrefEntry>>() {
+                    @Override
+                    public List<RebuiltXrefEntry> call() throws IOException {
+                        return scanXrefRebuildChunk(window, start, end);
+                    }
+                }));
+            }
+            // The entries are merged in the document order. Reading of a trailer moves the scan position,
+            // so the document is scanned sequentially from the end of the trailer up to the end of the next line,
+            // the entries found in the chunks before that position are skipped.
+            long syncPosition = 0;
+            for (Future<List<RebuiltXrefEntry>> chunk : chunks) {
+                for (RebuiltXrefEntry entry : getXrefRebuildChunk(chunk)) {
+                    if (entry.position < syncPosition) {
+                        continue;
+                    }
+                    if (entry.objNr == -1) {
+                        readRebuiltTrailer(entry.position);
+                        syncPosition = rebuildXrefLine(buffer, lineTokeniser);
+                        if (syncPosition == -1) {
+                            syncPosition = Long.MAX_VALUE;
+                        }
+                    } else {
+                        addRebuiltReference(entry.objNr, entry.genNr, entry.position);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<RebuiltXrefEntry> getXrefRebuildChunk(Future<List<RebuiltXrefEntry>> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.CannotOpenDocument, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new PdfException(PdfException.CannotOpenDocument, e.getCause());
+        }
+    }
+
+    /**
+     * Finds object headers and trailers in the chunk the same way as {@link #rebuildXref()} does.
+     *
+     * @param window the source of the chunk, it may be longer than the chunk.
+     * @param start  the position of the chunk in the document.
+     * @param end    the position of the end of the chunk in the document.
+     * @return the found entries in the document order, trailers are marked with -1 object number.
+     */
+    private static List<RebuiltXrefEntry> scanXrefRebuildChunk(IRandomAccessSource window, long start, long end) throws IOException {
+        PdfTokenizer chunkTokens = new PdfTokenizer(new RandomAccessFileOrArray(new GetBufferedRandomAccessSource(window)));
+        ByteBuffer buffer = new ByteBuffer(24);
+        PdfTokenizer lineTokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new ReusableRandomAccessSource(buffer)));
+        List<RebuiltXrefEntry> entries = new ArrayList<>();
+        for (; ; ) {
+            long pos = chunkTokens.getPosition();
+            buffer.reset();
+            if (start + pos >= end || !chunkTokens.readLineSegment(buffer, true))
                 break;
             if (buffer.get(0) == 't') {
-                if (!PdfTokenizer.checkTrailer(buffer))
-                    continue;
-                tokens.seek(pos);
-                tokens.nextToken();
-                pos = tokens.getPosition();
-                try {
-                    PdfDictionary dic = (PdfDictionary) readObject(false);
-                    if (dic.get(PdfName.Root, false) != null)
-                        trailer = dic;
-                    else
-                        tokens.seek(pos);
-                } catch (Exception e) {
-                    tokens.seek(pos);
+                if (PdfTokenizer.checkTrailer(buffer)) {
+                    entries.add(new RebuiltXrefEntry(start + pos, -1, 0));
                 }
             } else if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
                 int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
-                if (obj == null)
-                    continue;
-                int num = obj[0];
-                int gen = obj[1];
-                if (xref.get(num) == null || xref.get(num).getGenNumber() <= gen) {
-                    xref.add(new PdfIndirectReference(pdfDocument, num, gen, pos));
+                if (obj != null) {
+                    entries.add(new RebuiltXrefEntry(start + pos, obj[0], obj[1]));
                 }
             }
         }
-        if (trailer == null)
-            throw new PdfException(PdfException.TrailerNotFound);
+        chunkTokens.close();
+        return entries;
+    }
+
+    /**
+     * Finds the first position not less than the given one which follows the end of a line
+     * having a non-whitespace character right before the end of line.
+     *
+     * @return the found position or -1 if there is no such position.
+     */
+    private static long findLineStart(RandomAccessFileOrArray file, long from) throws IOException {
+        long pos = Math.max(from - 3, 0);
+        file.seek(pos);
+        // the characters at pos - 3, pos - 2 and pos - 1
+        int ch3 = -1;
+        int ch2 = -1;
+        int ch1 = -1;
+        for (; ; ) {
+            int ch = file.read();
+            if (pos >= from && pos >= 3) {
+                int lastLineChar = -1;
+                if (ch1 == '\n') {
+                    lastLineChar = ch2 == '\r' ? ch3 : ch2;
+                } else if (ch1 == '\r' && ch != '\n') {
+                    lastLineChar = ch2;
+                }
+                if (lastLineChar != -1 && !PdfTokenizer.isWhitespace(lastLineChar)) {
+                    return pos;
+                }
+            }
+            if (ch == -1) {
+                return -1;
+            }
+            ch3 = ch2;
+            ch2 = ch1;
+            ch1 = ch;
+            pos++;
+        }
+    }
+
+    private boolean readXrefIndex() {
+        String indexFile = properties.xrefIndexFile;
+        if (indexFile == null) {
+            return false;
+        }
+        try {
+            return XrefIndexFile.read(this, indexFile);
+        } catch (Exception e) {
+            Logger logger = LoggerFactory.getLogger(PdfReader.class);
+            logger.warn(MessageFormat.format(LogMessageConstant.XREF_INDEX_CANNOT_BE_READ, indexFile), e);
+            pdfDocument.getXref().clear();
+            trailer = null;
+            return false;
+        }
+    }
+
+    private void writeXrefIndex() {
+        String indexFile = properties.xrefIndexFile;
+        if (indexFile == null) {
+            return;
+        }
+        try {
+            XrefIndexFile.write(this, indexFile);
+        } catch (Exception e) {
+            Logger logger = LoggerFactory.getLogger(PdfReader.class);
+            logger.warn(MessageFormat.format(LogMessageConstant.XREF_INDEX_CANNOT_BE_WRITTEN, indexFile), e);
+        }
     }
 
     private void readDecryptObj() {
@@ -1073,6 +1446,110 @@ public class PdfReader implements Closeable, Serializable {
         }
     }
 
+    /**
+     * Limits the number of read objects which are kept in memory, see {@link StampingProperties#setReadObjectsCacheSize(int)}.
+     *
+     * @param cacheSize the maximal number of read objects kept in memory, zero means no limit.
+     */
+    void setReadObjectsCacheSize(int cacheSize) {
+        readObjectsCacheSize = cacheSize;
+        if (cacheSize > 0 && cachedObjects == null) {
+            cachedObjects = new LinkedHashSet<>();
+            evictedObjects = new HashMap<>();
+            evictedObjectsQueue = new ReferenceQueue<>();
+        }
+    }
+
+    /**
+     * Gets back the evicted object if it is still used by the application.
+     * The object is set back to its indirect reference.
+     *
+     * @param reference the indirect reference of the evicted object.
+     * @return the evicted object or null if there is no such object or it was garbage collected.
+     */
+    PdfObject restoreEvictedObject(PdfIndirectReference reference) {
+        PdfObject object = takeEvictedObject(reference);
+        if (object != null) {
+            cacheReadObject(reference);
+        }
+        return object;
+    }
+
+    private boolean isDecryptionRequired(PdfStream stream) {
+        if (decrypt == null || decrypt.isEmbeddedFilesOnly())
+            return false;
+        PdfObject filter = stream.get(PdfName.Filter, true);
+        boolean skip = false;
+        if (filter != null) {
+            if (PdfName.Crypt.equals(filter)) {
+                skip = true;
+            } else if (filter.getType() == PdfObject.ARRAY) {
+                PdfArray filters = (PdfArray) filter;
+                for (int k = 0; k < filters.size(); k++) {
+                    if (!filters.isEmpty() && PdfName.Crypt.equals(filters.get(k, true))) {
+                        skip = true;
+                        break;
+                    }
+                }
+            }
+            filter.release();
+        }
+        return !skip;
+    }
+
+    private PdfObject takeEvictedObject(PdfIndirectReference reference) {
+        if (evictedObjects == null || evictedObjects.isEmpty()) {
+            return null;
+        }
+        purgeEvictedObjects();
+        EvictedObject evictedObject = evictedObjects.remove(reference);
+        PdfObject object = evictedObject != null ? evictedObject.get() : null;
+        if (object == null || object.getIndirectReference() != reference || reference.isFree()) {
+            // the object was released or its reference was freed
+            return null;
+        }
+        reference.setRefersTo(object);
+        return object;
+    }
+
+    private void cacheReadObject(PdfIndirectReference reference) {
+        if (cachedObjects == null) {
+            return;
+        }
+        cachedObjects.remove(reference);
+        cachedObjects.add(reference);
+        while (cachedObjects.size() > readObjectsCacheSize) {
+            Iterator<PdfIndirectReference> iterator = cachedObjects.iterator();
+            PdfIndirectReference oldest = iterator.next();
+            iterator.remove();
+            evictObject(oldest);
+        }
+    }
+
+    private void evictObject(PdfIndirectReference reference) {
+        PdfObject object = reference.refersTo;
+        // Objects which were changed or are about to be written must stay in memory
+        if (object == null || reference.checkState(PdfObject.MODIFIED) || reference.checkState(PdfObject.FLUSHED)
+                || reference.checkState(PdfObject.MUST_BE_FLUSHED) || object.checkState(PdfObject.FORBID_RELEASE)
+                || object.getIndirectReference() != reference
+                || object.getType() == PdfObject.STREAM && ((PdfStream) object).getOutputStream() != null) {
+            return;
+        }
+        purgeEvictedObjects();
+        reference.setRefersTo(null);
+        evictedObjects.put(reference, new EvictedObject(reference, object, evictedObjectsQueue));
+    }
+
+    private void purgeEvictedObjects() {
+        java.lang.ref.Reference<? extends PdfObject> cleared;
+        while ((cleared = evictedObjectsQueue.poll()) != null) {
+            EvictedObject evictedObject = (EvictedObject) cleared;
+            if (evictedObjects.get(evictedObject.reference) == evictedObject) {
+                evictedObjects.remove(evictedObject.reference);
+            }
+        }
+    }
+
     /**
      * Utility method that checks the provided byte source to see if it has junk bytes at the beginning.  If junk bytes
      * are found, construct a tokeniser that ignores the junk.  Otherwise, construct a tokeniser for the byte source as it is
@@ -1091,6 +1568,91 @@ public class PdfReader implements Closeable, Serializable {
         return tok;
     }
 
+    /**
+     * Decodes either the bytes or, if they are {@code null}, the source. The source is consumed by the first filter
+     * directly if it supports it, otherwise it is read into memory.
+     */
+    private static byte[] decodeBytes(byte[] b, IRandomAccessSource source, PdfDictionary streamDictionary, Map<PdfName, IFilterHandler> filterHandlers) {
+        PdfArray filters = getFilters(streamDictionary);
+        PdfArray dp = getDecodeParams(streamDictionary);
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName) filters.get(j);
+            IFilterHandler filterHandler = getFilterHandler(filterName, filterHandlers);
+            PdfDictionary decodeParams = getDecodeParams(dp, j);
+            if (b == null && filterHandler instanceof FlateDecodeFilter) {
+                b = ((FlateDecodeFilter) filterHandler).decode(source, filterName, decodeParams, streamDictionary);
+            } else {
+                if (b == null) {
+                    b = readSourceBytes(source);
+                }
+                b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
+            }
+        }
+        return b != null ? b : readSourceBytes(source);
+    }
+
+    private static PdfArray getFilters(PdfDictionary streamDictionary) {
+        PdfObject filter = streamDictionary.get(PdfName.Filter);
+        PdfArray filters = new PdfArray();
+        if (filter != null) {
+            if (filter.getType() == PdfObject.NAME) {
+                filters.add(filter);
+            } else if (filter.getType() == PdfObject.ARRAY) {
+                filters = ((PdfArray) filter);
+            }
+        }
+        return filters;
+    }
+
+    private static PdfArray getDecodeParams(PdfDictionary streamDictionary) {
+        PdfArray dp = new PdfArray();
+        PdfObject dpo = streamDictionary.get(PdfName.DecodeParms);
+        if (dpo == null || (dpo.getType() != PdfObject.DICTIONARY && dpo.getType() != PdfObject.ARRAY)) {
+            if (dpo != null) dpo.release();
+            dpo = streamDictionary.get(PdfName.DP);
+        }
+        if (dpo != null) {
+            if (dpo.getType() == PdfObject.DICTIONARY) {
+                dp.add(dpo);
+            } else if (dpo.getType() == PdfObject.ARRAY) {
+                dp = ((PdfArray) dpo);
+            }
+            dpo.release();
+        }
+        return dp;
+    }
+
+    private static PdfDictionary getDecodeParams(PdfArray dp, int index) {
+        if (index < dp.size()) {
+            PdfObject dpEntry = dp.get(index, true);
+            if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
+                return null;
+            } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
+                return (PdfDictionary) dpEntry;
+            } else {
+                throw new PdfException(PdfException.DecodeParameterType1IsNotSupported).setMessageParams(dpEntry.getClass().toString());
+            }
+        }
+        return null;
+    }
+
+    private static IFilterHandler getFilterHandler(PdfName filterName, Map<PdfName, IFilterHandler> filterHandlers) {
+        IFilterHandler filterHandler = filterHandlers.get(filterName);
+        if (filterHandler == null)
+            throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+        return filterHandler;
+    }
+
+    private static byte[] readSourceBytes(IRandomAccessSource source) {
+        try {
+            byte[] bytes = new byte[(int) source.length()];
+            new RandomAccessFileOrArray(source).readFully(bytes);
+            return bytes;
+        } catch (IOException e) {
+            throw new PdfException(PdfException.IoException, e);
+        }
+    }
+
     private PdfObject readObject(PdfIndirectReference reference, boolean fixXref) {
         if (reference == null)
             return null;
@@ -1101,6 +1663,9 @@ public class PdfReader implements Closeable, Serializable {
             if (reference.getObjStreamNumber() > 0) {
                 PdfStream objectStream = (PdfStream) pdfDocument.getXref().
                         get(reference.getObjStreamNumber()).getRefersTo(false);
+                if (properties.objectStreamsCacheSize > 0) {
+                    return readCompressedObject(reference, objectStream);
+                }
                 readObjectStream(objectStream);
                 return reference.refersTo;
             } else if (reference.getOffset() > 0) {
@@ -1131,6 +1696,117 @@ public class PdfReader implements Closeable, Serializable {
         }
     }
 
+    /**
+     * Reads a single object from the object stream, which is decoded once and kept in
+     * the cache of the decoded object streams, see {@link ReaderProperties#setObjectStreamsCacheSize(long)}.
+     */
+    private PdfObject readCompressedObject(PdfIndirectReference reference, PdfStream objectStream) throws IOException {
+        if (objectStreamsCache == null) {
+            objectStreamsCache = new LinkedHashMap<>(16, 0.75f, true);
+        }
+        PdfIndirectReference objectStreamReference = objectStream.getIndirectReference();
+        DecodedObjectStream decodedObjectStream = objectStreamsCache.get(objectStreamReference);
+        if (decodedObjectStream != null) {
+            objectStreamsCacheHits++;
+        } else {
+            objectStreamsCacheMisses++;
+            decodedObjectStream = decodeObjectStream(objectStream);
+            objectStreamsCache.put(objectStreamReference, decodedObjectStream);
+            objectStreamsCacheSize += decodedObjectStream.getSize();
+            Iterator<DecodedObjectStream> iterator = objectStreamsCache.values().iterator();
+            // the most recently used stream is always kept, even if it exceeds the budget alone
+            while (objectStreamsCacheSize > properties.objectStreamsCacheSize && objectStreamsCache.size() > 1) {
+                objectStreamsCacheSize -= iterator.next().getSize();
+                iterator.remove();
+            }
+            objectStreamReference.setState(PdfObject.ORIGINAL_OBJECT_STREAM);
+        }
+        int index = decodedObjectStream.indexOf(reference.getObjNumber(), reference.getIndex());
+        if (index == -1) {
+            return null;
+        }
+        PdfTokenizer saveTokens = tokens;
+        try {
+            tokens = decodedObjectStream.createTokenizer();
+            return readObjectStreamEntry(decodedObjectStream.address[index]).setIndirectReference(reference);
+        } finally {
+            tokens = saveTokens;
+        }
+    }
+
+    private DecodedObjectStream decodeObjectStream(PdfStream objectStream) throws IOException {
+        int first = objectStream.getAsNumber(PdfName.First).intValue();
+        int n = objectStream.getAsNumber(PdfName.N).intValue();
+        byte[] bytes = readStreamBytes(objectStream, true);
+        DecodedObjectStream decodedObjectStream = new DecodedObjectStream(bytes, n);
+        PdfTokenizer tokenizer = decodedObjectStream.createTokenizer();
+        boolean ok = true;
+        for (int k = 0; k < n; ++k) {
+            ok = tokenizer.nextToken();
+            if (!ok)
+                break;
+            if (tokenizer.getTokenType() != PdfTokenizer.TokenType.Number) {
+                ok = false;
+                break;
+            }
+            decodedObjectStream.objNumber[k] = tokenizer.getIntValue();
+            ok = tokenizer.nextToken();
+            if (!ok)
+                break;
+            if (tokenizer.getTokenType() != PdfTokenizer.TokenType.Number) {
+                ok = false;
+                break;
+            }
+            decodedObjectStream.address[k] = tokenizer.getIntValue() + first;
+        }
+        if (!ok)
+            throw new PdfException(PdfException.ErrorWhileReadingObjectStream);
+        return decodedObjectStream;
+    }
+
+    private PdfObject readObjectStreamEntry(int address) throws IOException {
+        tokens.seek(address);
+        tokens.nextToken();
+        if (tokens.getTokenType() == PdfTokenizer.TokenType.Number) {
+            return new PdfNumber(tokens.getByteContent());
+        }
+        tokens.seek(address);
+        return readObject(false, true);
+    }
+
+    private boolean isReadRequired(PdfIndirectReference reference) {
+        return reference != null && reference.refersTo == null && reference.getDocument() == pdfDocument
+                && !reference.isFree() && !reference.checkState(PdfObject.FLUSHED) && !reference.checkState(PdfObject.MODIFIED);
+    }
+
+    /**
+     * Estimates the end of the object by the offset of the next object in the document.
+     */
+    private long getPrefetchedObjectEnd(long offset) throws IOException {
+        if (sortedObjectOffsets == null) {
+            PdfXrefTable xref = pdfDocument.getXref();
+            long[] offsets = new long[xref.size()];
+            int count = 0;
+            for (int i = 0; i < xref.size(); i++) {
+                PdfIndirectReference reference = xref.get(i);
+                if (reference != null && reference.getOffset() > 0) {
+                    offsets[count++] = reference.getOffset();
+                }
+            }
+            sortedObjectOffsets = Arrays.copyOf(offsets, count);
+            Arrays.sort(sortedObjectOffsets);
+        }
+        long end = Math.min(offset + MAX_PREFETCH_OBJECT_SIZE, tokens.length());
+        int index = Arrays.binarySearch(sortedObjectOffsets, offset + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index < sortedObjectOffsets.length) {
+            end = Math.min(end, sortedObjectOffsets[index]);
+        }
+        return Math.max(end, offset);
+    }
+
     private void checkPdfStreamLength(PdfStream pdfStream) throws IOException {
         if (!correctStreamLength)
             return;
@@ -1254,4 +1930,163 @@ public class PdfReader implements Closeable, Serializable {
             buffer = null;
         }
     }
+
+    /**
+     * A window over the stream data, which synchronizes reading with the reader,
+     * because the source of the document is shared.
+     */
+    private class StreamWindowRandomAccessSource implements IRandomAccessSource {
+        private final IRandomAccessSource window;
+
+        StreamWindowRandomAccessSource(IRandomAccessSource window) {
+            this.window = window;
+        }
+
+        @Override
+        public int get(long position) throws IOException {
+            synchronized (PdfReader.this) {
+                return window.get(position);
+            }
+        }
+
+        @Override
+        public int get(long position, byte[] bytes, int off, int len) throws IOException {
+            synchronized (PdfReader.this) {
+                return window.get(position, bytes, off, len);
+            }
+        }
+
+        @Override
+        public long length() {
+            return window.length();
+        }
+
+        @Override
+        public void close() throws IOException {
+            window.close();
+        }
+    }
+
+    /**
+     * The decoded content of an object stream together with the numbers and positions of its objects.
+     */
+    private static class DecodedObjectStream {
+        final byte[] bytes;
+        final int[] objNumber;
+        final int[] address;
+
+        DecodedObjectStream(byte[] bytes, int n) {
+            this.bytes = bytes;
+            this.objNumber = new int[n];
+            this.address = new int[n];
+        }
+
+        PdfTokenizer createTokenizer() {
+            return new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes)));
+        }
+
+        /**
+         * Gets the index of the object in the stream. The index from the cross reference table is checked first.
+         */
+        int indexOf(int objNr, int index) {
+            if (index >= 0 && index < objNumber.length && objNumber[index] == objNr) {
+                return index;
+            }
+            for (int k = 0; k < objNumber.length; k++) {
+                if (objNumber[k] == objNr) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        long getSize() {
+            return bytes.length + 8L * objNumber.length;
+        }
+    }
+
+    /**
+     * The source which serves the bytes of the prefetched range from memory and reads the rest from the document.
+     */
+    private static class PrefetchedRandomAccessSource implements IRandomAccessSource {
+        private final IRandomAccessSource source;
+        private final long start;
+        private final byte[] bytes;
+        private final int length;
+
+        PrefetchedRandomAccessSource(IRandomAccessSource source, long start, int length) throws IOException {
+            this.source = source;
+            this.start = start;
+            this.bytes = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int count = source.get(start + read, bytes, read, length - read);
+                if (count <= 0) {
+                    break;
+                }
+                read += count;
+            }
+            this.length = read;
+        }
+
+        @Override
+        public int get(long position) throws IOException {
+            if (position >= start && position < start + length) {
+                return bytes[(int) (position - start)] & 0xff;
+            }
+            return source.get(position);
+        }
+
+        @Override
+        public int get(long position, byte[] bytes, int off, int len) throws IOException {
+            if (position >= start && position + len <= start + length) {
+                System.arraycopy(this.bytes, (int) (position - start), bytes, off, len);
+                return len;
+            }
+            return source.get(position, bytes, off, len);
+        }
+
+        @Override
+        public long length() {
+            return source.length();
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+
+    private static class EvictedObject extends WeakReference<PdfObject> {
+        final PdfIndirectReference reference;
+
+        EvictedObject(PdfIndirectReference reference, PdfObject object, ReferenceQueue<PdfObject> queue) {
+            super(object, queue);
+            this.reference = reference;
+        }
+    }
+
+    /**
+     * Object header or trailer found while the cross reference table is rebuilt in parallel.
+     */
+    private static class RebuiltXrefEntry {
+        final long position;
+        final int objNr;
+        final int genNr;
+
+        RebuiltXrefEntry(long position, int objNr, int genNr) {
+            this.position = position;
+            this.objNr = objNr;
+            this.genNr = genNr;
+        }
+    }
+
+    private static class XrefRebuildThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "PdfReader xref rebuild worker");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
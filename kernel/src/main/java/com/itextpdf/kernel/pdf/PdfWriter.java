@@ -44,8 +44,10 @@
 package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.source.AsyncChannelOutputStream;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.util.FileUtil;
+import com.itextpdf.kernel.PdfException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,11 +56,22 @@ import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import static com.itextpdf.io.source.ByteUtils.getIsoBytes;
 
@@ -69,6 +82,17 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
     private static final byte[] obj = getIsoBytes(" obj\n");
     private static final byte[] endobj = getIsoBytes("\nendobj\n");
 
+    /**
+     * The maximal number of flushed but not yet written objects per compression worker.
+     */
+    private static final int MAX_PENDING_OBJECTS_PER_WORKER = 16;
+
+    /**
+     * Types of the dictionaries which are put into separate object streams if grouping is enabled.
+     */
+    private static final Set<PdfName> GROUPED_OBJECT_TYPES = new HashSet<>(Arrays.asList(
+            PdfName.Annot, PdfName.Font, PdfName.FontDescriptor, PdfName.Page, PdfName.StructElem));
+
     // For internal usage only
     private PdfOutputStream duplicateStream = null;
 
@@ -80,6 +104,12 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
      */
     PdfObjectStream objectStream = null;
 
+    /**
+     * Currently active object streams for the groups of objects of the same type,
+     * if grouping of objects in object streams is enabled.
+     */
+    private Map<PdfName, PdfObjectStream> groupedObjectStreams;
+
     /**
      * Is used to avoid duplications on object copying.
      * It stores hashes of the indirect reference from the source document and the corresponding
@@ -92,6 +122,17 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
      */
     private SmartModePdfObjectsSerializer smartModeSerializer = new SmartModePdfObjectsSerializer();
 
+    /**
+     * Compresses flushed streams if parallel compression is enabled in {@link WriterProperties}.
+     */
+    private transient ExecutorService compressionExecutor;
+
+    /**
+     * Objects which are flushed, but not written yet, because they wait for themselves or preceding
+     * streams to be compressed. The objects are written strictly in the order they were flushed.
+     */
+    private transient ArrayDeque<PendingObject> pendingObjects;
+
     //forewarned is forearmed
     protected boolean isUserWarnedAboutAcroFormCopying;
 
@@ -114,7 +155,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
     }
 
     public PdfWriter(java.io.OutputStream os, WriterProperties properties) {
-        super(FileUtil.wrapWithBufferedOutputStream(os));
+        super(FileUtil.wrapWithBufferedOutputStream(wrapWithAsyncOutputStream(os, properties)));
         this.properties = properties;
         EncryptionProperties encryptProps = properties.encryptionProperties;
         if (properties.isStandardEncryptionUsed()) {
@@ -150,6 +191,20 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         this(FileUtil.getBufferedOutputStream(filename), properties);
     }
 
+    /**
+     * Create a PdfWriter writing to the passed channel and using the passed writer properties.
+     * The channel is written on a background thread, with the buffers specified by
+     * {@link WriterProperties#useAsynchronousOutput(int, int)} or with the default ones.
+     *
+     * @param channel    the channel to write to.
+     * @param properties writerproperties to use.
+     */
+    public PdfWriter(WritableByteChannel channel, WriterProperties properties) {
+        this(properties.asyncOutputBuffersCount > 0
+                ? new AsyncChannelOutputStream(channel, properties.asyncOutputBuffersCount, properties.asyncOutputBufferSize)
+                : new AsyncChannelOutputStream(channel), properties);
+    }
+
     /**
      * Indicates if to use full compression mode.
      *
@@ -248,7 +303,16 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
      */
     @Override
     public void close() throws IOException {
+        if (compressionExecutor != null) {
+            compressionExecutor.shutdownNow();
+            compressionExecutor = null;
+            pendingObjects = null;
+        }
         try {
+            if (!isCloseStream() && outputStream instanceof AsyncChannelOutputStream) {
+                // the background writer is stopped, but the target of the output is left open
+                ((AsyncChannelOutputStream) outputStream).finish();
+            }
             super.close();
         } finally {
             try {
@@ -275,11 +339,48 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             objectStream = new PdfObjectStream(document);
         } else if (objectStream.getSize() == PdfObjectStream.MAX_OBJ_STREAM_SIZE) {
             objectStream.flush();
-            objectStream = new PdfObjectStream(objectStream);
+            if (properties.compressionWorkersCount > 0) {
+                // Flushed object stream may still be waiting for compression, so its buffers cannot be reused.
+                objectStream = new PdfObjectStream(document);
+            } else {
+                objectStream = new PdfObjectStream(objectStream);
+            }
         }
         return objectStream;
     }
 
+    /**
+     * Gets the current object stream for the object. If grouping of objects in object streams is enabled,
+     * dictionaries of the grouped types are put to the separate object streams, one per type.
+     *
+     * @param pdfObject object to be added to the object stream.
+     * @return object stream.
+     * @throws IOException
+     */
+    PdfObjectStream getObjectStream(PdfObject pdfObject) throws IOException {
+        PdfName group = getObjectStreamGroup(pdfObject);
+        if (group == null) {
+            return getObjectStream();
+        }
+        if (groupedObjectStreams == null) {
+            groupedObjectStreams = new LinkedHashMap<>();
+        }
+        PdfObjectStream groupStream = groupedObjectStreams.get(group);
+        if (groupStream == null) {
+            groupStream = new PdfObjectStream(document);
+            groupedObjectStreams.put(group, groupStream);
+        } else if (groupStream.getSize() == PdfObjectStream.MAX_OBJ_STREAM_SIZE) {
+            groupStream.flush();
+            if (properties.compressionWorkersCount > 0) {
+                groupStream = new PdfObjectStream(document);
+            } else {
+                groupStream = new PdfObjectStream(groupStream);
+            }
+            groupedObjectStreams.put(group, groupStream);
+        }
+        return groupStream;
+    }
+
     /**
      * Flushes the object. Override this method if you want to define custom behaviour for object flushing.
      *
@@ -289,39 +390,37 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
      */
     protected void flushObject(PdfObject pdfObject, boolean canBeInObjStm) throws IOException {
         PdfIndirectReference indirectReference = pdfObject.getIndirectReference();
+        boolean isPending = false;
         if (isFullCompression() && canBeInObjStm) {
-            PdfObjectStream objectStream = getObjectStream();
+            PdfObjectStream objectStream = getObjectStream(pdfObject);
             objectStream.addObject(pdfObject);
+        } else if (properties.compressionWorkersCount > 0) {
+            enqueueObject(pdfObject);
+            isPending = true;
         } else {
             indirectReference.setOffset(getCurrentPos());
             writeToBody(pdfObject);
         }
         indirectReference.setState(PdfObject.FLUSHED).clearState(PdfObject.MUST_BE_FLUSHED);
         switch (pdfObject.getType()) {
-            case PdfObject.BOOLEAN:
-            case PdfObject.NAME:
-            case PdfObject.NULL:
-            case PdfObject.NUMBER:
-            case PdfObject.STRING:
-                ((PdfPrimitiveObject) pdfObject).content = null;
-                break;
             case PdfObject.ARRAY:
-                PdfArray array = ((PdfArray) pdfObject);
-                markArrayContentToFlush(array);
-                array.releaseContent();
+                markArrayContentToFlush((PdfArray) pdfObject);
                 break;
             case PdfObject.STREAM:
             case PdfObject.DICTIONARY:
-                PdfDictionary dictionary = ((PdfDictionary) pdfObject);
-                markDictionaryContentToFlush(dictionary);
-                dictionary.releaseContent();
+                markDictionaryContentToFlush((PdfDictionary) pdfObject);
                 break;
             case PdfObject.INDIRECT_REFERENCE:
                 markObjectToFlush(((PdfIndirectReference) pdfObject).getRefersTo(false));
         }
+        if (isPending) {
+            writeCompletedPendingObjects();
+        } else {
+            document.getXref().compactFlushedReference(indirectReference);
+            releaseObjectContent(pdfObject);
+        }
     }
 
-
     protected PdfObject copyObject(PdfObject obj, PdfDocument documentTo, boolean allowDuplicating) {
         if (obj instanceof PdfIndirectReference)
             obj = ((PdfIndirectReference) obj).getRefersTo();
@@ -355,9 +454,12 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         }
 
         SerializedObjectContent serializedContent = null;
-        if (properties.smartMode && tryToFindDuplicate && !checkTypeOfPdfDictionary(obj, PdfName.Page)) {
+        boolean findContentDuplicate = properties.smartMode
+                ? !checkTypeOfPdfDictionary(obj, PdfName.Page)
+                : properties.resourceDeduplication && isDeduplicatedResource(obj);
+        if (findContentDuplicate && tryToFindDuplicate) {
             serializedContent = smartModeSerializer.serializeObject(obj);
-            PdfIndirectReference objectRef = smartModeSerializer.getSavedSerializedObject(serializedContent);
+            PdfIndirectReference objectRef = smartModeSerializer.getSavedSerializedObject(serializedContent, obj);
             if (objectRef != null) {
                 copiedObjects.put(copiedObjectKey, objectRef);
                 return objectRef.refersTo;
@@ -371,7 +473,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             }
             PdfIndirectReference indRef = newObject.makeIndirect(documentTo).getIndirectReference();
             if (serializedContent != null) {
-                smartModeSerializer.saveSerializedObject(serializedContent, indRef);
+                smartModeSerializer.saveSerializedObject(serializedContent, indirectReference, indRef);
             }
             copiedObjects.put(copiedObjectKey, indRef);
         }
@@ -426,10 +528,8 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
                 }
             }
         }
-        if (objectStream != null && objectStream.getSize() > 0) {
-            objectStream.flush();
-            objectStream = null;
-        }
+        flushObjectStreams();
+        writePendingObjects();
     }
 
     /**
@@ -441,15 +541,13 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             PdfIndirectReference indirectReference = xref.get(i);
             if (null != indirectReference) {
                 PdfObject obj = indirectReference.getRefersTo(false);
-                if (obj != null && !obj.equals(objectStream) && obj.isModified()) {
+                if (obj != null && !isActiveObjectStream(obj) && obj.isModified()) {
                     obj.flush();
                 }
             }
         }
-        if (objectStream != null && objectStream.getSize() > 0) {
-            objectStream.flush();
-            objectStream = null;
-        }
+        flushObjectStreams();
+        writePendingObjects();
     }
 
     /**
@@ -498,6 +596,128 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         }
     }
 
+    /**
+     * Writes all flushed objects which wait for the parallel stream compression. Since this method returns
+     * all the offsets of the flushed objects are known and the current position of the writer is exact.
+     */
+    void writePendingObjects() {
+        if (pendingObjects == null) {
+            return;
+        }
+        while (!pendingObjects.isEmpty()) {
+            writePendingObject(pendingObjects.poll());
+        }
+    }
+
+    private PdfName getObjectStreamGroup(PdfObject pdfObject) {
+        if (!properties.objectStreamsGrouping || pdfObject.getType() != PdfObject.DICTIONARY) {
+            return null;
+        }
+        PdfName type = ((PdfDictionary) pdfObject).getAsName(PdfName.Type);
+        return type != null && GROUPED_OBJECT_TYPES.contains(type) ? type : null;
+    }
+
+    private boolean isActiveObjectStream(PdfObject pdfObject) {
+        return pdfObject.equals(objectStream)
+                || groupedObjectStreams != null && groupedObjectStreams.containsValue(pdfObject);
+    }
+
+    private void flushObjectStreams() {
+        if (objectStream != null && objectStream.getSize() > 0) {
+            objectStream.flush();
+            objectStream = null;
+        }
+        if (groupedObjectStreams != null) {
+            for (PdfObjectStream groupStream : groupedObjectStreams.values()) {
+                if (groupStream.getSize() > 0) {
+                    groupStream.flush();
+                }
+            }
+            groupedObjectStreams = null;
+        }
+    }
+
+    private void enqueueObject(PdfObject pdfObject) throws IOException {
+        if (compressionExecutor == null) {
+            compressionExecutor = Executors.newFixedThreadPool(properties.compressionWorkersCount, new CompressionThreadFactory());
+            pendingObjects = new ArrayDeque<>();
+        }
+        PendingObject pendingObject = new PendingObject(pdfObject);
+        if (pdfObject.getType() == PdfObject.STREAM && ((PdfStream) pdfObject).getInputStream() == null) {
+            PdfStream pdfStream = (PdfStream) pdfObject;
+            final boolean compress = prepareStream(pdfStream);
+            final ByteArrayOutputStream[] contentParts = getStreamContentParts(pdfStream);
+            final int compressionLevel = pdfStream.getCompressionLevel();
+            if (compress) {
+                pendingObject.encodedContent = compressionExecutor.submit(new Callable<ByteArrayOutputStream>() {
+                    @Override
+                    public ByteArrayOutputStream call() throws IOException {
+                        return encodeStreamContent(contentParts, true, compressionLevel);
+                    }
+                });
+            } else {
+                pendingObject.content = encodeStreamContent(contentParts, false, compressionLevel);
+            }
+        }
+        pendingObjects.add(pendingObject);
+    }
+
+    private void writeCompletedPendingObjects() {
+        int maxPendingObjects = properties.compressionWorkersCount * MAX_PENDING_OBJECTS_PER_WORKER;
+        while (!pendingObjects.isEmpty()
+                && (pendingObjects.size() > maxPendingObjects || pendingObjects.peek().isReady())) {
+            writePendingObject(pendingObjects.poll());
+        }
+    }
+
+    private void writePendingObject(PendingObject pendingObject) {
+        PdfObject pdfObject = pendingObject.object;
+        PdfIndirectReference indirectReference = pdfObject.getIndirectReference();
+        try {
+            indirectReference.setOffset(getCurrentPos());
+            ByteArrayOutputStream content = pendingObject.getContent();
+            if (content == null) {
+                writeToBody(pdfObject);
+            } else {
+                if (crypto != null) {
+                    crypto.setHashKeyForNextObject(indirectReference.getObjNumber(), indirectReference.getGenNumber());
+                }
+                writeInteger(indirectReference.getObjNumber()).
+                        writeSpace().
+                        writeInteger(indirectReference.getGenNumber()).writeBytes(obj);
+                writeStreamContent((PdfStream) pdfObject, content);
+                writeBytes(endobj);
+            }
+        } catch (IOException e) {
+            throw new PdfException(PdfException.CannotFlushObject, e, pdfObject);
+        }
+        document.getXref().compactFlushedReference(indirectReference);
+        if (pdfObject instanceof PdfObjectStream) {
+            ((PdfObjectStream) pdfObject).releaseContent(true);
+        } else {
+            releaseObjectContent(pdfObject);
+        }
+    }
+
+    private static void releaseObjectContent(PdfObject pdfObject) {
+        switch (pdfObject.getType()) {
+            case PdfObject.BOOLEAN:
+            case PdfObject.NAME:
+            case PdfObject.NULL:
+            case PdfObject.NUMBER:
+            case PdfObject.STRING:
+                ((PdfPrimitiveObject) pdfObject).content = null;
+                break;
+            case PdfObject.ARRAY:
+                ((PdfArray) pdfObject).releaseContent();
+                break;
+            case PdfObject.STREAM:
+            case PdfObject.DICTIONARY:
+                ((PdfDictionary) pdfObject).releaseContent();
+                break;
+        }
+    }
+
     private void markArrayContentToFlush(PdfArray array) {
         for (int i = 0; i < array.size(); i++) {
             markObjectToFlush(array.get(i, false));
@@ -549,6 +769,59 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         return dictionary.isDictionary() && expectedType.equals(((PdfDictionary) dictionary).getAsName(PdfName.Type));
     }
 
+    /**
+     * Checks if the object is an image, ICC profile or font program stream, which doesn't refer to other
+     * indirect objects, see {@link WriterProperties#useResourceDeduplication()}.
+     */
+    private static boolean isDeduplicatedResource(PdfObject obj) {
+        if (!obj.isStream()) {
+            return false;
+        }
+        PdfStream stream = (PdfStream) obj;
+        PdfName subtype = stream.getAsName(PdfName.Subtype);
+        boolean isImage = PdfName.Image.equals(subtype);
+        boolean isIccProfile = subtype == null && stream.containsKey(PdfName.N);
+        boolean isFontProgram = stream.containsKey(PdfName.Length1) || subtype != null
+                && (subtype.getValue().equals("Type1C") || subtype.getValue().equals("CIDFontType0C")
+                || subtype.getValue().equals("OpenType"));
+        if (!isImage && !isIccProfile && !isFontProgram) {
+            return false;
+        }
+        for (PdfName key : stream.keySet()) {
+            // /Length is often written as an indirect number, it doesn't make the stream dependent on other objects
+            if (!PdfName.Length.equals(key) && containsIndirectReference(stream.get(key, false))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsIndirectReference(PdfObject obj) {
+        Iterable<PdfObject> values;
+        if (obj.isIndirectReference()) {
+            return true;
+        } else if (obj.isDictionary() || obj.isStream()) {
+            values = ((PdfDictionary) obj).values(false);
+        } else if (obj.isArray()) {
+            values = ((PdfArray) obj).list;
+        } else {
+            return false;
+        }
+        for (PdfObject value : values) {
+            if (containsIndirectReference(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static java.io.OutputStream wrapWithAsyncOutputStream(java.io.OutputStream os, WriterProperties properties) {
+        if (properties.asyncOutputBuffersCount == 0 || os instanceof AsyncChannelOutputStream) {
+            return os;
+        }
+        return new AsyncChannelOutputStream(os, properties.asyncOutputBuffersCount, properties.asyncOutputBufferSize);
+    }
+
     /**
      * This method is invoked while deserialization
      */
@@ -572,4 +845,49 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         outputStream = tempOutputStream;
     }
 
+    /**
+     * Flushed object which waits to be written.
+     */
+    private static class PendingObject {
+        final PdfObject object;
+        ByteArrayOutputStream content;
+        Future<ByteArrayOutputStream> encodedContent;
+
+        PendingObject(PdfObject object) {
+            this.object = object;
+        }
+
+        boolean isReady() {
+            return encodedContent == null || encodedContent.isDone();
+        }
+
+        /**
+         * Gets the encoded stream content, waiting for the compression to complete if needed.
+         *
+         * @return the encoded content or null if the object shall be written as usual.
+         */
+        ByteArrayOutputStream getContent() {
+            if (encodedContent != null) {
+                try {
+                    content = encodedContent.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PdfException(PdfException.CannotWriteToPdfStream, e, object);
+                } catch (ExecutionException e) {
+                    throw new PdfException(PdfException.CannotWriteToPdfStream, e.getCause(), object);
+                }
+                encodedContent = null;
+            }
+            return content;
+        }
+    }
+
+    private static class CompressionThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "PdfWriter compression worker");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -68,6 +68,14 @@ class PdfXrefTable implements Serializable {
     private PdfIndirectReference[] xref;
     private int count = 0;
 
+    /**
+     * Positions of the flushed objects, whose indirect references have been released from {@link #xref}.
+     * A positive value is the offset of the object plus one, a negative value encodes the number of the object
+     * stream and the index of the object in it, zero means that the reference hasn't been released.
+     * It's {@code null} unless compact mode is enabled.
+     */
+    private long[] flushedEntries;
+
     private final TreeSet<Integer> freeReferences;
 
     public PdfXrefTable() {
@@ -99,6 +107,43 @@ class PdfXrefTable implements Serializable {
         return reference;
     }
 
+    /**
+     * Enables compact mode. In compact mode the indirect references of the flushed objects aren't kept in the table,
+     * only the positions of the objects are stored, so that the references and the objects can be garbage collected.
+     * Shall be used only for documents which are not read by {@link PdfReader},
+     * as the released references are neither found by object numbers any longer.
+     */
+    void enableCompactMode() {
+        if (flushedEntries == null) {
+            flushedEntries = new long[xref.length];
+        }
+    }
+
+    /**
+     * Releases the reference to the written object in compact mode. Shall be called once the position
+     * of the object in the resultant document is known, i.e. either it was written to the body
+     * or it was added to an object stream.
+     *
+     * @param reference indirect reference of the flushed object.
+     */
+    void compactFlushedReference(PdfIndirectReference reference) {
+        if (flushedEntries == null || xref == null) {
+            return;
+        }
+        int objNr = reference.getObjNumber();
+        if (objNr > count || xref[objNr] != reference || reference.getGenNumber() != 0
+                || reference.isFree() || !reference.checkState(PdfObject.FLUSHED)) {
+            return;
+        }
+        if (reference.getObjStreamNumber() == 0) {
+            flushedEntries[objNr] = reference.getOffset() + 1;
+        } else {
+            assert reference.getIndex() <= 0xFFFF;
+            flushedEntries[objNr] = -(((long) reference.getObjStreamNumber() << 16) | reference.getIndex()) - 1;
+        }
+        xref[objNr] = null;
+    }
+
     public int size() {
         return count + 1;
     }
@@ -143,6 +188,10 @@ class PdfXrefTable implements Serializable {
     protected void freeReference(PdfIndirectReference reference) {
         reference.setOffset(0);
         reference.setState(PdfObject.FREE);
+        if (isReleased(reference.getObjNumber())) {
+            // the object is not written to the xref as it was in case of a kept free reference with zero generation
+            flushedEntries[reference.getObjNumber()] = 0;
+        }
         if (!reference.checkState(PdfObject.FLUSHED)) {
             if (reference.refersTo != null) {
                 reference.refersTo.setIndirectReference(null).setState(PdfObject.MUST_BE_INDIRECT);
@@ -170,6 +219,7 @@ class PdfXrefTable implements Serializable {
      */
     protected void writeXrefTableAndTrailer(PdfDocument document, PdfObject fileId, PdfObject crypto) throws IOException {
         PdfWriter writer = document.getWriter();
+        writer.writePendingObjects();
         if (document.isAppendMode()) {
             // Increment generation number for all freed references.
             for (Integer objNr : freeReferences) {
@@ -184,6 +234,9 @@ class PdfXrefTable implements Serializable {
 
 
         for (int i = count; i > 0; --i) {
+            if (isReleased(i)) {
+                break;
+            }
             PdfIndirectReference lastRef = xref[i];
             if (lastRef == null
                     || (lastRef.isFree() && lastRef.getGenNumber() == 0)
@@ -204,15 +257,16 @@ class PdfXrefTable implements Serializable {
         }
         for (int i = 1; i < size(); i++) {
             PdfIndirectReference reference = xref[i];
+            boolean skipped;
             if (reference != null) {
-                if ((document.properties.appendMode && !reference.checkState(PdfObject.MODIFIED)) ||
+                skipped = (document.properties.appendMode && !reference.checkState(PdfObject.MODIFIED)) ||
                         (reference.isFree() && reference.getGenNumber() == 0) ||
-                        (!reference.checkState(PdfObject.FLUSHED))) {
-                    reference = null;
-                }
+                        (!reference.checkState(PdfObject.FLUSHED));
+            } else {
+                skipped = !isReleased(i);
             }
 
-            if (reference == null) {
+            if (skipped) {
                 if (len > 0) {
                     sections.add(first);
                     sections.add(len);
@@ -233,6 +287,7 @@ class PdfXrefTable implements Serializable {
         }
         if (document.properties.appendMode && sections.size() == 0) { // no modifications.
             xref = null;
+            flushedEntries = null;
             return;
         }
 
@@ -268,6 +323,20 @@ class PdfXrefTable implements Serializable {
                 for (int i = first; i < first + len; i++) {
                     PdfIndirectReference reference = xrefTable.get(i);
                     if (reference == null) {
+                        if (isReleased(i)) {
+                            long entry = flushedEntries[i];
+                            if (entry > 0) {
+                                xrefStream.getOutputStream().write(1);
+                                assert entry - 1 < Integer.MAX_VALUE;
+                                xrefStream.getOutputStream().write(intToBytes((int) (entry - 1)));
+                                xrefStream.getOutputStream().write(shortToBytes(0));
+                            } else {
+                                entry = -(entry + 1);
+                                xrefStream.getOutputStream().write(2);
+                                xrefStream.getOutputStream().write(intToBytes((int) (entry >>> 16)));
+                                xrefStream.getOutputStream().write(shortToBytes((int) (entry & 0xFFFF)));
+                            }
+                        }
                         continue;
                     }
                     if (reference.isFree()) {
@@ -288,6 +357,7 @@ class PdfXrefTable implements Serializable {
                 }
             }
             xrefStream.flush();
+            writer.writePendingObjects();
         } else {
             writer.writeString("xref\n");
             PdfXrefTable xrefTable = document.getXref();
@@ -297,12 +367,14 @@ class PdfXrefTable implements Serializable {
                 writer.writeInteger(first).writeSpace().writeInteger(len).writeByte((byte) '\n');
                 for (int i = first; i < first + len; i++) {
                     PdfIndirectReference reference = xrefTable.get(i);
+                    long offset = reference != null ? reference.getOffset() : flushedEntries[i] - 1;
+                    int genNr = reference != null ? reference.getGenNumber() : 0;
 
-                    StringBuilder off = new StringBuilder("0000000000").append(reference.getOffset());
-                    StringBuilder gen = new StringBuilder("00000").append(reference.getGenNumber());
+                    StringBuilder off = new StringBuilder("0000000000").append(offset);
+                    StringBuilder gen = new StringBuilder("00000").append(genNr);
                     writer.writeString(off.substring(off.length() - 10, off.length())).writeSpace().
                             writeString(gen.substring(gen.length() - 5, gen.length())).writeSpace();
-                    if (reference.isFree()) {
+                    if (reference != null && reference.isFree()) {
                         writer.writeBytes(freeXRefEntry);
                     } else {
                         writer.writeBytes(inUseXRefEntry);
@@ -332,6 +404,7 @@ class PdfXrefTable implements Serializable {
                 writeLong(startxref).
                 writeString("\n%%EOF\n");
         xref = null;
+        flushedEntries = null;
     }
 
     void clear() {
@@ -364,6 +437,15 @@ class PdfXrefTable implements Serializable {
         PdfIndirectReference[] newXref = new PdfIndirectReference[capacity];
         System.arraycopy(xref, 0, newXref, 0, xref.length);
         xref = newXref;
+        if (flushedEntries != null) {
+            long[] newFlushedEntries = new long[capacity];
+            System.arraycopy(flushedEntries, 0, newFlushedEntries, 0, flushedEntries.length);
+            flushedEntries = newFlushedEntries;
+        }
+    }
+
+    private boolean isReleased(int objNr) {
+        return flushedEntries != null && objNr < flushedEntries.length && flushedEntries[objNr] != 0;
     }
 
     private static byte[] shortToBytes(int n) {
@@ -59,6 +59,28 @@ public class ReaderProperties implements Serializable {
     protected String certificateKeyProvider; //added by Aiken Sam for certificate decryption
     protected IExternalDecryptionProcess externalDecryptionProcess;
 
+    /**
+     * Indicates if the document opened with the reader can be read from several threads simultaneously.
+     */
+    protected boolean concurrentReading;
+
+    /**
+     * The path to the persistent index of the cross reference table of the document, or {@code null}.
+     */
+    protected String xrefIndexFile;
+
+    /**
+     * The number of threads which scan a damaged document when its cross reference table is rebuilt.
+     * Zero means that the document is scanned on the thread which opens it.
+     */
+    protected int xrefRebuildWorkersCount;
+
+    /**
+     * The maximal total size in bytes of the decoded object streams which are kept in memory.
+     * Zero means that the decoded object streams are not kept.
+     */
+    protected long objectStreamsCacheSize;
+
     /**
      * Defines the password which will be used if the document is encrypted with standard encryption.
      * This could be either user or owner password.
@@ -94,6 +116,75 @@ public class ReaderProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Enables concurrent reading mode. In this mode the {@link PdfDocument} may be shared between threads
+     * which only read it: get pages, resolve objects, read streams and parse page contents.
+     * All pages are loaded when the document is opened, objects are read from the source under the lock
+     * of the {@link PdfReader}. The document must be opened without {@link PdfWriter}.
+     * <p/>
+     * Other lazily initialized document-level structures, e.g. outlines, AcroForm or tag structure,
+     * are not thread safe and should be obtained before the document is shared.
+     *
+     * @param concurrentReading true to enable concurrent reading mode
+     * @return this {@link ReaderProperties} instance
+     */
+    public ReaderProperties setConcurrentReading(boolean concurrentReading) {
+        this.concurrentReading = concurrentReading;
+        return this;
+    }
+
+    /**
+     * Sets the path to the persistent index of the cross reference table of the document.
+     * <p/>
+     * When the document is opened, its cross reference table is restored from the index if the index exists and
+     * was created for the same document, which is checked by the length of the document and the digest
+     * of its last 64 KB. Otherwise the cross reference table is read from the document, or rebuilt if
+     * the document is damaged, and the index is written to be reused the next time the document is opened.
+     * That saves parsing of the cross reference sections and, for damaged documents, scanning of the whole document.
+     * Failures to read or write the index are logged and don't prevent opening of the document.
+     *
+     * @param xrefIndexFile the path to the index file, or {@code null} to not use the index
+     * @return this {@link ReaderProperties} instance
+     */
+    public ReaderProperties setXrefIndexFile(String xrefIndexFile) {
+        this.xrefIndexFile = xrefIndexFile;
+        return this;
+    }
+
+    /**
+     * Enables parallel rebuilding of the cross reference table of damaged documents.
+     * <p/>
+     * If the cross reference table of the document cannot be read, the document is split into parts
+     * at the line boundaries and the parts are scanned for object headers and trailers on a pool of the
+     * specified size. The found entries are merged in the document order, so the rebuilt table and trailer
+     * are the same as the ones produced by the sequential scan. Small documents are always scanned sequentially.
+     *
+     * @param workersCount the number of scanning threads. Zero disables parallel rebuilding.
+     * @return this {@link ReaderProperties} instance
+     */
+    public ReaderProperties useParallelXrefRebuild(int workersCount) {
+        this.xrefRebuildWorkersCount = Math.max(workersCount, 0);
+        return this;
+    }
+
+    /**
+     * Sets the maximal total size of the decoded object streams which are kept in memory.
+     * <p/>
+     * By default all the objects of an object stream are parsed when one of them is read, and the object stream
+     * is decoded again if any of its objects is requested after it was released. If the cache size is set,
+     * the decoded content and the offsets of the objects are kept in memory, the least recently used streams
+     * are dropped when the size is exceeded. Only the requested object is parsed from the decoded content.
+     * The number of cache hits and misses is available via {@link PdfReader#getObjectStreamsCacheHits()} and
+     * {@link PdfReader#getObjectStreamsCacheMisses()}.
+     *
+     * @param cacheSize the size of the cache in bytes. Zero disables the cache.
+     * @return this {@link ReaderProperties} instance
+     */
+    public ReaderProperties setObjectStreamsCacheSize(long cacheSize) {
+        this.objectStreamsCacheSize = Math.max(cacheSize, 0);
+        return this;
+    }
+
     private void clearEncryptionParams() {
         this.password = null;
         this.certificate = null;
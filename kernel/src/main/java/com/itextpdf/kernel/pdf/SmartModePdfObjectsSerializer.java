@@ -45,34 +45,78 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.kernel.PdfException;
 
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
+/**
+ * Finds duplicated objects for smart mode. Instead of keeping full serialization of the object graph,
+ * every indirect object is represented by a fingerprint: SHA-256 digest of its direct content,
+ * in which every nested indirect object is replaced with its own fingerprint. Fingerprints are calculated
+ * incrementally and cached per document, so every object (and every stream data) is hashed only once.
+ * <p>
+ * A matching fingerprint only selects the candidate: the objects are compared structurally before
+ * the saved object is reused. The comparison is done against the object the saved one was copied from,
+ * if its document is still open, or else against the copy itself, if it hasn't been flushed yet.
+ * Only if neither of them is available anymore, the fingerprint is trusted on its own, which is why
+ * a collision resistant digest is used.
+ */
 class SmartModePdfObjectsSerializer implements Serializable {
 
     private static final long serialVersionUID = 2502203520776244051L;
 
-    private transient MessageDigest md5;
-    private HashMap<SerializedObjectContent, PdfIndirectReference> serializedContentToObj = new HashMap<>();
+    private static final byte[] INDIRECT_MARKER = getBytes("$I");
+
+    private static final int MAX_LEVEL = 100;
+
+    private HashMap<SerializedObjectContent, SavedObject> serializedContentToObj = new HashMap<>();
 
     SmartModePdfObjectsSerializer() {
-        try {
-            md5 = MessageDigest.getInstance("MD5");
-        } catch (Exception e) {
-            throw new PdfException(e);
-        }
+        // check that digest is available
+        createDigest();
     }
 
-    public void saveSerializedObject(SerializedObjectContent serializedContent, PdfIndirectReference objectReference) {
-        serializedContentToObj.put(serializedContent, objectReference);
+    /**
+     * Saves the copy of the object, so that the objects with the same content are replaced with it.
+     *
+     * @param serializedContent the fingerprint of the object
+     * @param original          the reference of the copied object
+     * @param copy              the reference of the copy
+     */
+    public void saveSerializedObject(SerializedObjectContent serializedContent, PdfIndirectReference original,
+                                     PdfIndirectReference copy) {
+        serializedContentToObj.put(serializedContent, new SavedObject(original, copy));
     }
 
-    public PdfIndirectReference getSavedSerializedObject(SerializedObjectContent serializedContent) {
-        if (serializedContent != null) {
-            return serializedContentToObj.get(serializedContent);
+    /**
+     * Gets the saved copy of the object with the same content as the given one.
+     *
+     * @param serializedContent the fingerprint of the object
+     * @param obj               the object for which a duplicate is looked for
+     * @return the reference of the saved copy or {@code null} if there is no such copy
+     */
+    public PdfIndirectReference getSavedSerializedObject(SerializedObjectContent serializedContent, PdfObject obj) {
+        if (serializedContent == null) {
+            return null;
+        }
+        SavedObject savedObject = serializedContentToObj.get(serializedContent);
+        if (savedObject == null) {
+            return null;
+        }
+        PdfIndirectReference reference = obj.getIndirectReference();
+        PdfIndirectReference original = savedObject.getOriginal();
+        ComparisonResult result = original != null
+                ? compare(reference, original, MAX_LEVEL, new IdentityHashMap<PdfIndirectReference, PdfIndirectReference>())
+                : ComparisonResult.UNAVAILABLE;
+        if (result == ComparisonResult.UNAVAILABLE) {
+            result = compare(reference, savedObject.copy, MAX_LEVEL,
+                    new IdentityHashMap<PdfIndirectReference, PdfIndirectReference>());
         }
-        return null;
+        return result != ComparisonResult.DIFFERENT ? savedObject.copy : null;
     }
 
     public SerializedObjectContent serializeObject(PdfObject obj) {
@@ -85,88 +129,230 @@ class SmartModePdfObjectsSerializer implements Serializable {
 
         byte[] content = serializedCache.get(indRef);
         if (content == null) {
-            ByteBufferOutputStream bb = new ByteBufferOutputStream();
-            int level = 100;
-            serObject(obj, bb, level, serializedCache);
-            content = bb.toByteArray();
+            MessageDigest digest = createDigest();
+            serObject(obj, digest, MAX_LEVEL, serializedCache);
+            content = digest.digest();
+            serializedCache.put(indRef, content);
         }
         return new SerializedObjectContent(content);
     }
 
-    private void serObject(PdfObject obj, ByteBufferOutputStream bb, int level, Map<PdfIndirectReference, byte[]> serializedCache) {
-        if (level <= 0) {
-            return;
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new PdfException(e);
         }
-        if (obj == null) {
-            bb.append("$Lnull");
+    }
+
+    private static byte[] getBytes(String str) {
+        return str.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private void serObject(PdfObject obj, MessageDigest digest, int level, Map<PdfIndirectReference, byte[]> serializedCache) {
+        if (level <= 0) {
             return;
         }
-        PdfIndirectReference reference = null;
-        ByteBufferOutputStream savedBb = null;
-
-        if (obj.isIndirectReference()) {
-            reference = (PdfIndirectReference) obj;
-            byte[] cached = serializedCache.get(reference);
-            if (cached != null) {
-                bb.append(cached);
-                return;
-            } else {
-                savedBb = bb;
-                bb = new ByteBufferOutputStream();
-                obj = reference.getRefersTo();
+        if (obj != null && obj.isIndirectReference()) {
+            PdfIndirectReference reference = (PdfIndirectReference) obj;
+            byte[] fingerprint = serializedCache.get(reference);
+            if (fingerprint == null) {
+                MessageDigest referenceDigest = createDigest();
+                serObject(reference.getRefersTo(), referenceDigest, level, serializedCache);
+                fingerprint = referenceDigest.digest();
+                serializedCache.put(reference, fingerprint);
             }
+            digest.update(INDIRECT_MARKER);
+            digest.update(fingerprint);
+            return;
         }
 
-        if (obj.isStream()) {
-            serDic((PdfDictionary) obj, bb, level - 1, serializedCache);
-            bb.append("$B");
-            if (level > 0) {
-                bb.append(md5.digest(((PdfStream) obj).getBytes(false)));
-            }
+        if (obj == null) {
+            digest.update(getBytes("$Lnull"));
+        } else if (obj.isStream()) {
+            serDic((PdfDictionary) obj, digest, level - 1, serializedCache);
+            digest.update(getBytes("$B"));
+            digest.update(createDigest().digest(((PdfStream) obj).getBytes(false)));
         } else if (obj.isDictionary()) {
-            serDic((PdfDictionary) obj, bb, level - 1, serializedCache);
+            serDic((PdfDictionary) obj, digest, level - 1, serializedCache);
         } else if (obj.isArray()) {
-            serArray((PdfArray) obj, bb, level - 1, serializedCache);
+            serArray((PdfArray) obj, digest, level - 1, serializedCache);
         } else if (obj.isString()) {
-            bb.append("$S").append(obj.toString()); // TODO specify length for strings, streams, may be names?
+            // length is written to distinguish string content from the following tokens
+            String str = obj.toString();
+            digest.update(getBytes("$S" + str.length() + " " + str));
         } else if (obj.isName()) {
-            bb.append("$N").append(obj.toString());
+            digest.update(getBytes("$N" + obj.toString()));
         } else {
-            bb.append("$L").append(obj.toString()); // PdfNull case is also here
-        }
-
-        if (savedBb != null) {
-            // TODO getBuffer? won't it contain garbage also?
-            serializedCache.put(reference, bb.getBuffer());
-            savedBb.append(bb);
+            digest.update(getBytes("$L" + obj.toString())); // PdfNull case is also here
         }
     }
 
-    private void serDic(PdfDictionary dic, ByteBufferOutputStream bb, int level,
+    private void serDic(PdfDictionary dic, MessageDigest digest, int level,
                         Map<PdfIndirectReference, byte[]> serializedCache) {
-        bb.append("$D");
+        digest.update(getBytes("$D"));
         if (level <= 0)
             return;
         for (PdfName key : dic.keySet()) {
             if (isKeyRefersBack(dic, key)) {
                 continue;
             }
-            serObject(key, bb, level, serializedCache);
-            serObject(dic.get(key, false), bb, level, serializedCache);
+            serObject(key, digest, level, serializedCache);
+            serObject(dic.get(key, false), digest, level, serializedCache);
 
         }
-        bb.append("$\\D");
+        digest.update(getBytes("$\\D"));
     }
 
-    private void serArray(PdfArray array, ByteBufferOutputStream bb, int level,
+    private void serArray(PdfArray array, MessageDigest digest, int level,
                           Map<PdfIndirectReference, byte[]> serializedCache) {
-        bb.append("$A");
+        digest.update(getBytes("$A"));
         if (level <= 0)
             return;
         for (int k = 0; k < array.size(); ++k) {
-            serObject(array.get(k, false), bb, level, serializedCache);
+            serObject(array.get(k, false), digest, level, serializedCache);
         }
-        bb.append("$\\A");
+        digest.update(getBytes("$\\A"));
+    }
+
+    private ComparisonResult compare(PdfObject obj, PdfObject saved, int level,
+                                     Map<PdfIndirectReference, PdfIndirectReference> compared) {
+        if (level <= 0 || obj == saved) {
+            // deeper levels are not taken into account by the fingerprint either
+            return ComparisonResult.EQUAL;
+        }
+        if (obj != null && obj.isIndirectReference() || saved != null && saved.isIndirectReference()) {
+            if (obj == null || saved == null || !obj.isIndirectReference() || !saved.isIndirectReference()) {
+                return ComparisonResult.DIFFERENT;
+            }
+            PdfIndirectReference objRef = (PdfIndirectReference) obj;
+            PdfIndirectReference savedRef = (PdfIndirectReference) saved;
+            if (compared.get(objRef) == savedRef) {
+                // already being compared higher in the graph
+                return ComparisonResult.EQUAL;
+            }
+            byte[] objFingerprint = objRef.getDocument().serializedObjectsCache.get(objRef);
+            byte[] savedFingerprint = savedRef.getDocument().serializedObjectsCache.get(savedRef);
+            if (objFingerprint != null && savedFingerprint != null && !Arrays.equals(objFingerprint, savedFingerprint)) {
+                return ComparisonResult.DIFFERENT;
+            }
+            PdfObject objRefersTo = getRefersTo(objRef);
+            PdfObject savedRefersTo = getRefersTo(savedRef);
+            if (objRefersTo == null || savedRefersTo == null) {
+                return ComparisonResult.UNAVAILABLE;
+            }
+            compared.put(objRef, savedRef);
+            return compare(objRefersTo, savedRefersTo, level, compared);
+        }
+
+        if (obj == null || saved == null || obj.getType() != saved.getType()) {
+            return obj == null && saved == null ? ComparisonResult.EQUAL : ComparisonResult.DIFFERENT;
+        }
+        if (obj.isFlushed() || saved.isFlushed()) {
+            return ComparisonResult.UNAVAILABLE;
+        }
+        if (obj.isStream()) {
+            ComparisonResult result = compareDic((PdfDictionary) obj, (PdfDictionary) saved, level - 1, compared);
+            if (result != ComparisonResult.EQUAL) {
+                return result;
+            }
+            byte[] objBytes = getBytes((PdfStream) obj);
+            byte[] savedBytes = getBytes((PdfStream) saved);
+            if (objBytes == null || savedBytes == null) {
+                return ComparisonResult.UNAVAILABLE;
+            }
+            return Arrays.equals(objBytes, savedBytes) ? ComparisonResult.EQUAL : ComparisonResult.DIFFERENT;
+        } else if (obj.isDictionary()) {
+            return compareDic((PdfDictionary) obj, (PdfDictionary) saved, level - 1, compared);
+        } else if (obj.isArray()) {
+            return compareArray((PdfArray) obj, (PdfArray) saved, level - 1, compared);
+        } else {
+            // the same representation as the one the fingerprint is calculated from
+            return obj.toString().equals(saved.toString()) ? ComparisonResult.EQUAL : ComparisonResult.DIFFERENT;
+        }
+    }
+
+    private ComparisonResult compareDic(PdfDictionary dic, PdfDictionary saved, int level,
+                                        Map<PdfIndirectReference, PdfIndirectReference> compared) {
+        if (level <= 0) {
+            return ComparisonResult.EQUAL;
+        }
+        int size = 0;
+        for (PdfName key : dic.keySet()) {
+            if (isKeyRefersBack(dic, key)) {
+                continue;
+            }
+            size++;
+            PdfObject savedValue = saved.get(key, false);
+            if (savedValue == null || isKeyRefersBack(saved, key)) {
+                return ComparisonResult.DIFFERENT;
+            }
+            ComparisonResult result = compare(toReference(dic.get(key, false)), toReference(savedValue), level, compared);
+            if (result != ComparisonResult.EQUAL) {
+                return result;
+            }
+        }
+        for (PdfName key : saved.keySet()) {
+            if (!isKeyRefersBack(saved, key)) {
+                size--;
+            }
+        }
+        return size == 0 ? ComparisonResult.EQUAL : ComparisonResult.DIFFERENT;
+    }
+
+    private ComparisonResult compareArray(PdfArray array, PdfArray saved, int level,
+                                          Map<PdfIndirectReference, PdfIndirectReference> compared) {
+        if (level <= 0) {
+            return ComparisonResult.EQUAL;
+        }
+        if (array.size() != saved.size()) {
+            return ComparisonResult.DIFFERENT;
+        }
+        for (int k = 0; k < array.size(); ++k) {
+            ComparisonResult result = compare(toReference(array.get(k, false)), toReference(saved.get(k, false)),
+                    level, compared);
+            if (result != ComparisonResult.EQUAL) {
+                return result;
+            }
+        }
+        return ComparisonResult.EQUAL;
+    }
+
+    /**
+     * Gets the object of the reference, reading it again if it was released,
+     * or {@code null} if it can't be read anymore.
+     */
+    private static PdfObject getRefersTo(PdfIndirectReference reference) {
+        if (reference.refersTo != null) {
+            return reference.refersTo;
+        }
+        if (reference.checkState(PdfObject.FLUSHED) || reference.getDocument().isClosed()) {
+            return null;
+        }
+        return reference.getRefersTo(false);
+    }
+
+    /**
+     * Copied objects keep indirect objects instead of the references to them, the references are compared instead.
+     */
+    private static PdfObject toReference(PdfObject obj) {
+        if (obj != null && !obj.isIndirectReference() && obj.getIndirectReference() != null) {
+            return obj.getIndirectReference();
+        }
+        return obj;
+    }
+
+    /**
+     * Gets the raw bytes of the stream or {@code null} if they can't be read anymore.
+     */
+    private static byte[] getBytes(PdfStream stream) {
+        if (stream.getOutputStream() == null) {
+            PdfIndirectReference reference = stream.getIndirectReference();
+            if (reference == null || reference.getDocument().isClosed()) {
+                return null;
+            }
+        }
+        return stream.getBytes(false);
     }
 
     private boolean isKeyRefersBack(PdfDictionary dic, PdfName key) {
@@ -175,4 +361,29 @@ class SmartModePdfObjectsSerializer implements Serializable {
         return key.equals(PdfName.P) && (dic.get(key).isIndirectReference() || dic.get(key).isDictionary())
                 || key.equals(PdfName.Parent);
     }
+
+    private enum ComparisonResult {
+        EQUAL,
+        DIFFERENT,
+        // one of the objects was flushed or its document was closed
+        UNAVAILABLE
+    }
+
+    private static class SavedObject implements Serializable {
+
+        private static final long serialVersionUID = -4330469383826391932L;
+
+        // weak, so that the saved objects don't keep the source documents in memory
+        private transient WeakReference<PdfIndirectReference> original;
+        private final PdfIndirectReference copy;
+
+        SavedObject(PdfIndirectReference original, PdfIndirectReference copy) {
+            this.original = new WeakReference<>(original);
+            this.copy = copy;
+        }
+
+        PdfIndirectReference getOriginal() {
+            return original != null ? original.get() : null;
+        }
+    }
 }
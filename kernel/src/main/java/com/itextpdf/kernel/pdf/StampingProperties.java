@@ -52,9 +52,15 @@ public class StampingProperties implements Serializable {
     protected boolean appendMode;
     protected boolean preserveEncryption;
 
+    /**
+     * The maximal number of read objects which are kept in memory. Zero means that the read objects are never evicted.
+     */
+    protected int readObjectsCacheSize;
+
     public StampingProperties() {
         appendMode = false;
         preserveEncryption = false;
+        readObjectsCacheSize = 0;
     }
 
     /**
@@ -75,4 +81,24 @@ public class StampingProperties implements Serializable {
         this.preserveEncryption = true;
         return this;
     }
+
+    /**
+     * Limits the number of objects read from the source document which are kept in memory.
+     * <p/>
+     * When the limit is exceeded, the objects which were read earliest are evicted from the document and are read
+     * again from the source on the next access. Only objects which were not changed can be evicted, i.e. objects
+     * marked with {@link PdfObject#setModified()}, flushed objects and objects wrapped by pages, catalog and
+     * other wrappers which forbid release are kept. Evicted objects which are still used by the application are
+     * picked up again instead of being re-read, so that there is never more than one instance of an object.
+     * <p/>
+     * This allows to stamp documents of any size with bounded memory. Note, that changes made to the objects
+     * without marking them as modified may be lost in this mode, the same way as in append mode.
+     *
+     * @param cacheSize the maximal number of read objects kept in memory. Zero means no limit.
+     * @return this {@link StampingProperties} instance
+     */
+    public StampingProperties setReadObjectsCacheSize(int cacheSize) {
+        this.readObjectsCacheSize = Math.max(cacheSize, 0);
+        return this;
+    }
 }
@@ -43,7 +43,10 @@
  */
 package com.itextpdf.kernel.pdf;
 
+import com.itextpdf.io.source.AsyncChannelOutputStream;
+
 import java.io.Serializable;
+import java.nio.channels.WritableByteChannel;
 import java.security.cert.Certificate;
 
 public class WriterProperties implements Serializable {
@@ -62,7 +65,36 @@ public class WriterProperties implements Serializable {
      * and reused if there's an object with the same content later.
      */
     protected boolean smartMode;
+
+    /**
+     * Indicates if the writer reuses copied images, ICC profiles and embedded font programs
+     * which have the same content. It's a lightweight alternative to the smart mode.
+     */
+    protected boolean resourceDeduplication;
     protected boolean debugMode;
+
+    /**
+     * The number of worker threads which compress flushed streams. Zero means that streams are compressed
+     * on the thread which flushes them.
+     */
+    protected int compressionWorkersCount;
+
+    /**
+     * Indicates if the writer keeps only the positions of the flushed objects in the cross-reference table
+     * instead of their indirect references.
+     */
+    protected boolean compactXref;
+
+    /**
+     * Indicates if the writer puts objects of the same type into separate object streams in full compression mode.
+     */
+    protected boolean objectStreamsGrouping;
+
+    /**
+     * The number of buffers of the asynchronous output. Zero means that the output is written synchronously.
+     */
+    protected int asyncOutputBuffersCount;
+    protected int asyncOutputBufferSize;
     protected boolean addXmpMetadata;
     protected PdfVersion pdfVersion;
     protected EncryptionProperties encryptionProperties;
@@ -78,6 +110,7 @@ public class WriterProperties implements Serializable {
 
     public WriterProperties() {
         smartMode = false;
+        resourceDeduplication = false;
         debugMode = false;
         compressionLevel = CompressionConstants.DEFAULT_COMPRESSION;
         isFullCompression = null;
@@ -111,6 +144,23 @@ public class WriterProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Enables reusing of the copied heavy resources.
+     * <p/>
+     * When pages are copied from other documents, e.g. by {@link PdfDocument#copyPagesTo} or
+     * {@link com.itextpdf.kernel.utils.PdfMerger}, image XObjects, ICC profiles and embedded font programs
+     * which don't refer to other objects are identified by the digest of their dictionary and raw data.
+     * If the same resource was already copied from any source document, the first copy is reused.
+     * Unlike the {@link #useSmartMode() smart mode}, other objects are not hashed, so that it's much cheaper
+     * when a lot of documents are merged. Has no effect if smart mode is enabled.
+     *
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties useResourceDeduplication() {
+        this.resourceDeduplication = true;
+        return this;
+    }
+
     /**
      * If true, default XMPMetadata based on {@link PdfDocumentInfo} will be added.
      *
@@ -133,6 +183,77 @@ public class WriterProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Enables parallel compression of the flushed streams.
+     * <p/>
+     * Content, image and object streams are deflated on a pool of the specified size, while the flushing thread
+     * keeps on working. The objects are still written in the order they were flushed, so the resultant document
+     * is the same as the one produced with single-threaded compression. Flushed objects are held in memory
+     * until all the streams preceding them are compressed, so the number of such objects is limited.
+     *
+     * @param workersCount the number of compression threads. Zero disables parallel compression.
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties useParallelCompression(int workersCount) {
+        this.compressionWorkersCount = Math.max(workersCount, 0);
+        return this;
+    }
+
+    /**
+     * Enables compact cross-reference table.
+     * <p/>
+     * Once an object is flushed, only its position in the resultant document is kept in the cross-reference table,
+     * so that the flushed object and its indirect reference can be garbage collected if nothing else refers to them.
+     * That reduces memory consumption of the documents with a large number of objects which are flushed as soon as
+     * they are completed. The flushed objects can't be obtained with {@link PdfDocument#getPdfObject(int)} and
+     * aren't listed by {@link PdfDocument#listIndirectReferences()} then.
+     * Has no effect for documents which are opened with {@link PdfReader}.
+     *
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties useCompactXref() {
+        this.compactXref = true;
+        return this;
+    }
+
+    /**
+     * Enables grouping of objects by type in object streams.
+     * <p/>
+     * In full compression mode pages, fonts, font descriptors, annotations and structure elements are put into
+     * separate object streams, one sequence of streams per type, instead of being mixed with other objects
+     * in the order they are flushed. Similar objects are compressed together then, which usually results
+     * in smaller object streams. If parallel compression is enabled, a filled object stream is compressed by
+     * a worker while the next one is being filled. Has no effect if full compression is not used.
+     *
+     * @return this {@code WriterProperties} instance
+     * @see #setFullCompressionMode(boolean)
+     * @see #useParallelCompression(int)
+     */
+    public WriterProperties useObjectStreamsGrouping() {
+        this.objectStreamsGrouping = true;
+        return this;
+    }
+
+    /**
+     * Enables asynchronous output.
+     * <p/>
+     * The document is written to the output stream on a background thread via {@link AsyncChannelOutputStream},
+     * so that slow output, e.g. network uploads or throttled disks, overlaps with generation of the document.
+     * The written data is held in the specified number of buffers. If all of them are waiting to be written,
+     * the writing thread is blocked until one of the buffers is written.
+     * Failures of the background writing are reported on the next write, flush or close of the {@link PdfWriter}.
+     *
+     * @param buffersCount the number of buffers, at least two.
+     * @param bufferSize   the size of each buffer in bytes.
+     * @return this {@code WriterProperties} instance
+     * @see PdfWriter#PdfWriter(WritableByteChannel, WriterProperties)
+     */
+    public WriterProperties useAsynchronousOutput(int buffersCount, int bufferSize) {
+        this.asyncOutputBuffersCount = Math.max(buffersCount, 2);
+        this.asyncOutputBufferSize = Math.max(bufferSize, 1);
+        return this;
+    }
+
     /**
      * Defines if full compression mode is enabled. If enabled, not only the content of the pdf document will be
      * compressed, but also the pdf document inner structure.
@@ -0,0 +1,328 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.PdfException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Persistent index of the cross reference table of a document read by {@link PdfReader}.
+ * <p/>
+ * The index contains the offsets of the objects, their positions in the object streams, the trailer
+ * and the state of the reader after the cross reference table was read or rebuilt. The index is bound
+ * to the document by the length of the document and the digest of its tail, where the trailer
+ * and the last cross reference section are normally placed, so it is not used if the document was changed.
+ */
+final class XrefIndexFile {
+
+    private static final int MAGIC = 0x69545849;
+    private static final int VERSION = 1;
+
+    /**
+     * The number of the last bytes of the document which are digested to identify it.
+     */
+    private static final int TAIL_LENGTH = 64 * 1024;
+
+    private static final byte MISSING_ENTRY = 0;
+    private static final byte FREE_ENTRY = 1;
+    private static final byte OFFSET_ENTRY = 2;
+    private static final byte OBJECT_STREAM_ENTRY = 3;
+
+    private static final byte REBUILT_XREF = 1;
+    private static final byte XREF_STREAM = 2;
+    private static final byte HYBRID_XREF = 4;
+
+    private XrefIndexFile() {
+    }
+
+    /**
+     * Reads the index and fills the cross reference table and the trailer of the reader.
+     *
+     * @param reader    the reader which has just checked the header of the document
+     * @param indexFile the path to the index
+     * @return true if the index was read, false if it doesn't exist or belongs to another version of the document
+     * @throws IOException if the index cannot be read
+     */
+    static boolean read(PdfReader reader, String indexFile) throws IOException {
+        if (!new java.io.File(indexFile).isFile()) {
+            return false;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(new FileInputStream(indexFile))));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            long fileLength = in.readLong();
+            byte[] tailDigest = new byte[16];
+            in.readFully(tailDigest);
+            if (fileLength != reader.tokens.length() || !Arrays.equals(tailDigest, digestTail(reader.tokens.getSafeFile()))) {
+                return false;
+            }
+            byte flags = in.readByte();
+            long lastXref = in.readLong();
+            long eofPos = in.readLong();
+            int size = in.readInt();
+            // every object takes at least a byte of the document, a damaged index must not cause huge allocations
+            if (size < 1 || size > fileLength + 1) {
+                throw new IOException("Invalid cross reference index size.");
+            }
+            byte[] types = new byte[size];
+            long[] offsets = new long[size];
+            int[] numbers = new int[size];
+            for (int i = 1; i < size; i++) {
+                types[i] = in.readByte();
+                switch (types[i]) {
+                    case MISSING_ENTRY:
+                        break;
+                    case FREE_ENTRY:
+                        numbers[i] = in.readInt();
+                        break;
+                    case OFFSET_ENTRY:
+                        offsets[i] = in.readLong();
+                        numbers[i] = in.readInt();
+                        break;
+                    case OBJECT_STREAM_ENTRY:
+                        numbers[i] = in.readInt();
+                        offsets[i] = in.readInt();
+                        break;
+                    default:
+                        throw new IOException("Invalid cross reference index entry.");
+                }
+            }
+            int trailerLength = in.readInt();
+            if (trailerLength < 0 || trailerLength > fileLength) {
+                throw new IOException("Invalid cross reference index trailer.");
+            }
+            byte[] trailer = new byte[trailerLength];
+            in.readFully(trailer);
+
+            PdfDocument document = reader.pdfDocument;
+            PdfXrefTable xref = document.getXref();
+            xref.setCapacity(size);
+            for (int i = 1; i < size; i++) {
+                PdfIndirectReference reference;
+                switch (types[i]) {
+                    case FREE_ENTRY:
+                        reference = new PdfIndirectReference(document, i, numbers[i], 0);
+                        reference.setFree();
+                        break;
+                    case OFFSET_ENTRY:
+                        reference = new PdfIndirectReference(document, i, numbers[i], offsets[i]);
+                        break;
+                    case OBJECT_STREAM_ENTRY:
+                        reference = new PdfIndirectReference(document, i, 0, offsets[i]);
+                        reference.setObjStreamNumber(numbers[i]);
+                        break;
+                    default:
+                        continue;
+                }
+                xref.add(reference);
+            }
+            PdfTokenizer documentTokens = reader.tokens;
+            reader.tokens = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(trailer)));
+            try {
+                reader.trailer = (PdfDictionary) reader.readObject(false);
+            } finally {
+                reader.tokens = documentTokens;
+            }
+            reader.rebuiltXref = (flags & REBUILT_XREF) != 0;
+            reader.xrefStm = (flags & XREF_STREAM) != 0;
+            reader.hybridXref = (flags & HYBRID_XREF) != 0;
+            reader.lastXref = lastXref;
+            reader.eofPos = eofPos;
+            return true;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the index of the cross reference table which has just been read or rebuilt by the reader.
+     *
+     * @param reader    the reader
+     * @param indexFile the path to the index
+     * @throws IOException if the index cannot be written
+     */
+    static void write(PdfReader reader, String indexFile) throws IOException {
+        byte[] tailDigest = digestTail(reader.tokens.getSafeFile());
+        ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+        writeObject(reader.trailer, trailer);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(new FileOutputStream(indexFile))));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(reader.tokens.length());
+            out.write(tailDigest);
+            int flags = 0;
+            if (reader.rebuiltXref) {
+                flags |= REBUILT_XREF;
+            }
+            if (reader.xrefStm) {
+                flags |= XREF_STREAM;
+            }
+            if (reader.hybridXref) {
+                flags |= HYBRID_XREF;
+            }
+            out.writeByte(flags);
+            out.writeLong(reader.lastXref);
+            out.writeLong(reader.eofPos);
+            PdfXrefTable xref = reader.pdfDocument.getXref();
+            int size = xref.size();
+            out.writeInt(size);
+            for (int i = 1; i < size; i++) {
+                PdfIndirectReference reference = xref.get(i);
+                if (reference == null || reference.checkState(PdfObject.READING)) {
+                    out.writeByte(MISSING_ENTRY);
+                } else if (reference.isFree()) {
+                    out.writeByte(FREE_ENTRY);
+                    out.writeInt(reference.getGenNumber());
+                } else if (reference.getObjStreamNumber() > 0) {
+                    out.writeByte(OBJECT_STREAM_ENTRY);
+                    out.writeInt(reference.getObjStreamNumber());
+                    out.writeInt(reference.getIndex());
+                } else {
+                    out.writeByte(OFFSET_ENTRY);
+                    out.writeLong(reference.getOffset());
+                    out.writeInt(reference.getGenNumber());
+                }
+            }
+            out.writeInt(trailer.size());
+            trailer.writeTo(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] digestTail(RandomAccessFileOrArray file) throws IOException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (Exception e) {
+            throw new PdfException(e);
+        }
+        try {
+            long length = file.length();
+            long position = Math.max(0, length - TAIL_LENGTH);
+            byte[] buffer = new byte[(int) (length - position)];
+            file.seek(position);
+            file.readFully(buffer);
+            return md5.digest(buffer);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Writes the object in PDF syntax without resolving indirect references, which is required because
+     * the trailer is written before the document is decrypted.
+     */
+    private static void writeObject(PdfObject object, ByteArrayOutputStream out) throws IOException {
+        if (object.getIndirectReference() != null) {
+            object = object.getIndirectReference();
+        }
+        switch (object.getType()) {
+            case PdfObject.INDIRECT_REFERENCE: {
+                PdfIndirectReference reference = (PdfIndirectReference) object;
+                out.write(ByteUtils.getIsoBytes(reference.getObjNumber() + " " + reference.getGenNumber() + " R"));
+                break;
+            }
+            case PdfObject.DICTIONARY: {
+                PdfDictionary dictionary = (PdfDictionary) object;
+                out.write(ByteUtils.getIsoBytes("<<"));
+                for (PdfName key : dictionary.keySet()) {
+                    writeObject(key, out);
+                    out.write(' ');
+                    writeObject(dictionary.get(key, false), out);
+                    out.write(' ');
+                }
+                out.write(ByteUtils.getIsoBytes(">>"));
+                break;
+            }
+            case PdfObject.ARRAY: {
+                PdfArray array = (PdfArray) object;
+                out.write('[');
+                for (int i = 0; i < array.size(); i++) {
+                    writeObject(array.get(i, false), out);
+                    out.write(' ');
+                }
+                out.write(']');
+                break;
+            }
+            case PdfObject.NAME:
+                out.write('/');
+                out.write(((PdfName) object).getInternalContent());
+                break;
+            case PdfObject.STRING: {
+                PdfString string = (PdfString) object;
+                out.write(string.isHexWriting() ? '<' : '(');
+                out.write(string.getInternalContent());
+                out.write(string.isHexWriting() ? '>' : ')');
+                break;
+            }
+            case PdfObject.NUMBER:
+            case PdfObject.BOOLEAN:
+            case PdfObject.LITERAL:
+                out.write(((PdfPrimitiveObject) object).getInternalContent());
+                break;
+            default:
+                out.write(ByteUtils.getIsoBytes("null"));
+                break;
+        }
+    }
+}
@@ -43,8 +43,7 @@
  */
 package com.itextpdf.kernel.pdf.canvas.parser;
 
-import com.itextpdf.io.source.PdfTokenizer;
-import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.color.CalGray;
@@ -82,7 +81,8 @@ import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.PathRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
-import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
+import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasLexer;
+import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasOperands;
 import com.itextpdf.kernel.pdf.colorspace.PdfCieBasedCs;
 import com.itextpdf.kernel.pdf.colorspace.PdfColorSpace;
 import com.itextpdf.kernel.pdf.colorspace.PdfPattern;
@@ -135,6 +135,12 @@ public class PdfCanvasProcessor {
      */
     private Map<String, IContentOperator> operators;
 
+    /**
+     * Registered operators by the operator literals from the content stream, so that operator
+     * literal doesn't need to be converted to string on every invocation.
+     */
+    private Map<PdfLiteral, IContentOperator> operatorsByLiteral;
+
     /**
      * Resources for the content stream.
      * Current resources are always at the top of the stack.
@@ -176,6 +182,7 @@ public class PdfCanvasProcessor {
         this.eventListener = eventListener;
         this.supportedEvents = eventListener.getSupportedEvents();
         operators = new HashMap<>();
+        operatorsByLiteral = new HashMap<>();
         populateOperators();
         xobjectDoHandlers = new HashMap<>();
         populateXObjectDoHandlers();
@@ -223,6 +230,7 @@ public class PdfCanvasProcessor {
      * @return the existing registered operator, if any
      */
     public IContentOperator registerContentOperator(String operatorString, IContentOperator operator) {
+        operatorsByLiteral.clear();
         return operators.put(operatorString, operator);
     }
 
@@ -265,15 +273,25 @@ public class PdfCanvasProcessor {
      * @param resources    the resources of the content stream. Must not be null.
      */
     public void processContent(byte[] contentBytes, PdfResources resources) {
+        processContent(new RandomAccessSourceFactory().createSource(contentBytes), resources);
+    }
+
+    /**
+     * Processes PDF syntax read from the source.
+     * <b>Note:</b> If you re-use a given {@link PdfCanvasProcessor}, you must call {@link PdfCanvasProcessor#reset()}
+     *
+     * @param contentSource the source of the content
+     * @param resources     the resources of the content stream. Must not be null.
+     */
+    public void processContent(IRandomAccessSource contentSource, PdfResources resources) {
         if (resources == null) {
             throw new PdfException(PdfException.ResourcesCannotBeNull);
         }
         this.resourcesStack.push(resources);
-        PdfTokenizer tokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(contentBytes)));
-        PdfCanvasParser ps = new PdfCanvasParser(tokeniser, resources);
-        List<PdfObject> operands = new ArrayList<>();
+        PdfCanvasLexer lexer = new PdfCanvasLexer(contentSource, resources);
+        PdfCanvasOperands operands = new PdfCanvasOperands();
         try {
-            while (ps.parse(operands).size() > 0) {
+            while (lexer.nextOperator(operands)) {
                 PdfLiteral operator = (PdfLiteral) operands.get(operands.size() - 1);
                 invokeOperator(operator, operands);
             }
@@ -296,7 +314,7 @@ public class PdfCanvasProcessor {
         initClippingPath(page);
         ParserGraphicsState gs = getGraphicsState();
         eventOccurred(new ClippingPathInfo(gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
-        processContent(page.getContentBytes(), page.getResources());
+        processContent(page.getContentSource(), page.getResources());
     }
 
     /**
@@ -443,12 +461,34 @@ public class PdfCanvasProcessor {
      * @param operands a list with operands
      */
     protected void invokeOperator(PdfLiteral operator, List<PdfObject> operands) {
-        IContentOperator op = operators.get(operator.toString());
-        if (op == null)
-            op = operators.get(DEFAULT_OPERATOR);
+        IContentOperator op = operatorsByLiteral.get(operator);
+        if (op == null) {
+            op = operators.get(operator.toString());
+            if (op != null) {
+                // only registered operators are cached, so that unknown tokens don't bloat the map
+                operatorsByLiteral.put(operator, op);
+            } else {
+                op = operators.get(DEFAULT_OPERATOR);
+            }
+        }
         op.invoke(this, operator, operands);
     }
 
+    /**
+     * Gets the value of the number operand. If the operands were read by {@link PdfCanvasLexer},
+     * no {@link PdfNumber} is created for it.
+     */
+    private static double getNumberOperand(List<PdfObject> operands, int index) {
+        if (operands instanceof PdfCanvasOperands) {
+            return ((PdfCanvasOperands) operands).getNumber(index);
+        }
+        return ((PdfNumber) operands.get(index)).doubleValue();
+    }
+
+    private static float getFloatOperand(List<PdfObject> operands, int index) {
+        return (float) getNumberOperand(operands, index);
+    }
+
     protected PdfStream getXObjectStream(PdfName xobjectName) {
         PdfDictionary xobjects = getResources().getResource(PdfName.XObject);
         return xobjects.getAsStream(xobjectName);
@@ -732,12 +772,12 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float a = ((PdfNumber) operands.get(0)).floatValue();
-            float b = ((PdfNumber) operands.get(1)).floatValue();
-            float c = ((PdfNumber) operands.get(2)).floatValue();
-            float d = ((PdfNumber) operands.get(3)).floatValue();
-            float e = ((PdfNumber) operands.get(4)).floatValue();
-            float f = ((PdfNumber) operands.get(5)).floatValue();
+            float a = getFloatOperand(operands, 0);
+            float b = getFloatOperand(operands, 1);
+            float c = getFloatOperand(operands, 2);
+            float d = getFloatOperand(operands, 3);
+            float e = getFloatOperand(operands, 4);
+            float f = getFloatOperand(operands, 5);
 
             processor.textLineMatrix = new Matrix(a, b, c, d, e, f);
             processor.textMatrix = processor.textLineMatrix;
@@ -760,7 +800,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float ty = ((PdfNumber) operands.get(1)).floatValue();
+            float ty = getFloatOperand(operands, 1);
 
             List<PdfObject> tlOperands = new ArrayList<PdfObject>(1);
             tlOperands.add(0, new PdfNumber(-ty));
@@ -777,8 +817,8 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float tx = ((PdfNumber) operands.get(0)).floatValue();
-            float ty = ((PdfNumber) operands.get(1)).floatValue();
+            float tx = getFloatOperand(operands, 0);
+            float ty = getFloatOperand(operands, 1);
 
             Matrix translationMatrix = new Matrix(tx, ty);
             processor.textMatrix = translationMatrix.multiply(processor.textLineMatrix);
@@ -795,7 +835,7 @@ public class PdfCanvasProcessor {
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
             PdfName fontResourceName = (PdfName) operands.get(0);
-            float size = ((PdfNumber) operands.get(1)).floatValue();
+            float size = getFloatOperand(operands, 1);
 
             PdfDictionary fontsDictionary = processor.getResources().getResource(PdfName.Font);
             PdfDictionary fontDict = fontsDictionary.getAsDictionary(fontResourceName);
@@ -816,8 +856,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber render = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setTextRenderingMode(render.intValue());
+            processor.getGraphicsState().setTextRenderingMode((int) getNumberOperand(operands, 0));
         }
     }
 
@@ -829,8 +868,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber rise = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setTextRise(rise.floatValue());
+            processor.getGraphicsState().setTextRise(getFloatOperand(operands, 0));
         }
     }
 
@@ -842,8 +880,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber leading = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setLeading(leading.floatValue());
+            processor.getGraphicsState().setLeading(getFloatOperand(operands, 0));
         }
     }
 
@@ -855,8 +892,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber scale = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setHorizontalScaling(scale.floatValue());
+            processor.getGraphicsState().setHorizontalScaling(getFloatOperand(operands, 0));
         }
     }
 
@@ -868,8 +904,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber charSpace = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setCharSpacing(charSpace.floatValue());
+            processor.getGraphicsState().setCharSpacing(getFloatOperand(operands, 0));
         }
     }
 
@@ -881,8 +916,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber wordSpace = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setWordSpacing(wordSpace.floatValue());
+            processor.getGraphicsState().setWordSpacing(getFloatOperand(operands, 0));
         }
     }
 
@@ -938,12 +972,12 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float a = ((PdfNumber) operands.get(0)).floatValue();
-            float b = ((PdfNumber) operands.get(1)).floatValue();
-            float c = ((PdfNumber) operands.get(2)).floatValue();
-            float d = ((PdfNumber) operands.get(3)).floatValue();
-            float e = ((PdfNumber) operands.get(4)).floatValue();
-            float f = ((PdfNumber) operands.get(5)).floatValue();
+            float a = getFloatOperand(operands, 0);
+            float b = getFloatOperand(operands, 1);
+            float c = getFloatOperand(operands, 2);
+            float d = getFloatOperand(operands, 3);
+            float e = getFloatOperand(operands, 4);
+            float f = getFloatOperand(operands, 5);
             Matrix matrix = new Matrix(a, b, c, d, e, f);
             processor.getGraphicsState().updateCtm(matrix);
         }
@@ -1016,7 +1050,7 @@ public class PdfCanvasProcessor {
     private static Color getColor(int nOperands, List<PdfObject> operands) {
         float[] c = new float[nOperands];
         for (int i = 0; i < nOperands; i++) {
-            c[i] = ((PdfNumber) operands.get(i)).floatValue();
+            c[i] = getFloatOperand(operands, i);
         }
 
         switch (nOperands) {
@@ -1033,7 +1067,7 @@ public class PdfCanvasProcessor {
     private static float[] getColorants(List<PdfObject> operands) {
         float[] c = new float[operands.size() - 1];
         for (int i = 0; i < operands.size() - 1; i++) {
-            c[i] = ((PdfNumber) operands.get(i)).floatValue();
+            c[i] = getFloatOperand(operands, i);
         }
         return c;
     }
@@ -1304,7 +1338,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            float lineWidth = ((PdfNumber) operands.get(0)).floatValue();
+            float lineWidth = getFloatOperand(operands, 0);
             processor.getGraphicsState().setLineWidth(lineWidth);
         }
     }
@@ -1318,7 +1352,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            int lineCap = ((PdfNumber) operands.get(0)).intValue();
+            int lineCap = (int) getNumberOperand(operands, 0);
             processor.getGraphicsState().setLineCapStyle(lineCap);
         }
     }
@@ -1332,7 +1366,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            int lineJoin = ((PdfNumber) operands.get(0)).intValue();
+            int lineJoin = (int) getNumberOperand(operands, 0);
             processor.getGraphicsState().setLineJoinStyle(lineJoin);
         }
     }
@@ -1346,7 +1380,7 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            float miterLimit = ((PdfNumber) operands.get(0)).floatValue();
+            float miterLimit = getFloatOperand(operands, 0);
             processor.getGraphicsState().setMiterLimit(miterLimit);
         }
     }
@@ -1434,8 +1468,8 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
+            float x = getFloatOperand(operands, 0);
+            float y = getFloatOperand(operands, 1);
             processor.currentPath.moveTo(x, y);
         }
     }
@@ -1449,8 +1483,8 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
+            float x = getFloatOperand(operands, 0);
+            float y = getFloatOperand(operands, 1);
             processor.currentPath.lineTo(x, y);
         }
     }
@@ -1464,12 +1498,12 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x1 = ((PdfNumber) operands.get(0)).floatValue();
-            float y1 = ((PdfNumber) operands.get(1)).floatValue();
-            float x2 = ((PdfNumber) operands.get(2)).floatValue();
-            float y2 = ((PdfNumber) operands.get(3)).floatValue();
-            float x3 = ((PdfNumber) operands.get(4)).floatValue();
-            float y3 = ((PdfNumber) operands.get(5)).floatValue();
+            float x1 = getFloatOperand(operands, 0);
+            float y1 = getFloatOperand(operands, 1);
+            float x2 = getFloatOperand(operands, 2);
+            float y2 = getFloatOperand(operands, 3);
+            float x3 = getFloatOperand(operands, 4);
+            float y3 = getFloatOperand(operands, 5);
             processor.currentPath.curveTo(x1, y1, x2, y2, x3, y3);
         }
     }
@@ -1483,10 +1517,10 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x2 = ((PdfNumber) operands.get(0)).floatValue();
-            float y2 = ((PdfNumber) operands.get(1)).floatValue();
-            float x3 = ((PdfNumber) operands.get(2)).floatValue();
-            float y3 = ((PdfNumber) operands.get(3)).floatValue();
+            float x2 = getFloatOperand(operands, 0);
+            float y2 = getFloatOperand(operands, 1);
+            float x3 = getFloatOperand(operands, 2);
+            float y3 = getFloatOperand(operands, 3);
             processor.currentPath.curveTo(x2, y2, x3, y3);
         }
     }
@@ -1500,10 +1534,10 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x1 = ((PdfNumber) operands.get(0)).floatValue();
-            float y1 = ((PdfNumber) operands.get(1)).floatValue();
-            float x3 = ((PdfNumber) operands.get(2)).floatValue();
-            float y3 = ((PdfNumber) operands.get(3)).floatValue();
+            float x1 = getFloatOperand(operands, 0);
+            float y1 = getFloatOperand(operands, 1);
+            float x3 = getFloatOperand(operands, 2);
+            float y3 = getFloatOperand(operands, 3);
             processor.currentPath.curveFromTo(x1, y1, x3, y3);
         }
     }
@@ -1530,10 +1564,10 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
-            float w = ((PdfNumber) operands.get(2)).floatValue();
-            float h = ((PdfNumber) operands.get(3)).floatValue();
+            float x = getFloatOperand(operands, 0);
+            float y = getFloatOperand(operands, 1);
+            float w = getFloatOperand(operands, 2);
+            float h = getFloatOperand(operands, 3);
             processor.currentPath.rectangle(x, y, w, h);
         }
     }
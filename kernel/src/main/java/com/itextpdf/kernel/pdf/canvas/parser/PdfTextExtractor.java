@@ -43,12 +43,20 @@
  */
 package com.itextpdf.kernel.pdf.canvas.parser;
 
+import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
+import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfPage;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public final class PdfTextExtractor {
 
@@ -93,4 +101,47 @@ public final class PdfTextExtractor {
     public static String getTextFromPage(PdfPage page) {
         return getTextFromPage(page, new LocationTextExtractionStrategy());
     }
+
+    /**
+     * Extract text from all pages of the document using the default strategy.
+     * Content streams of the pages are parsed in parallel, every page with its own
+     * {@link PdfCanvasProcessor} and strategy. Objects and streams of the document are read under the lock
+     * of the {@link com.itextpdf.kernel.pdf.PdfReader}, so the document shall not be modified during extraction.
+     *
+     * @param pdfDocument the document for the text to be extracted from
+     * @param parallelism the number of pages which are processed simultaneously
+     * @return the list of the extracted texts, in the order of pages
+     */
+    public static List<String> getTextFromPages(PdfDocument pdfDocument, int parallelism) {
+        int numberOfPages = pdfDocument.getNumberOfPages();
+        List<Callable<String>> tasks = new ArrayList<>(numberOfPages);
+        // pages tree isn't thread safe, so pages are loaded before the parallel processing
+        for (int i = 1; i <= numberOfPages; i++) {
+            final PdfPage page = pdfDocument.getPage(i);
+            tasks.add(new Callable<String>() {
+                @Override
+                public String call() {
+                    return getTextFromPage(page);
+                }
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(parallelism, 1));
+        try {
+            List<String> texts = new ArrayList<>(numberOfPages);
+            for (Future<String> text : pool.invokeAll(tasks)) {
+                texts.add(text.get());
+            }
+            return texts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.CannotParseContentStream, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PdfException(PdfException.CannotParseContentStream, e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -0,0 +1,283 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfResources;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads the operators of the page or form XObject content together with their operands.
+ * <p>
+ * Unlike {@link PdfCanvasParser}, the lexer reads the content from a buffer and doesn't create objects
+ * for the most frequent tokens: numbers are parsed into primitive values, names are kept as bytes and
+ * the operators are interned, see {@link PdfCanvasOperands}. Strings, arrays, dictionaries and inline images
+ * are read by {@link PdfCanvasParser}, so the operands are the same as the ones the parser returns.
+ */
+public class PdfCanvasLexer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Size of the operators cache, must be a power of two.
+     */
+    private static final int OPERATORS_CACHE_SIZE = 128;
+
+    private static final byte[] BI = {'B', 'I'};
+
+    private final IRandomAccessSource source;
+
+    private final PdfResources resources;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private long bufferStart;
+    private int bufferLength;
+    private int bufferPosition;
+
+    /**
+     * Parser for the tokens which are not handled by the lexer itself, created on demand.
+     */
+    private PdfCanvasParser parser;
+
+    private PdfLiteral[] operators = new PdfLiteral[OPERATORS_CACHE_SIZE];
+    private byte[][] operatorsContent = new byte[OPERATORS_CACHE_SIZE][];
+
+    /**
+     * Creates a new instance of PdfCanvasLexer.
+     *
+     * @param source    the source of the content
+     * @param resources the resources of the content stream, which are used to parse inline images
+     */
+    public PdfCanvasLexer(IRandomAccessSource source, PdfResources resources) {
+        this.source = source;
+        this.resources = resources;
+    }
+
+    /**
+     * Reads the next operator of the content. The operands are followed by the operator, in the same way as
+     * {@link PdfCanvasParser#parse(java.util.List)} returns them. Operands which are not followed by an operator
+     * at the end of the content are ignored.
+     *
+     * @param operands the list to read the operands and the operator to. It is cleared before reading.
+     * @return {@code true} if the operator was read, {@code false} if the end of content was reached
+     * @throws IOException on error
+     */
+    public boolean nextOperator(PdfCanvasOperands operands) throws IOException {
+        operands.clear();
+        while (true) {
+            int ch;
+            do {
+                ch = read();
+            } while (ch != -1 && PdfTokenizer.isWhitespace(ch));
+            switch (ch) {
+                case -1:
+                    return false;
+                case '%':
+                    do {
+                        ch = read();
+                    } while (ch != -1 && ch != '\r' && ch != '\n');
+                    break;
+                case '/':
+                    readName(operands);
+                    break;
+                case '(':
+                case '<':
+                case '>':
+                case '[':
+                case ']':
+                    operands.addObject(readObject(getPosition() - 1));
+                    break;
+                default:
+                    if (ch == '-' || ch == '+' || ch == '.' || (ch >= '0' && ch <= '9')) {
+                        readNumber(ch, operands);
+                    } else {
+                        readOperator(ch, operands);
+                        return true;
+                    }
+            }
+        }
+    }
+
+    private void readName(PdfCanvasOperands operands) throws IOException {
+        int offset = operands.startToken();
+        int ch;
+        while (!PdfTokenizer.delims[(ch = read()) + 1]) {
+            operands.appendTokenByte(ch);
+        }
+        backOnePosition(ch);
+        operands.addName(offset);
+    }
+
+    /**
+     * Reads the number the same way as {@link PdfTokenizer#nextToken()} does.
+     */
+    private void readNumber(int ch, PdfCanvasOperands operands) throws IOException {
+        int offset = operands.startToken();
+        boolean isReal = false;
+        int numberOfMinuses = 0;
+        if (ch == '-') {
+            // Take care of number like "--234". If Acrobat can read them so must we.
+            do {
+                ++numberOfMinuses;
+                ch = read();
+            } while (ch == '-');
+            operands.appendTokenByte('-');
+        } else {
+            operands.appendTokenByte(ch);
+            ch = read();
+        }
+        while (ch != -1 && ((ch >= '0' && ch <= '9') || ch == '.')) {
+            if (ch == '.')
+                isReal = true;
+            operands.appendTokenByte(ch);
+            ch = read();
+        }
+        if (numberOfMinuses > 1 && !isReal) {
+            // Numbers of integer type and with more than one minus before them
+            // are interpreted by Acrobat as zero.
+            operands.resetToken(offset);
+            operands.appendTokenByte('0');
+        }
+        backOnePosition(ch);
+        operands.addNumber(offset);
+    }
+
+    private void readOperator(int ch, PdfCanvasOperands operands) throws IOException {
+        int offset = operands.startToken();
+        do {
+            operands.appendTokenByte(ch);
+            ch = read();
+        } while (!PdfTokenizer.delims[ch + 1]);
+        backOnePosition(ch);
+
+        byte[] tokens = operands.getTokenBytes();
+        int length = operands.startToken() - offset;
+        operands.resetToken(offset);
+        if (length == BI.length && tokens[offset] == BI[0] && tokens[offset + 1] == BI[1]) {
+            readInlineImage(operands);
+            return;
+        }
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + tokens[i];
+        }
+        int index = hash & (OPERATORS_CACHE_SIZE - 1);
+        byte[] content = operatorsContent[index];
+        if (content == null || content.length != length || !regionEquals(content, tokens, offset)) {
+            content = Arrays.copyOfRange(tokens, offset, offset + length);
+            operators[index] = new PdfLiteral(content);
+            operatorsContent[index] = content;
+        }
+        operands.addOperator(operators[index]);
+    }
+
+    private void readInlineImage(PdfCanvasOperands operands) throws IOException {
+        PdfCanvasParser parser = getParser();
+        parser.getTokeniser().seek(getPosition());
+        operands.clear();
+        operands.addObject(InlineImageParsingUtils.parse(parser, resources.getResource(PdfName.ColorSpace)));
+        operands.addOperator(new PdfLiteral("EI"));
+        setPosition(parser.getTokeniser().getPosition());
+    }
+
+    private PdfObject readObject(long position) throws IOException {
+        PdfCanvasParser parser = getParser();
+        parser.getTokeniser().seek(position);
+        PdfObject object = parser.readObject();
+        setPosition(parser.getTokeniser().getPosition());
+        return object;
+    }
+
+    private PdfCanvasParser getParser() {
+        if (parser == null) {
+            parser = new PdfCanvasParser(new PdfTokenizer(new RandomAccessFileOrArray(source)), resources);
+        }
+        return parser;
+    }
+
+    private int read() throws IOException {
+        if (bufferPosition == bufferLength) {
+            bufferStart += bufferLength;
+            bufferPosition = 0;
+            bufferLength = source.get(bufferStart, buffer, 0, BUFFER_SIZE);
+            if (bufferLength <= 0) {
+                bufferLength = 0;
+                return -1;
+            }
+        }
+        return buffer[bufferPosition++] & 0xff;
+    }
+
+    private void backOnePosition(int ch) {
+        if (ch != -1) {
+            bufferPosition--;
+        }
+    }
+
+    private long getPosition() {
+        return bufferStart + bufferPosition;
+    }
+
+    private void setPosition(long position) {
+        bufferStart = position;
+        bufferLength = 0;
+        bufferPosition = 0;
+    }
+
+    private static boolean regionEquals(byte[] content, byte[] tokens, int offset) {
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != tokens[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,289 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The operands of a content stream operator followed by the operator itself, as read by {@link PdfCanvasLexer}.
+ * Numbers are kept as primitive values and names as bytes of the content, {@link PdfNumber} and {@link PdfName}
+ * objects are only created when they are requested with {@link #get(int)}. Operators which only need the values
+ * of the numbers can get them with {@link #getNumber(int)}, without creating any objects.
+ * <p>
+ * The same instance is reused for all operators of the content stream, so the operands shall not be kept
+ * after the operator is processed.
+ */
+public class PdfCanvasOperands extends AbstractList<PdfObject> implements RandomAccess {
+
+    private static final byte NUMBER = 1;
+    private static final byte NAME = 2;
+    private static final byte OBJECT = 3;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Powers of ten which are represented exactly by double.
+     */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private int size;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private double[] numbers = new double[INITIAL_CAPACITY];
+    private int[] tokenOffsets = new int[INITIAL_CAPACITY];
+    private int[] tokenLengths = new int[INITIAL_CAPACITY];
+    private PdfObject[] objects = new PdfObject[INITIAL_CAPACITY];
+
+    // bytes of the number and name tokens of all operands
+    private byte[] tokens = new byte[256];
+    private int tokensSize;
+
+    @Override
+    public PdfObject get(int index) {
+        checkIndex(index);
+        PdfObject object = objects[index];
+        if (object == null) {
+            byte[] content = Arrays.copyOfRange(tokens, tokenOffsets[index], tokenOffsets[index] + tokenLengths[index]);
+            // use PdfNumber(byte[]) here, so that the number is written back the same way as it was read
+            object = types[index] == NUMBER ? (PdfObject) new PdfNumber(content) : new PdfName(content);
+            objects[index] = object;
+            // the object might be changed by the operator, so the value is taken from it from now on
+            types[index] = OBJECT;
+        }
+        return object;
+    }
+
+    /**
+     * Gets the value of the number operand. Unlike {@code ((PdfNumber) get(index)).doubleValue()},
+     * no {@link PdfNumber} is created for the number read from the content stream.
+     *
+     * @param index the index of the operand
+     * @return the value of the number
+     * @throws ClassCastException if the operand is not a number
+     */
+    public double getNumber(int index) {
+        checkIndex(index);
+        if (types[index] == NUMBER) {
+            return numbers[index];
+        }
+        return ((PdfNumber) get(index)).doubleValue();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public PdfObject set(int index, PdfObject element) {
+        PdfObject previous = get(index);
+        objects[index] = element;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, PdfObject element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ensureCapacity(size + 1);
+        int moved = size - index;
+        System.arraycopy(types, index, types, index + 1, moved);
+        System.arraycopy(numbers, index, numbers, index + 1, moved);
+        System.arraycopy(tokenOffsets, index, tokenOffsets, index + 1, moved);
+        System.arraycopy(tokenLengths, index, tokenLengths, index + 1, moved);
+        System.arraycopy(objects, index, objects, index + 1, moved);
+        types[index] = OBJECT;
+        objects[index] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public PdfObject remove(int index) {
+        PdfObject previous = get(index);
+        int moved = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(numbers, index + 1, numbers, index, moved);
+        System.arraycopy(tokenOffsets, index + 1, tokenOffsets, index, moved);
+        System.arraycopy(tokenLengths, index + 1, tokenLengths, index, moved);
+        System.arraycopy(objects, index + 1, objects, index, moved);
+        objects[--size] = null;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+        tokensSize = 0;
+        modCount++;
+    }
+
+    /**
+     * Starts a new number or name token, its bytes are appended with {@link #appendTokenByte(int)}.
+     *
+     * @return the offset of the token
+     */
+    int startToken() {
+        return tokensSize;
+    }
+
+    void appendTokenByte(int b) {
+        if (tokensSize == tokens.length) {
+            tokens = Arrays.copyOf(tokens, tokens.length << 1);
+        }
+        tokens[tokensSize++] = (byte) b;
+    }
+
+    /**
+     * Drops the bytes of the token from the given offset.
+     */
+    void resetToken(int offset) {
+        tokensSize = offset;
+    }
+
+    byte[] getTokenBytes() {
+        return tokens;
+    }
+
+    void addNumber(int offset) {
+        int index = addToken(NUMBER, offset);
+        numbers[index] = parseNumber(tokens, offset, tokensSize - offset);
+    }
+
+    void addName(int offset) {
+        addToken(NAME, offset);
+    }
+
+    void addObject(PdfObject object) {
+        ensureCapacity(size + 1);
+        types[size] = OBJECT;
+        objects[size++] = object;
+        modCount++;
+    }
+
+    void addOperator(PdfLiteral operator) {
+        addObject(operator);
+    }
+
+    private int addToken(byte type, int offset) {
+        ensureCapacity(size + 1);
+        types[size] = type;
+        tokenOffsets[size] = offset;
+        tokenLengths[size] = tokensSize - offset;
+        objects[size] = null;
+        modCount++;
+        return size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > types.length) {
+            int newCapacity = Math.max(capacity, types.length << 1);
+            types = Arrays.copyOf(types, newCapacity);
+            numbers = Arrays.copyOf(numbers, newCapacity);
+            tokenOffsets = Arrays.copyOf(tokenOffsets, newCapacity);
+            tokenLengths = Arrays.copyOf(tokenLengths, newCapacity);
+            objects = Arrays.copyOf(objects, newCapacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Parses the number the same way as {@link PdfNumber} does. Numbers with up to 15 digits are calculated
+     * directly: the digits and the power of ten are represented exactly by double, so the division is rounded
+     * the same way as {@link Double#parseDouble(String)} rounds. Other numbers are parsed as strings.
+     */
+    static double parseNumber(byte[] content, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (content[i] == '-' || content[i] == '+')) {
+            negative = content[i] == '-';
+            i++;
+        }
+        long digits = 0;
+        int digitsCount = 0;
+        int fractionDigitsCount = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = content[i];
+            if (b >= '0' && b <= '9') {
+                digits = digits * 10 + (b - '0');
+                digitsCount++;
+                if (fraction) {
+                    fractionDigitsCount++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                digitsCount = -1;
+                break;
+            }
+        }
+        if (digitsCount <= 0 || digitsCount > 15) {
+            try {
+                return Double.parseDouble(new String(content, offset, length, StandardCharsets.ISO_8859_1));
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        double value = fractionDigitsCount == 0 ? (double) digits : digits / POWERS_OF_TEN[fractionDigitsCount];
+        return negative ? -value : value;
+    }
+}
@@ -44,6 +44,7 @@
 package com.itextpdf.kernel.pdf.canvas.parser.util;
 
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
@@ -65,6 +66,13 @@ import java.util.List;
  */
 public class PdfCanvasParser {
 
+    /**
+     * Size of the operators cache, must be a power of two.
+     */
+    private static final int OPERATORS_CACHE_SIZE = 128;
+
+    private static final byte[] BI = ByteUtils.getIsoBytes("BI");
+
     /**
      * Holds value of property tokeniser.
      */
@@ -72,6 +80,13 @@ public class PdfCanvasParser {
 
     private PdfResources currentResources;
 
+    /**
+     * Already read operators, so that the same {@link PdfLiteral} instance is reused for every occurrence
+     * of the operator in the content stream.
+     */
+    private PdfLiteral[] operators = new PdfLiteral[OPERATORS_CACHE_SIZE];
+    private byte[][] operatorsContent = new byte[OPERATORS_CACHE_SIZE][];
+
     /**
      * Creates a new instance of PdfContentParser
      * @param tokeniser the tokeniser with the content
@@ -115,7 +130,7 @@ public class PdfCanvasParser {
         while ((ob = readObject()) != null) {
             ls.add(ob);
             if (tokeniser.getTokenType() == PdfTokenizer.TokenType.Other) {
-                if (ob.toString().equals("BI")) {
+                if (tokeniser.tokenValueEqualsTo(BI)) {
                     PdfStream inlineImageAsStream = InlineImageParsingUtils.parse(this, currentResources.getResource(PdfName.ColorSpace));
                     ls.clear();
                     ls.add(inlineImageAsStream);
@@ -207,7 +222,7 @@ public class PdfCanvasParser {
                 //use PdfNumber(byte[]) here, as in this case number parsing won't happen until it's needed.
                 return new PdfNumber(tokeniser.getByteContent());
             default:
-                return new PdfLiteral(tokeniser.getByteContent());
+                return readOperator();
         }
     }
 
@@ -224,4 +239,14 @@ public class PdfCanvasParser {
         }
         return false;
     }
+
+    private PdfLiteral readOperator() {
+        int index = tokeniser.getTokenValueHashCode() & (OPERATORS_CACHE_SIZE - 1);
+        if (operators[index] == null || !tokeniser.tokenValueEqualsTo(operatorsContent[index])) {
+            byte[] content = tokeniser.getByteContent();
+            operators[index] = new PdfLiteral(content);
+            operatorsContent[index] = content;
+        }
+        return operators[index];
+    }
 }
@@ -51,11 +51,13 @@ import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfObject;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Handles ASCIIHexDecode filter
  */
-public class ASCIIHexDecodeFilter implements IFilterHandler {
+public class ASCIIHexDecodeFilter implements IFilterHandler, IStreamingFilterHandler {
 
     @Override
     public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
@@ -63,6 +65,11 @@ public class ASCIIHexDecodeFilter implements IFilterHandler {
         return b;
     }
 
+    @Override
+    public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return new ASCIIHexDecodeInputStream(in);
+    }
+
     /**
      * Decodes a byte[] according to ASCII Hex encoding.
      *
@@ -92,4 +99,37 @@ public class ASCIIHexDecodeFilter implements IFilterHandler {
             out.write((byte)(n1 << 4));
         return out.toByteArray();
     }
+
+    private static class ASCIIHexDecodeInputStream extends DecodingInputStream {
+
+        ASCIIHexDecodeInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        protected boolean decodeNext() throws IOException {
+            boolean first = true;
+            int n1 = 0;
+            while (true) {
+                int ch = in.read();
+                if (ch < 0 || ch == '>')
+                    break;
+                if (PdfTokenizer.isWhitespace(ch))
+                    continue;
+                int n = ByteBuffer.getHex(ch);
+                if (n == -1)
+                    throw new PdfException(PdfException.IllegalCharacterInAsciihexdecode);
+                if (first) {
+                    n1 = n;
+                } else {
+                    write((byte)((n1 << 4) + n));
+                    return true;
+                }
+                first = !first;
+            }
+            if (!first)
+                write((byte)(n1 << 4));
+            return false;
+        }
+    }
 }
@@ -43,6 +43,8 @@
  */
 package com.itextpdf.kernel.pdf.filters;
 
+import com.itextpdf.io.source.IRandomAccessSource;
+import com.itextpdf.io.source.RASInputStream;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfName;
@@ -53,12 +55,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.zip.InflaterInputStream;
 
 /**
  * Handles FlateDecode filter.
  */
-public class FlateDecodeFilter implements IFilterHandler {
+public class FlateDecodeFilter implements IFilterHandler, IStreamingFilterHandler {
 
     @Override
     public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
@@ -69,6 +72,27 @@ public class FlateDecodeFilter implements IFilterHandler {
         return b;
     }
 
+    @Override
+    public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return decodePredictor(new FlateDecodeInputStream(in), decodeParams);
+    }
+
+    /**
+     * Decodes the data of the source without copying the compressed bytes into an intermediate array.
+     *
+     * @param source the source of the encoded data
+     * @param filterName PdfName of the filter
+     * @param decodeParams decode parameters
+     * @param streamDictionary the dictionary of the stream
+     * @return decoded byte array
+     */
+    public byte[] decode(IRandomAccessSource source, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        byte[] res = flateDecode(source, true);
+        if (res == null)
+            res = flateDecode(source, false);
+        return decodePredictor(res, decodeParams);
+    }
+
     /**
      * A helper to flateDecode.
      *
@@ -77,24 +101,18 @@ public class FlateDecodeFilter implements IFilterHandler {
      * @return the decoded data
      */
     public static byte[] flateDecode(byte[] in, boolean strict) {
-        ByteArrayInputStream stream = new ByteArrayInputStream(in);
-        InflaterInputStream zip = new InflaterInputStream(stream);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        byte[] b = new byte[strict ? 4092 : 1];
-        try {
-            int n;
-            while ((n = zip.read(b)) >= 0) {
-                out.write(b, 0, n);
-            }
-            zip.close();
-            out.close();
-            return out.toByteArray();
-        }
-        catch (Exception e) {
-            if (strict)
-                return null;
-            return out.toByteArray();
-        }
+        return flateDecode(new ByteArrayInputStream(in), strict);
+    }
+
+    /**
+     * A helper to flateDecode, which reads the input data directly from the source.
+     *
+     * @param source the input data
+     * @param strict {@code true} to read a correct stream. {@code false} to try to read a corrupted stream.
+     * @return the decoded data
+     */
+    public static byte[] flateDecode(IRandomAccessSource source, boolean strict) {
+        return flateDecode(new RASInputStream(source), strict);
     }
 
     /**
@@ -222,4 +240,173 @@ public class FlateDecodeFilter implements IFilterHandler {
             curr = tmp;
         }
     }
+
+    /**
+     * Wraps the stream into the stream, which decodes the predictor while the data is being read.
+     *
+     * @param in the stream of the input data
+     * @param decodeParams PdfDictionary of decodeParams
+     * @return the stream of the decoded data, or the input stream if no predictor needs to be decoded
+     */
+    public static InputStream decodePredictor(InputStream in, PdfObject decodeParams) {
+        if (decodeParams == null || decodeParams.getType() != PdfObject.DICTIONARY)
+            return in;
+        PdfDictionary dic = (PdfDictionary)decodeParams;
+        int predictor = getIntParam(dic, PdfName.Predictor, -1);
+        if (predictor < 10 && predictor != 2)
+            return in;
+        int width = getIntParam(dic, PdfName.Columns, 1);
+        int colors = getIntParam(dic, PdfName.Colors, 1);
+        int bpc = getIntParam(dic, PdfName.BitsPerComponent, 8);
+        if (predictor == 2 && bpc != 8)
+            return in;
+        return new PredictorInputStream(in, predictor, colors * bpc / 8, (colors * width * bpc + 7)/8);
+    }
+
+    private static int getIntParam(PdfDictionary dic, PdfName key, int defaultValue) {
+        PdfObject obj = dic.get(key);
+        return obj != null && obj.getType() == PdfObject.NUMBER ? ((PdfNumber)obj).intValue() : defaultValue;
+    }
+
+    private static byte[] flateDecode(InputStream stream, boolean strict) {
+        InflaterInputStream zip = new InflaterInputStream(stream);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] b = new byte[strict ? 4092 : 1];
+        try {
+            int n;
+            while ((n = zip.read(b)) >= 0) {
+                out.write(b, 0, n);
+            }
+            zip.close();
+            out.close();
+            return out.toByteArray();
+        }
+        catch (Exception e) {
+            if (strict)
+                return null;
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Inflates the data the same way as non-strict {@link #flateDecode(byte[], boolean)} does:
+     * a corrupted stream is decoded as far as possible.
+     */
+    private static class FlateDecodeInputStream extends InflaterInputStream {
+        private boolean finished;
+
+        FlateDecodeInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (finished)
+                return -1;
+            try {
+                int n = super.read(b, off, len);
+                finished = n < 0;
+                return n;
+            } catch (IOException e) {
+                finished = true;
+                return -1;
+            }
+        }
+    }
+
+    private static class PredictorInputStream extends DecodingInputStream {
+        private final int predictor;
+        private final int bytesPerPixel;
+        private final int bytesPerRow;
+        private byte[] curr;
+        private byte[] prior;
+
+        PredictorInputStream(InputStream in, int predictor, int bytesPerPixel, int bytesPerRow) {
+            super(in);
+            this.predictor = predictor;
+            this.bytesPerPixel = bytesPerPixel;
+            this.bytesPerRow = bytesPerRow;
+            this.curr = new byte[bytesPerRow];
+            this.prior = new byte[bytesPerRow];
+        }
+
+        @Override
+        protected boolean decodeNext() throws IOException {
+            if (predictor == 2) {
+                int n = readFully(curr, 0, bytesPerRow);
+                if (n < bytesPerRow || n == 0) {
+                    // incomplete row is left as is
+                    write(curr, 0, n);
+                    return false;
+                }
+                for (int col = bytesPerPixel; col < bytesPerRow; col++) {
+                    curr[col] = (byte)(curr[col] + curr[col - bytesPerPixel]);
+                }
+                write(curr, 0, bytesPerRow);
+                return true;
+            }
+            int filter = in.read();
+            if (filter < 0 || readFully(curr, 0, bytesPerRow) < bytesPerRow) {
+                return false;
+            }
+            switch (filter) {
+                case 0: //PNG_FILTER_NONE
+                    break;
+                case 1: //PNG_FILTER_SUB
+                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                        curr[i] += curr[i - bytesPerPixel];
+                    }
+                    break;
+                case 2: //PNG_FILTER_UP
+                    for (int i = 0; i < bytesPerRow; i++) {
+                        curr[i] += prior[i];
+                    }
+                    break;
+                case 3: //PNG_FILTER_AVERAGE
+                    for (int i = 0; i < bytesPerPixel; i++) {
+                        curr[i] += (byte) (prior[i] / 2);
+                    }
+                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                        curr[i] += (byte) (((curr[i - bytesPerPixel] & 0xff) + (prior[i] & 0xff))/2);
+                    }
+                    break;
+                case 4: //PNG_FILTER_PAETH
+                    for (int i = 0; i < bytesPerPixel; i++) {
+                        curr[i] += prior[i];
+                    }
+                    for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                        int a = curr[i - bytesPerPixel] & 0xff;
+                        int b = prior[i] & 0xff;
+                        int c = prior[i - bytesPerPixel] & 0xff;
+
+                        int p = a + b - c;
+                        int pa = Math.abs(p - a);
+                        int pb = Math.abs(p - b);
+                        int pc = Math.abs(p - c);
+
+                        int ret;
+
+                        if (pa <= pb && pa <= pc) {
+                            ret = a;
+                        } else if (pb <= pc) {
+                            ret = b;
+                        } else {
+                            ret = c;
+                        }
+                        curr[i] += (byte)ret;
+                    }
+                    break;
+                default:
+                    // Error -- unknown filter type
+                    throw new PdfException(PdfException.PngFilterUnknown);
+            }
+            write(curr, 0, bytesPerRow);
+
+            // Swap curr and prior
+            byte[] tmp = prior;
+            prior = curr;
+            curr = tmp;
+            return true;
+        }
+    }
 }
@@ -43,16 +43,20 @@
  */
 package com.itextpdf.kernel.pdf.filters;
 
+import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfObject;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 
 /**
  * Handles LZWDECODE filter
  */
-public class LZWDecodeFilter implements IFilterHandler {
+public class LZWDecodeFilter implements IFilterHandler, IStreamingFilterHandler {
 
     @Override
     public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
@@ -61,6 +65,11 @@ public class LZWDecodeFilter implements IFilterHandler {
         return b;
     }
 
+    @Override
+    public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return FlateDecodeFilter.decodePredictor(new LZWDecodeInputStream(in), decodeParams);
+    }
+
     /**
      * Decodes a byte[] according to the LZW encoding.
      *
@@ -73,4 +82,81 @@ public class LZWDecodeFilter implements IFilterHandler {
         lzw.decode(in, out);
         return out.toByteArray();
     }
+
+    /**
+     * Decodes the data the same way as {@link LZWDecoder} does, reading the codes from the stream.
+     */
+    private static class LZWDecodeInputStream extends DecodingInputStream {
+        private final LZWDecoder lzw = new LZWDecoder();
+        private int oldCode;
+        private boolean started;
+
+        LZWDecodeInputStream(InputStream in) {
+            super(new PushbackInputStream(in, 2));
+        }
+
+        @Override
+        protected boolean decodeNext() throws IOException {
+            if (!started) {
+                started = true;
+                checkFlavour();
+                lzw.initializeStringTable();
+            }
+            int code = getNextCode();
+            if (code == 257) {
+                return false;
+            }
+            byte[] string;
+            if (code == 256) {
+                lzw.initializeStringTable();
+                code = getNextCode();
+                if (code == 257) {
+                    return false;
+                }
+                string = lzw.stringTable[code];
+            } else if (code < lzw.tableIndex) {
+                string = lzw.stringTable[code];
+                lzw.addStringToTable(lzw.stringTable[oldCode], string[0]);
+            } else {
+                string = lzw.stringTable[oldCode];
+                string = lzw.composeString(string, string[0]);
+                lzw.addStringToTable(string);
+            }
+            write(string, 0, string.length);
+            oldCode = code;
+            return true;
+        }
+
+        private void checkFlavour() throws IOException {
+            byte[] header = new byte[2];
+            int n = readFully(header, 0, 2);
+            if (n == 2 && header[0] == (byte)0x00 && header[1] == (byte)0x01) {
+                throw new PdfException(PdfException.LzwFlavourNotSupported);
+            }
+            ((PushbackInputStream) in).unread(header, 0, n);
+        }
+
+        private int getNextCode() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                // Strip not terminated as expected: return EndOfInformation code.
+                return 257;
+            }
+            lzw.nextData = (lzw.nextData << 8) | b;
+            lzw.nextBits += 8;
+
+            if (lzw.nextBits < lzw.bitsToGet) {
+                b = in.read();
+                if (b < 0) {
+                    return 257;
+                }
+                lzw.nextData = (lzw.nextData << 8) | b;
+                lzw.nextBits += 8;
+            }
+
+            int code = (lzw.nextData >> (lzw.nextBits - lzw.bitsToGet)) & lzw.andTable[lzw.bitsToGet - 9];
+            lzw.nextBits -= lzw.bitsToGet;
+            return code;
+        }
+    }
 }
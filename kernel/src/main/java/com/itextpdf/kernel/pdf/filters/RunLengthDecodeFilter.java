@@ -48,11 +48,13 @@ import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfObject;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Handles RunLengthDecode filter.
  */
-public class RunLengthDecodeFilter implements IFilterHandler {
+public class RunLengthDecodeFilter implements IFilterHandler, IStreamingFilterHandler {
 
     @Override
     public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
@@ -64,8 +66,8 @@ public class RunLengthDecodeFilter implements IFilterHandler {
                 break;
             }
             if (dupCount >= 0) {
-                int bytesToCopy = dupCount + 1;
-                baos.write(b, i, bytesToCopy);
+                int bytesToCopy = Math.min(dupCount + 1, b.length - i - 1);
+                baos.write(b, i + 1, bytesToCopy);
                 i += bytesToCopy;
             } else {                // make dupcount copies of the next byte
                 i++;
@@ -76,4 +78,39 @@ public class RunLengthDecodeFilter implements IFilterHandler {
         }
         return baos.toByteArray();
     }
+
+    @Override
+    public InputStream decode(InputStream in, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return new RunLengthDecodeInputStream(in);
+    }
+
+    private static class RunLengthDecodeInputStream extends DecodingInputStream {
+        private final byte[] run = new byte[128];
+
+        RunLengthDecodeInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        protected boolean decodeNext() throws IOException {
+            int length = in.read();
+            if (length < 0 || length == 0x80) { // this is implicit end of data
+                return false;
+            }
+            if (length < 0x80) {
+                int n = readFully(run, 0, length + 1);
+                write(run, 0, n);
+                return n == length + 1;
+            } else {                // make dupcount copies of the next byte
+                int b = in.read();
+                if (b < 0) {
+                    return false;
+                }
+                for (int j = 0; j < 257 - length; j++) {
+                    write(b);
+                }
+                return true;
+            }
+        }
+    }
 }
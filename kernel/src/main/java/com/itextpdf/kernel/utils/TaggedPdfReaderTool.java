@@ -224,7 +224,7 @@ public class TaggedPdfReaderTool {
 
                 PdfCanvasProcessor processor = new PdfCanvasProcessor(listener);
                 PdfPage page = document.getPage(pageDic);
-                processor.processContent(page.getContentBytes(), page.getResources());
+                processor.processContent(page.getContentSource(), page.getResources());
 
                 parsedTags.put(pageDic, listener.getMcidContent());
             }
@@ -54,6 +54,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
 
@@ -237,4 +239,111 @@ public class PdfCopyTest extends ExtendedITextTest {
         assertNull(new CompareTool().compareByContent(destinationFolder + "copySamePageWithAnnotationsSeveralTimes.pdf", sourceFolder + "cmp_copySamePageWithAnnotationsSeveralTimes.pdf", destinationFolder, "diff_"));
     }
 
+    @Test
+    public void copySimilarPagesInSmartMode() throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(destinationFolder + "copySimilarPagesInSmartMode.pdf",
+                new WriterProperties().useSmartMode()));
+        PdfName shared = new PdfName("Shared");
+        PdfName unique = new PdfName("Unique");
+        for (int i = 0; i < 10; i++) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            PdfDocument srcDoc = new PdfDocument(new PdfWriter(baos));
+            PdfPage page = srcDoc.addNewPage();
+            PdfDictionary sharedDict = new PdfDictionary();
+            sharedDict.put(PdfName.Data, new PdfStream(ByteUtils.getIsoBytes("q Q")).makeIndirect(srcDoc));
+            sharedDict.put(PdfName.Name, new PdfString("shared"));
+            page.getPdfObject().put(shared, sharedDict.makeIndirect(srcDoc));
+            PdfDictionary uniqueDict = new PdfDictionary();
+            uniqueDict.put(PdfName.Data, new PdfStream(ByteUtils.getIsoBytes("% page " + i)).makeIndirect(srcDoc));
+            page.getPdfObject().put(unique, uniqueDict.makeIndirect(srcDoc));
+            srcDoc.close();
+
+            srcDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+            srcDoc.copyPagesTo(1, 1, pdfDoc);
+            srcDoc.close();
+        }
+
+        PdfIndirectReference sharedRef = pdfDoc.getPage(1).getPdfObject().getAsDictionary(shared).getIndirectReference();
+        for (int i = 1; i <= pdfDoc.getNumberOfPages(); i++) {
+            PdfDictionary page = pdfDoc.getPage(i).getPdfObject();
+            assertEquals(sharedRef, page.getAsDictionary(shared).getIndirectReference());
+            if (i > 1) {
+                Assert.assertNotEquals(pdfDoc.getPage(1).getPdfObject().getAsDictionary(unique).getIndirectReference(),
+                        page.getAsDictionary(unique).getIndirectReference());
+            }
+            assertEquals("% page " + (i - 1),
+                    new String(page.getAsDictionary(unique).getAsStream(PdfName.Data).getBytes()));
+        }
+        pdfDoc.close();
+    }
+
+    @Test
+    public void copyPagesWithResourceDeduplication() throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(destinationFolder + "copyPagesWithResourceDeduplication.pdf",
+                new WriterProperties().useResourceDeduplication()));
+        for (int i = 0; i < 10; i++) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            PdfDocument srcDoc = new PdfDocument(new PdfWriter(baos));
+            PdfPage page = srcDoc.addNewPage();
+            PdfStream image = new PdfStream(new byte[100]);
+            image.put(PdfName.Type, PdfName.XObject);
+            image.put(PdfName.Subtype, PdfName.Image);
+            image.put(PdfName.Width, new PdfNumber(10));
+            image.put(PdfName.Height, new PdfNumber(10));
+            image.put(PdfName.ColorSpace, PdfName.DeviceGray);
+            image.put(PdfName.BitsPerComponent, new PdfNumber(8));
+            page.getResources().addImage(image);
+            PdfStream form = new PdfStream(ByteUtils.getIsoBytes("q Q"));
+            form.put(PdfName.Type, PdfName.XObject);
+            form.put(PdfName.Subtype, PdfName.Form);
+            page.getResources().addForm(form);
+            srcDoc.close();
+
+            srcDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+            srcDoc.copyPagesTo(1, 1, pdfDoc);
+            srcDoc.close();
+        }
+
+        PdfDictionary firstXObjects = pdfDoc.getPage(1).getResources().getResource(PdfName.XObject);
+        for (int i = 2; i <= pdfDoc.getNumberOfPages(); i++) {
+            PdfDictionary xObjects = pdfDoc.getPage(i).getResources().getResource(PdfName.XObject);
+            for (PdfName name : xObjects.keySet()) {
+                PdfIndirectReference reference = xObjects.get(name).getIndirectReference();
+                if (PdfName.Image.equals(xObjects.getAsStream(name).getAsName(PdfName.Subtype))) {
+                    assertEquals(firstXObjects.get(name).getIndirectReference(), reference);
+                } else {
+                    Assert.assertNotEquals(firstXObjects.get(name).getIndirectReference(), reference);
+                }
+            }
+        }
+        pdfDoc.close();
+    }
+
+    @Test
+    public void smartModeObjectsWithSameFingerprintAreCompared() {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfDictionary saved = createSmartModeTestObject(pdfDoc, "shared", "q Q");
+        PdfDictionary same = createSmartModeTestObject(pdfDoc, "shared", "q Q");
+        PdfDictionary differentName = createSmartModeTestObject(pdfDoc, "different", "q Q");
+        PdfDictionary differentData = createSmartModeTestObject(pdfDoc, "shared", "Q q");
+
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer();
+        SerializedObjectContent fingerprint = serializer.serializeObject(saved);
+        serializer.saveSerializedObject(fingerprint, saved.getIndirectReference(), saved.getIndirectReference());
+        assertEquals(fingerprint, serializer.serializeObject(same));
+        assertEquals(saved.getIndirectReference(), serializer.getSavedSerializedObject(fingerprint, same));
+        // a colliding fingerprint must not make a different object to be replaced
+        assertNull(serializer.getSavedSerializedObject(fingerprint, differentName));
+        assertNull(serializer.getSavedSerializedObject(fingerprint, differentData));
+        pdfDoc.addNewPage();
+        pdfDoc.close();
+    }
+
+    private static PdfDictionary createSmartModeTestObject(PdfDocument pdfDoc, String name, String data) {
+        PdfDictionary dictionary = new PdfDictionary();
+        dictionary.put(PdfName.Data, new PdfStream(ByteUtils.getIsoBytes(data)).makeIndirect(pdfDoc));
+        dictionary.put(PdfName.Name, new PdfString(name));
+        return (PdfDictionary) dictionary.makeIndirect(pdfDoc);
+    }
+
 }
@@ -43,6 +43,7 @@
 package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.action.PdfAction;
 import com.itextpdf.kernel.pdf.annot.PdfLinkAnnotation;
@@ -53,13 +54,22 @@ import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.IntegrationTest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 @Category(IntegrationTest.class)
 public class PdfDestinationTest extends ExtendedITextTest {
@@ -175,4 +185,114 @@ public class PdfDestinationTest extends ExtendedITextTest {
 
         assertNull(new CompareTool().compareByContent(outFile, cmpFile, destinationFolder, "diff_"));
     }
+
+    @Test
+    public void lazyNameTreeLookupTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        document.addNewPage();
+        List<Map.Entry<String, PdfObject>> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            PdfArray array = new PdfArray();
+            array.add(document.getPage(1).getPdfObject());
+            array.add(PdfName.Fit);
+            entries.add(new AbstractMap.SimpleEntry<String, PdfObject>(String.format("dest%05d", i), array));
+        }
+        PdfDictionary names = new PdfDictionary();
+        names.put(PdfName.Dests, PdfNameTree.buildTree(entries.iterator(), document).makeIndirect(document));
+        document.getCatalog().put(PdfName.Names, names);
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfNameTree destsTree = document.getCatalog().getNameTree(PdfName.Dests);
+        PdfArray dest = (PdfArray) destsTree.getEntry("dest03999");
+        assertSame(document.getPage(1).getPdfObject(), dest.getAsDictionary(0));
+        assertNull(destsTree.getEntry("dest05000"));
+        int count = 0;
+        for (Iterator<Map.Entry<String, PdfObject>> iterator = destsTree.getEntriesIterator(); iterator.hasNext(); count++) {
+            Map.Entry<String, PdfObject> entry = iterator.next();
+            assertEquals(String.format("dest%05d", count), entry.getKey());
+        }
+        assertEquals(5000, count);
+        assertEquals(5000, destsTree.getNames().size());
+        document.close();
+    }
+
+    @Test
+    public void nameTreeLookupComparesBytesTest() throws IOException {
+        // U+03A9 is written in UTF-16BE and its bytes start with 0xFE, so it precedes U+00FF (0xFF in PDFDocEncoding)
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        document.addNewPage();
+        PdfArray kids = new PdfArray();
+        kids.add(createNameTreeLeaf(document, new PdfString("\u03a9", PdfEncodings.UNICODE_BIG)));
+        kids.add(createNameTreeLeaf(document, new PdfString("\u00ff")));
+        writeDestsTree(document, kids);
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfNameTree destsTree = document.getCatalog().getNameTree(PdfName.Dests);
+        assertSame(document.getPage(1).getPdfObject(), ((PdfArray) destsTree.getEntry("\u00ff")).getAsDictionary(0));
+        assertSame(document.getPage(1).getPdfObject(), ((PdfArray) destsTree.getEntry("\u03a9")).getAsDictionary(0));
+        assertNull(destsTree.getEntry("\u00fe"));
+        document.close();
+    }
+
+    @Test
+    public void utf16NameTreeLookupTest() throws IOException {
+        // names which could be written in PDFDocEncoding are written in UTF-16BE, and sorted by these bytes
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        document.addNewPage();
+        PdfArray kids = new PdfArray();
+        for (String name : new String[] {"a", "b", "c"}) {
+            kids.add(createNameTreeLeaf(document, new PdfString(PdfEncodings.convertToBytes(name, PdfEncodings.UNICODE_BIG))));
+        }
+        writeDestsTree(document, kids);
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfNameTree destsTree = document.getCatalog().getNameTree(PdfName.Dests);
+        for (String name : new String[] {"a", "b", "c"}) {
+            assertSame(document.getPage(1).getPdfObject(), ((PdfArray) destsTree.getEntry(name)).getAsDictionary(0));
+        }
+        assertNull(destsTree.getEntry("d"));
+        document.close();
+    }
+
+    @Test
+    public void unsortedNameTreeLookupTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        document.addNewPage();
+        PdfArray kids = new PdfArray();
+        kids.add(createNameTreeLeaf(document, new PdfString("b")));
+        kids.add(createNameTreeLeaf(document, new PdfString("a")));
+        kids.add(createNameTreeLeaf(document, new PdfString("c")));
+        writeDestsTree(document, kids);
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfNameTree destsTree = document.getCatalog().getNameTree(PdfName.Dests);
+        for (String name : new String[] {"a", "b", "c"}) {
+            assertEquals(destsTree.getNames().get(name), destsTree.getEntry(name));
+        }
+        document.close();
+    }
+
+    private static PdfDictionary createNameTreeLeaf(PdfDocument document, PdfString name) {
+        PdfArray destination = new PdfArray();
+        destination.add(document.getPage(1).getPdfObject());
+        destination.add(PdfName.Fit);
+        PdfDictionary leaf = new PdfDictionary();
+        leaf.put(PdfName.Limits, new PdfArray(Arrays.<PdfObject>asList(name, name)));
+        leaf.put(PdfName.Names, new PdfArray(Arrays.<PdfObject>asList(name, destination)));
+        return leaf.makeIndirect(document);
+    }
+
+    private static void writeDestsTree(PdfDocument document, PdfArray kids) {
+        PdfDictionary root = new PdfDictionary();
+        root.put(PdfName.Kids, kids);
+        PdfDictionary names = new PdfDictionary();
+        names.put(PdfName.Dests, root.makeIndirect(document));
+        document.getCatalog().put(PdfName.Names, names);
+        document.close();
+    }
 }
@@ -0,0 +1,127 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.test.annotations.type.PerformanceTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares the heap taken by {@link PdfDictionary} objects with the heap taken by just a {@link TreeMap}
+ * with the same entries, which is how the entries of every dictionary used to be stored.
+ */
+@Category(PerformanceTest.class)
+public class PdfDictionaryFootprintTest {
+
+    private static final int DICTIONARIES_COUNT = 100000;
+
+    private static final PdfName[] KEYS = {PdfName.Type, PdfName.Subtype, PdfName.Rect, PdfName.Border, PdfName.A,
+            PdfName.P, PdfName.F, PdfName.Contents, PdfName.M, PdfName.NM, PdfName.C, PdfName.CA, PdfName.Parent,
+            PdfName.Resources, PdfName.MediaBox, PdfName.CropBox};
+    private static final PdfObject VALUE = new PdfNumber(1);
+
+    @Test
+    public void smallDictionariesFootprintTest() {
+        for (int size = 2; size <= PdfDictionaryMap.MAX_ARRAY_SIZE; size += 2) {
+            long dictionaryFootprint = measureFootprint(new EntriesContainerFactory() {
+                @Override
+                Object create(int size) {
+                    PdfDictionary dictionary = new PdfDictionary();
+                    for (int k = 0; k < size; k++) {
+                        dictionary.put(KEYS[k], VALUE);
+                    }
+                    return dictionary;
+                }
+            }, size);
+            long treeMapFootprint = measureFootprint(new EntriesContainerFactory() {
+                @Override
+                Object create(int size) {
+                    Map<PdfName, PdfObject> map = new TreeMap<>();
+                    for (int k = 0; k < size; k++) {
+                        map.put(KEYS[k], VALUE);
+                    }
+                    return map;
+                }
+            }, size);
+            System.out.println(size + " entries: PdfDictionary " + dictionaryFootprint + " bytes, TreeMap "
+                    + treeMapFootprint + " bytes");
+            Assert.assertTrue(dictionaryFootprint < treeMapFootprint);
+        }
+    }
+
+    /**
+     * Gets the median of several measurements of the heap taken by a container, in bytes.
+     */
+    private static long measureFootprint(EntriesContainerFactory factory, int size) {
+        long[] footprints = new long[5];
+        for (int attempt = 0; attempt < footprints.length; attempt++) {
+            List<Object> containers = new ArrayList<>(DICTIONARIES_COUNT);
+            long before = usedMemory();
+            for (int i = 0; i < DICTIONARIES_COUNT; i++) {
+                containers.add(factory.create(size));
+            }
+            footprints[attempt] = (usedMemory() - before) / containers.size();
+        }
+        Arrays.sort(footprints);
+        return footprints[footprints.length / 2];
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static abstract class EntriesContainerFactory {
+        abstract Object create(int size);
+    }
+}
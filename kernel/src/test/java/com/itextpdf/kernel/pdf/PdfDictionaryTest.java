@@ -50,8 +50,11 @@ import org.junit.experimental.categories.Category;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
 
 @Category(UnitTest.class)
 public class PdfDictionaryTest {
@@ -465,4 +468,26 @@ public class PdfDictionaryTest {
         Assert.assertEquals(0, dict.values().size());
         Assert.assertEquals(0, dict.size());
     }
+
+    @Test
+    public void testKeysOrderWhenDictionaryGrows() {
+        PdfDictionary dict = new PdfDictionary();
+        List<PdfName> keys = new ArrayList<>();
+        for (int i = 0; i < 3 * PdfDictionaryMap.MAX_ARRAY_SIZE; i++) {
+            keys.add(new PdfName("Key" + (char) ('A' + i % 26) + i));
+        }
+        Collections.shuffle(keys, new Random(1));
+        for (PdfName key : keys) {
+            dict.put(key, key);
+            List<PdfName> sortedKeys = new ArrayList<>(new TreeSet<>(dict.keySet()));
+            Assert.assertEquals(sortedKeys, new ArrayList<>(dict.keySet()));
+        }
+        for (int i = 0; i < keys.size(); i += 2) {
+            Assert.assertEquals(keys.get(i), dict.remove(keys.get(i)));
+        }
+        Assert.assertEquals(keys.size() / 2, dict.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Assert.assertEquals(i % 2 == 0 ? null : keys.get(i), dict.get(keys.get(i)));
+        }
+    }
 }
@@ -326,4 +326,23 @@ public class PdfDocumentTest extends ExtendedITextTest {
         assertEquals("SomeStringValueInArray", field.getAsArray(new PdfName("TestArray")).getAsString(0).toUnicodeString());
         pdfDocument.close();
     }
+
+    @Test
+    public void resolvePageObjectsTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(sourceFolder + "datasheet.pdf"));
+        PdfDictionary pageDictionary = pdfDocument.getPage(1).getPdfObject();
+        PdfIndirectReference contents = (PdfIndirectReference) pageDictionary.get(PdfName.Contents, false);
+        PdfIndirectReference resources = (PdfIndirectReference) pageDictionary.get(PdfName.Resources, false);
+        assertNull(contents.refersTo);
+
+        pdfDocument.resolvePageObjects(1);
+        assertNotNull(contents.refersTo);
+        assertNotNull(resources.refersTo);
+        // the objects reachable from the resources are read as well
+        PdfDictionary fonts = ((PdfDictionary) resources.refersTo).getAsDictionary(PdfName.Font);
+        for (PdfName fontName : fonts.keySet()) {
+            assertNotNull(((PdfIndirectReference) fonts.get(fontName, false)).refersTo);
+        }
+        pdfDocument.close();
+    }
 }
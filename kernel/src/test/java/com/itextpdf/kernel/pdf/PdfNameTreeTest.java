@@ -0,0 +1,83 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PdfNameTreeTest extends ExtendedITextTest {
+
+    @Test
+    public void embeddedFilesAreKeptTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        document.addNewPage();
+        document.addFileAttachment("first", "first".getBytes(), "first.txt", null, null, null);
+        document.addFileAttachment("second", "second".getBytes(), "second.txt", null, null, null);
+        document.close();
+
+        // file specifications are dictionaries without /D, they must not be dropped as destinations are
+        ByteArrayOutputStream appended = new ByteArrayOutputStream();
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())), new PdfWriter(appended));
+        PdfNameTree embeddedFiles = document.getCatalog().getNameTree(PdfName.EmbeddedFiles);
+        Assert.assertEquals("first.txt", ((PdfDictionary) embeddedFiles.getEntry("first")).getAsString(PdfName.UF).toUnicodeString());
+        document.addFileAttachment("third", "third".getBytes(), "third.txt", null, null, null);
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(appended.toByteArray())));
+        Map<String, PdfObject> names = document.getCatalog().getNameTree(PdfName.EmbeddedFiles).getNames();
+        Assert.assertEquals(3, names.size());
+        for (String name : new String[] {"first", "second", "third"}) {
+            Assert.assertTrue(names.get(name).isDictionary());
+        }
+        document.close();
+    }
+}
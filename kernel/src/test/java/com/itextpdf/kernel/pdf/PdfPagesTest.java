@@ -43,6 +43,7 @@
 package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.extgstate.PdfExtGState;
 import com.itextpdf.kernel.utils.CompareTool;
@@ -55,8 +56,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -316,11 +319,47 @@ public class PdfPagesTest extends ExtendedITextTest{
         List<PdfPages> parents = pagesTree.getParents();
         int from = 0;
         for (int i = 0; i < parents.size(); i++) {
-            if (parents.get(i).getFrom() != from)
+            PdfPages parent = parents.get(i);
+            if (parent.getCount() != parent.getKids().size())
                 return i;
-            from = parents.get(i).getFrom() + parents.get(i).getCount();
+            if (parent.getCount() > 0 && pagesTree.getPage(from + 1).parentPages != parent)
+                return i;
+            from += parent.getCount();
+        }
+        return from == pagesTree.getNumberOfPages() ? -1 : parents.size();
+    }
+
+    byte[] createTwoLevelPagesTree(int pagesPerNode) {
+        // objects: 1 catalog, 2 root pages node, 3 and 4 intermediate nodes, 5... pages
+        int objectsCount = 4 + 2 * pagesPerNode;
+        String[] objects = new String[objectsCount + 1];
+        objects[1] = "<</Type/Catalog/Pages 2 0 R>>";
+        objects[2] = "<</Type/Pages/Kids[3 0 R 4 0 R]/Count " + 2 * pagesPerNode + ">>";
+        for (int node = 0; node < 2; node++) {
+            StringBuilder kids = new StringBuilder();
+            for (int i = 0; i < pagesPerNode; i++) {
+                int pageNum = node * pagesPerNode + i + 1;
+                kids.append(4 + pageNum).append(" 0 R ");
+                objects[4 + pageNum] = "<</Type/Page/Parent " + (3 + node) + " 0 R/MediaBox[0 0 100 100]/PageNum " + pageNum + ">>";
+            }
+            objects[3 + node] = "<</Type/Pages/Parent 2 0 R/Kids[" + kids + "]/Count " + pagesPerNode + ">>";
+        }
+        return createPdf(objects);
+    }
+
+    byte[] createPdf(String[] objects) {
+        // objects[0] is unused, object numbers start from 1 and the catalog is the first object
+        int objectsCount = objects.length - 1;
+        StringBuilder pdf = new StringBuilder("%PDF-1.7\n");
+        StringBuilder xref = new StringBuilder("xref\n0 " + (objectsCount + 1) + "\n0000000000 65535 f \n");
+        for (int i = 1; i <= objectsCount; i++) {
+            xref.append(String.format("%010d 00000 n \n", pdf.length()));
+            pdf.append(i).append(" 0 obj\n").append(objects[i]).append("\nendobj\n");
         }
-        return -1;
+        int startxref = pdf.length();
+        pdf.append(xref).append("trailer\n<</Size ").append(objectsCount + 1).append("/Root 1 0 R>>\nstartxref\n")
+                .append(startxref).append("\n%%EOF\n");
+        return pdf.toString().getBytes();
     }
 
     @Test
@@ -384,6 +423,117 @@ public class PdfPagesTest extends ExtendedITextTest{
         pdfDoc.close();
     }
 
+    @Test
+    public void getPageNumberByDictionary() throws IOException {
+        int pageCount = 1000;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        for (int i = 1; i <= pageCount; i++) {
+            pdfDoc.addNewPage().getPdfObject().put(PageNum, new PdfNumber(i));
+        }
+        pdfDoc.close();
+
+        pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            // take page dictionary directly from the pages tree, so that pages aren't loaded by the document
+            PdfDictionary pageDictionary = pdfDoc.getCatalog().getPdfObject().getAsDictionary(PdfName.Pages);
+            while (pageDictionary.containsKey(PdfName.Kids)) {
+                PdfArray kids = pageDictionary.getAsArray(PdfName.Kids);
+                pageDictionary = kids.getAsDictionary(random.nextInt(kids.size()));
+            }
+            int pageNum = pageDictionary.getAsNumber(PageNum).intValue();
+            Assert.assertEquals(pageNum, pdfDoc.getPageNumber(pageDictionary));
+            Assert.assertEquals(pageNum, pdfDoc.getPageNumber(pdfDoc.getPage(pageDictionary)));
+        }
+        pdfDoc.close();
+    }
+
+    @Test
+    public void getPageNumberDoesNotReadPrecedingPages() throws IOException {
+        int pagesPerNode = 500;
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(createTwoLevelPagesTree(pagesPerNode))));
+        PdfArray nodes = pdfDoc.getCatalog().getPdfObject().getAsDictionary(PdfName.Pages).getAsArray(PdfName.Kids);
+        PdfArray firstKids = nodes.getAsDictionary(0).getAsArray(PdfName.Kids);
+        PdfArray lastKids = nodes.getAsDictionary(1).getAsArray(PdfName.Kids);
+        PdfDictionary lastPage = lastKids.getAsDictionary(pagesPerNode - 1);
+
+        Assert.assertEquals(2 * pagesPerNode, pdfDoc.getPageNumber(lastPage));
+        for (int i = 0; i < pagesPerNode; i++) {
+            Assert.assertNull(((PdfIndirectReference) firstKids.get(i, false)).refersTo);
+        }
+        Assert.assertEquals(2 * pagesPerNode, pdfDoc.getPage(lastPage).getPdfObject().getAsNumber(PageNum).intValue());
+        Assert.assertEquals(pagesPerNode + 1, pdfDoc.getPageNumber(lastKids.getAsDictionary(0)));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void getPageNumberWithEmptyPagesNodeTest() throws IOException {
+        // the root has as many kids as pages, but one of them is an empty /Pages node
+        String[] objects = new String[8];
+        objects[1] = "<</Type/Catalog/Pages 2 0 R>>";
+        objects[2] = "<</Type/Pages/Kids[3 0 R 6 0 R 7 0 R]/Count 3>>";
+        objects[3] = "<</Type/Pages/Parent 2 0 R/Kids[4 0 R 5 0 R]/Count 2>>";
+        for (int pageNum = 1; pageNum <= 3; pageNum++) {
+            objects[3 + pageNum] = "<</Type/Page/Parent " + (pageNum < 3 ? 3 : 2) + " 0 R/MediaBox[0 0 100 100]/PageNum " + pageNum + ">>";
+        }
+        objects[7] = "<</Type/Pages/Parent 2 0 R/Kids[]/Count 0>>";
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(createPdf(objects))));
+        PdfArray kids = pdfDoc.getCatalog().getPdfObject().getAsDictionary(PdfName.Pages).getAsArray(PdfName.Kids);
+        PdfDictionary lastPage = kids.getAsDictionary(1);
+
+        Assert.assertEquals(3, pdfDoc.getNumberOfPages());
+        Assert.assertEquals(3, pdfDoc.getPageNumber(lastPage));
+        Assert.assertEquals(3, pdfDoc.getPage(lastPage).getPdfObject().getAsNumber(PageNum).intValue());
+        for (int i = 1; i <= 3; i++) {
+            PdfPage page = pdfDoc.getPage(i);
+            Assert.assertEquals(i, page.getPdfObject().getAsNumber(PageNum).intValue());
+            Assert.assertEquals(i, pdfDoc.getPageNumber(page));
+            Assert.assertEquals(i, pdfDoc.getPageNumber(page.getPdfObject()));
+        }
+        pdfDoc.close();
+    }
+
+    @Test
+    public void insertAndRemovePagesInExistingTreeTest() throws IOException {
+        int pagesPerNode = 50;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(createTwoLevelPagesTree(pagesPerNode))),
+                new PdfWriter(baos));
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i <= 2 * pagesPerNode; i++) {
+            expected.add(i);
+        }
+        Random rnd = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            int pageNum = 1 + rnd.nextInt(pdfDoc.getNumberOfPages());
+            if (i % 3 == 2) {
+                pdfDoc.removePage(pageNum);
+                expected.remove(pageNum - 1);
+            } else {
+                PdfPage page = new PdfPage(pdfDoc);
+                page.getPdfObject().put(PageNum, new PdfNumber(1000 + i));
+                pdfDoc.addPage(pageNum, page);
+                expected.add(pageNum - 1, 1000 + i);
+            }
+            Assert.assertTrue(verifyIntegrity(pdfDoc.getCatalog().getPageTree()) == -1);
+        }
+        for (int i = 1; i <= expected.size(); i++) {
+            PdfPage page = pdfDoc.getPage(i);
+            Assert.assertEquals((int) expected.get(i - 1), page.getPdfObject().getAsNumber(PageNum).intValue());
+            Assert.assertEquals(i, pdfDoc.getPageNumber(page));
+            Assert.assertEquals(i, pdfDoc.getPageNumber(page.getPdfObject()));
+        }
+        pdfDoc.close();
+
+        pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertEquals(expected.size(), pdfDoc.getNumberOfPages());
+        for (int i = 1; i <= expected.size(); i++) {
+            Assert.assertEquals((int) expected.get(i - 1), pdfDoc.getPage(i).getPdfObject().getAsNumber(PageNum).intValue());
+        }
+        pdfDoc.close();
+    }
+
     @Test
     public void removePageWithFormFieldsTest() throws IOException {
         String filename = sourceFolder + "docWithFields.pdf";
@@ -415,5 +565,26 @@ public class PdfPagesTest extends ExtendedITextTest{
         pdfDoc.close();
     }
 
+    @Test
+    public void getContentSourceTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        PdfPage page = pdfDoc.addNewPage();
+        page.getFirstContentStream().getOutputStream().writeString("0 0 m 10 10 l S");
+        page.newContentStreamAfter();
+        page.newContentStreamAfter().getOutputStream().writeString("q 1 0 0 1 5 5 cm\n");
+        page.newContentStreamAfter().getOutputStream().writeString("Q");
+        pdfDoc.close();
 
+        pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        page = pdfDoc.getPage(1);
+        byte[] contentBytes = page.getContentBytes();
+        IRandomAccessSource contentSource = page.getContentSource();
+        Assert.assertEquals(contentBytes.length, contentSource.length());
+        byte[] sourceBytes = new byte[contentBytes.length];
+        Assert.assertEquals(sourceBytes.length, contentSource.get(0, sourceBytes, 0, sourceBytes.length));
+        Assert.assertArrayEquals(contentBytes, sourceBytes);
+        Assert.assertEquals("0 0 m 10 10 l S\nq 1 0 0 1 5 5 cm\nQ\n", new String(sourceBytes, "ISO-8859-1"));
+        pdfDoc.close();
+    }
 }
@@ -45,6 +45,7 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
@@ -56,12 +57,18 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 @Category(IntegrationTest.class)
 public class PdfReaderTest extends ExtendedITextTest {
@@ -1528,6 +1535,168 @@ public class PdfReaderTest extends ExtendedITextTest {
         return type.equals(objectType);
     }
 
+    @Test
+    public void concurrentReadingTest() throws IOException, InterruptedException {
+        final int numberOfPages = 100;
+        final PdfName pageNum = new PdfName("PageNum");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos, new WriterProperties().setFullCompressionMode(true)));
+        for (int i = 1; i <= numberOfPages; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            page.getPdfObject().put(pageNum, new PdfNumber(i));
+            page.getFirstContentStream().getOutputStream().writeString("% page " + i);
+        }
+        pdfDoc.close();
+
+        final PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray()),
+                new ReaderProperties().setConcurrentReading(true)));
+        final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final Random random = new Random(t);
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < numberOfPages; i++) {
+                        int pageNumber = random.nextInt(numberOfPages) + 1;
+                        PdfPage page = document.getPage(pageNumber);
+                        if (page.getPdfObject().getAsNumber(pageNum).intValue() != pageNumber
+                                || !new String(page.getFirstContentStream().getBytes()).equals("% page " + pageNumber)
+                                || document.getPageNumber(page.getPdfObject()) != pageNumber) {
+                            errors.add("Page " + pageNumber);
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        document.close();
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+    }
+
+    @Test
+    public void concurrentObjectResolutionTest() throws IOException, InterruptedException {
+        final int numberOfObjects = 500;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos, new WriterProperties().setFullCompressionMode(true)));
+        PdfArray objects = new PdfArray();
+        for (int i = 0; i < numberOfObjects; i++) {
+            PdfDictionary object = new PdfDictionary();
+            object.put(PdfName.Count, new PdfNumber(i));
+            objects.add(object.makeIndirect(pdfDoc));
+        }
+        pdfDoc.getCatalog().put(new PdfName("Objects"), objects);
+        pdfDoc.addNewPage();
+        pdfDoc.close();
+
+        final PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfArray objectsArray = document.getCatalog().getPdfObject().getAsArray(new PdfName("Objects"));
+        final PdfIndirectReference[] references = new PdfIndirectReference[numberOfObjects];
+        for (int i = 0; i < numberOfObjects; i++) {
+            references[i] = (PdfIndirectReference) objectsArray.get(i, false);
+        }
+        final PdfObject[][] resolved = new PdfObject[4][numberOfObjects];
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < resolved.length; t++) {
+            final PdfObject[] resolvedByThread = resolved[t];
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < numberOfObjects; i++) {
+                        resolvedByThread[i] = references[i].getRefersTo();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < numberOfObjects; i++) {
+            Assert.assertEquals(i, ((PdfDictionary) resolved[0][i]).getAsNumber(PdfName.Count).intValue());
+            for (int t = 1; t < resolved.length; t++) {
+                // every thread must get the same instance of the object
+                Assert.assertSame(resolved[0][i], resolved[t][i]);
+            }
+        }
+        document.close();
+    }
+
+    @Test(expected = PdfException.class)
+    public void concurrentReadingWithWriterTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        pdfDoc.addNewPage();
+        pdfDoc.close();
+        new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray()),
+                new ReaderProperties().setConcurrentReading(true)), new PdfWriter(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void readStreamSourceRawTest() throws IOException {
+        String filename = sourceFolder + "100PagesDocumentWithFlateFilter.pdf";
+        PdfReader reader = new PdfReader(filename);
+        PdfDocument document = new PdfDocument(reader);
+        for (int i = 1; i <= document.getNumberOfPages(); i++) {
+            PdfStream stream = document.getPage(i).getFirstContentStream();
+            byte[] rawBytes = reader.readStreamBytesRaw(stream);
+            IRandomAccessSource source = reader.readStreamSourceRaw(stream);
+            byte[] sourceBytes = new byte[(int) source.length()];
+            Assert.assertEquals(sourceBytes.length, source.get(0, sourceBytes, 0, sourceBytes.length));
+            Assert.assertArrayEquals(rawBytes, sourceBytes);
+            Assert.assertArrayEquals(PdfReader.decodeBytes(rawBytes, stream), reader.readStreamBytes(stream, true));
+        }
+        document.close();
+    }
+
+    @Test
+    public void readStreamWithFiltersChainTest() throws IOException {
+        byte[] data = new byte[100000];
+        new Random(42).nextBytes(data);
+        for (int i = 0; i < data.length; i += 2) {
+            data[i] = (byte) (i % 7);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(compressed);
+        zip.write(data);
+        zip.close();
+        StringBuilder hex = new StringBuilder();
+        for (byte b : compressed.toByteArray()) {
+            hex.append(Integer.toHexString((b & 0xff) | 0x100).substring(1));
+        }
+        hex.append('>');
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        PdfStream stream = new PdfStream(hex.toString().getBytes());
+        PdfArray filters = new PdfArray();
+        filters.add(PdfName.ASCIIHexDecode);
+        filters.add(PdfName.FlateDecode);
+        stream.put(PdfName.Filter, filters);
+        pdfDoc.addNewPage().getPdfObject().put(new PdfName("Data"), stream.makeIndirect(pdfDoc));
+        pdfDoc.close();
+
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(baos.toByteArray()));
+        PdfDocument document = new PdfDocument(reader);
+        stream = document.getPage(1).getPdfObject().getAsStream(new PdfName("Data"));
+        InputStream in = reader.readStream(stream, true);
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            decoded.write(buffer, 0, n);
+        }
+        in.close();
+        Assert.assertArrayEquals(data, decoded.toByteArray());
+        Assert.assertArrayEquals(data, reader.readStreamBytes(stream, true));
+        document.close();
+    }
+
     /**
      * Returns the current memory use.
      *
@@ -1568,4 +1737,148 @@ public class PdfReaderTest extends ExtendedITextTest {
         tmpMap.put(new PdfName("b"), new PdfName("c"));
         return new PdfDictionary(tmpMap);
     }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.XREF_ERROR, count = 1))
+    public void xrefIndexTest() throws IOException {
+        String filename = sourceFolder + "OnlyTrailer.pdf";
+        String indexFile = destinationFolder + "OnlyTrailer.idx";
+        new File(indexFile).delete();
+
+        for (int i = 0; i < 2; i++) {
+            // the xref is rebuilt only the first time, then it's read from the index
+            PdfReader reader = new PdfReader(filename, new ReaderProperties().setXrefIndexFile(indexFile));
+            PdfDocument document = new PdfDocument(reader);
+            Assert.assertTrue(new File(indexFile).exists());
+            Assert.assertTrue(reader.hasRebuiltXref());
+            Assert.assertEquals(10, document.getNumberOfPages());
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                String content = new String(document.getPage(page).getContentStream(0).getBytes());
+                Assert.assertTrue(content.contains("(" + page + ")"));
+            }
+            document.close();
+        }
+    }
+
+    @Test
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = LogMessageConstant.XREF_ERROR, count = 3),
+            @LogMessage(messageTemplate = LogMessageConstant.XREF_INDEX_CANNOT_BE_READ, count = 2)
+    })
+    public void damagedXrefIndexTest() throws IOException {
+        String filename = sourceFolder + "OnlyTrailer.pdf";
+        String indexFile = destinationFolder + "damagedXrefIndex.idx";
+        new File(indexFile).delete();
+        new PdfDocument(new PdfReader(filename, new ReaderProperties().setXrefIndexFile(indexFile))).close();
+        byte[] index = inflate(indexFile);
+        // the size of the cross reference table follows magic, version, length, digest, flags, lastXref and eofPos
+        int sizePosition = 4 + 4 + 8 + 16 + 1 + 8 + 8;
+        int trailerLengthPosition = index.length - 4;
+        while (readInt(index, trailerLengthPosition) != index.length - trailerLengthPosition - 4) {
+            trailerLengthPosition--;
+        }
+
+        for (int position : new int[] {sizePosition, trailerLengthPosition}) {
+            byte[] damaged = index.clone();
+            writeInt(damaged, position, Integer.MAX_VALUE);
+            DeflaterOutputStream out = new DeflaterOutputStream(new java.io.FileOutputStream(indexFile));
+            out.write(damaged);
+            out.close();
+
+            PdfDocument document = new PdfDocument(new PdfReader(filename, new ReaderProperties().setXrefIndexFile(indexFile)));
+            Assert.assertEquals(10, document.getNumberOfPages());
+            document.close();
+            Assert.assertArrayEquals(index, inflate(indexFile));
+        }
+    }
+
+    private static byte[] inflate(String file) throws IOException {
+        InputStream in = new InflaterInputStream(new java.io.FileInputStream(file));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static int readInt(byte[] bytes, int position) {
+        return (bytes[position] & 0xff) << 24 | (bytes[position + 1] & 0xff) << 16
+                | (bytes[position + 2] & 0xff) << 8 | bytes[position + 3] & 0xff;
+    }
+
+    private static void writeInt(byte[] bytes, int position, int value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[position + i] = (byte) (value >>> (24 - 8 * i));
+        }
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.XREF_ERROR, count = 2))
+    public void parallelXrefRebuildTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, new WriterProperties().setCompressionLevel(CompressionConstants.NO_COMPRESSION)));
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            content.append("0 0 m 100 100 l S\n");
+        }
+        for (int i = 1; i <= 3000; i++) {
+            PdfPage page = pdfDocument.addNewPage();
+            page.getFirstContentStream().getOutputStream().writeString(content.toString());
+            page.getFirstContentStream().getOutputStream().writeString("BT /F1 12 Tf (" + i + ") Tj ET\n");
+        }
+        pdfDocument.close();
+        byte[] bytes = baos.toByteArray();
+        // damage the startxref keyword, so that the xref is rebuilt
+        String tail = new String(bytes, bytes.length - 64, 64);
+        int startxref = bytes.length - 64 + tail.lastIndexOf("startxref");
+        bytes[startxref] = 'S';
+
+        PdfDocument sequential = new PdfDocument(new PdfReader(new ByteArrayInputStream(bytes)));
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(bytes), new ReaderProperties().useParallelXrefRebuild(4));
+        PdfDocument parallel = new PdfDocument(reader);
+        Assert.assertTrue(reader.hasRebuiltXref());
+        Assert.assertEquals(3000, parallel.getNumberOfPages());
+        Assert.assertEquals(sequential.getXref().size(), parallel.getXref().size());
+        for (int i = 1; i < sequential.getXref().size(); i++) {
+            PdfIndirectReference expected = sequential.getXref().get(i);
+            PdfIndirectReference actual = parallel.getXref().get(i);
+            Assert.assertEquals(expected.getGenNumber(), actual.getGenNumber());
+            Assert.assertEquals(expected.getOffset(), actual.getOffset());
+        }
+        String lastPageContent = new String(parallel.getPage(3000).getContentBytes());
+        Assert.assertTrue(lastPageContent.endsWith("(3000) Tj ET\n"));
+        sequential.close();
+        parallel.close();
+    }
+
+    @Test
+    public void objectStreamsCacheTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, new WriterProperties().setFullCompressionMode(true)));
+        for (int i = 1; i <= 10; i++) {
+            PdfDictionary extra = new PdfDictionary().makeIndirect(pdfDocument);
+            extra.put(new PdfName("Num"), new PdfNumber(i));
+            pdfDocument.addNewPage().getPdfObject().put(new PdfName("Extra"), extra);
+        }
+        pdfDocument.close();
+
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(baos.toByteArray()), new ReaderProperties().setObjectStreamsCacheSize(1 << 20));
+        pdfDocument = new PdfDocument(reader);
+        long misses = reader.getObjectStreamsCacheMisses();
+        for (int i = 1; i <= 10; i++) {
+            PdfDictionary pageDictionary = pdfDocument.getPage(i).getPdfObject();
+            PdfDictionary extra = pageDictionary.getAsDictionary(new PdfName("Extra"));
+            Assert.assertEquals(i, extra.getAsNumber(new PdfName("Num")).intValue());
+            // the released object is parsed again from the cached object stream
+            extra.release();
+            extra = pageDictionary.getAsDictionary(new PdfName("Extra"));
+            Assert.assertEquals(i, extra.getAsNumber(new PdfName("Num")).intValue());
+        }
+        Assert.assertEquals(misses, reader.getObjectStreamsCacheMisses());
+        Assert.assertTrue(reader.getObjectStreamsCacheHits() >= 20);
+        pdfDocument.close();
+    }
 }
@@ -1266,6 +1266,50 @@ public class PdfStampingTest extends ExtendedITextTest {
         assertTrue(coef < 0.01);
     }
 
+    @Test
+    public void stampingTestWithReadObjectsCache() throws IOException {
+        String filename1 = destinationFolder + "stampingReadObjectsCache1.pdf";
+        String filename2 = destinationFolder + "stampingReadObjectsCache2.pdf";
+        PdfDocument pdfDoc1 = new PdfDocument(new PdfWriter(filename1, new WriterProperties().setFullCompressionMode(true)));
+        for (int i = 1; i <= 500; i++) {
+            PdfPage page = pdfDoc1.addNewPage();
+            page.getFirstContentStream().getOutputStream().writeString("%page " + i + "\n");
+            page.getPdfObject().put(new PdfName("Extra"), new PdfDictionary().makeIndirect(pdfDoc1));
+        }
+        pdfDoc1.close();
+
+        PdfDocument pdfDoc2 = new PdfDocument(new PdfReader(filename1), new PdfWriter(filename2),
+                new StampingProperties().setReadObjectsCacheSize(20));
+        PdfDictionary heldExtra = pdfDoc2.getPage(5).getPdfObject().getAsDictionary(new PdfName("Extra"));
+        for (int i = 1; i <= pdfDoc2.getNumberOfPages(); i++) {
+            PdfPage page = pdfDoc2.getPage(i);
+            if (i % 2 == 0) {
+                PdfDictionary extra = page.getPdfObject().getAsDictionary(new PdfName("Extra"));
+                extra.put(new PdfName("Num"), new PdfNumber(i));
+                extra.setModified();
+            }
+            page.getContentBytes();
+        }
+        heldExtra.put(new PdfName("Held"), PdfBoolean.TRUE);
+        heldExtra.setModified();
+        pdfDoc2.close();
+
+        PdfDocument pdfDoc3 = new PdfDocument(new PdfReader(filename2));
+        assertEquals("Number of pages", 500, pdfDoc3.getNumberOfPages());
+        for (int i = 1; i <= pdfDoc3.getNumberOfPages(); i++) {
+            PdfPage page = pdfDoc3.getPage(i);
+            PdfDictionary extra = page.getPdfObject().getAsDictionary(new PdfName("Extra"));
+            assertEquals("Page content", "%page " + i + "\n", new String(page.getContentBytes()));
+            if (i % 2 == 0) {
+                assertEquals("Stamped value", i, extra.getAsNumber(new PdfName("Num")).intValue());
+            } else {
+                assertNull("Not stamped value", extra.get(new PdfName("Num")));
+            }
+        }
+        assertEquals(PdfBoolean.TRUE, pdfDoc3.getPage(5).getPdfObject().getAsDictionary(new PdfName("Extra")).get(new PdfName("Held")));
+        pdfDoc3.close();
+    }
+
     static void verifyPdfPagesCount(PdfObject root) {
         if (root.getType() == PdfObject.INDIRECT_REFERENCE)
             root = ((PdfIndirectReference) root).getRefersTo();
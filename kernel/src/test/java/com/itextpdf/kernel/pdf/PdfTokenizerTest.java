@@ -53,6 +53,7 @@ import org.junit.experimental.categories.Category;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 @Category(IntegrationTest.class)
 public class PdfTokenizerTest {
@@ -334,4 +335,14 @@ public class PdfTokenizerTest {
         tok.nextToken();
         Assert.assertTrue(tok.tokenValueEqualsTo(data.getBytes(StandardCharsets.ISO_8859_1)));
     }
+
+    @Test
+    public void tokenValueHashCodeTest() throws IOException {
+        String data = "q 1 0 0 1 10 10 cm /Im0 Do Q";
+        RandomAccessSourceFactory factory = new RandomAccessSourceFactory();
+        PdfTokenizer tok = new PdfTokenizer(new RandomAccessFileOrArray(factory.createSource(data.getBytes(StandardCharsets.ISO_8859_1))));
+        while (tok.nextToken()) {
+            Assert.assertEquals(Arrays.hashCode(tok.getByteContent()), tok.getTokenValueHashCode());
+        }
+    }
 }
@@ -42,6 +42,7 @@
  */
 package com.itextpdf.kernel.pdf;
 
+import com.itextpdf.io.source.AsyncChannelOutputStream;
 import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.util.DateTimeUtil;
 import com.itextpdf.kernel.PdfException;
@@ -52,9 +53,19 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.TreeMap;
@@ -626,4 +637,196 @@ public class PdfWriterTest extends ExtendedITextTest {
         Assert.assertArrayEquals("Stream by InputStream", streamContent.getBytes(), pdfStream.getBytes());
         document.close();
     }
+
+    @Test
+    public void parallelCompressionTest() throws IOException {
+        byte[] sequential = createDocumentForCompressionTest(new WriterProperties().setCompressionLevel(9));
+        byte[] parallel = createDocumentForCompressionTest(new WriterProperties().setCompressionLevel(9).useParallelCompression(4));
+        Assert.assertArrayEquals(sequential, parallel);
+
+        byte[] sequentialFull = createDocumentForCompressionTest(new WriterProperties().setFullCompressionMode(true));
+        byte[] parallelFull = createDocumentForCompressionTest(new WriterProperties().setFullCompressionMode(true).useParallelCompression(4));
+        Assert.assertArrayEquals(sequentialFull, parallelFull);
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(parallelFull)));
+        Assert.assertEquals(300, pdfDocument.getNumberOfPages());
+        Assert.assertArrayEquals(ByteUtils.getIsoBytes("0 0 m 150 150 l S\n"), pdfDocument.getPage(150).getContentBytes());
+        pdfDocument.close();
+    }
+
+    @Test
+    public void compactXrefTest() throws IOException {
+        byte[] regular = createDocumentForCompressionTest(new WriterProperties());
+        byte[] compact = createDocumentForCompressionTest(new WriterProperties().useCompactXref());
+        Assert.assertArrayEquals(regular, compact);
+
+        byte[] regularFull = createDocumentForCompressionTest(new WriterProperties().setFullCompressionMode(true));
+        byte[] compactFull = createDocumentForCompressionTest(new WriterProperties().setFullCompressionMode(true).useCompactXref());
+        Assert.assertArrayEquals(regularFull, compactFull);
+
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream(), new WriterProperties().useCompactXref()));
+        PdfDictionary flushed = new PdfDictionary().makeIndirect(pdfDoc);
+        int objNr = flushed.getIndirectReference().getObjNumber();
+        flushed.flush();
+        Assert.assertNull(pdfDoc.getPdfObject(objNr));
+        pdfDoc.addNewPage();
+        pdfDoc.close();
+    }
+
+    @Test
+    public void objectStreamsGroupingTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos, new WriterProperties().setFullCompressionMode(true).useObjectStreamsGrouping()));
+        for (int i = 1; i <= 50; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            PdfDictionary annot = new PdfDictionary();
+            annot.put(PdfName.Type, PdfName.Annot);
+            annot.put(PdfName.Subtype, PdfName.Text);
+            annot.put(PdfName.Rect, new PdfArray(new float[] {0, 0, i, i}));
+            page.getPdfObject().put(PdfName.Annots, new PdfArray(annot.makeIndirect(pdfDoc)));
+            PdfDictionary other = new PdfDictionary().makeIndirect(pdfDoc);
+            other.put(new PdfName("Number"), new PdfNumber(i));
+            page.getPdfObject().put(new PdfName("Other"), other);
+            page.flush();
+        }
+        pdfDoc.close();
+
+        pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        int annotsObjStm = ((PdfIndirectReference) pdfDoc.getPage(1).getPdfObject().getAsArray(PdfName.Annots).get(0, false)).getObjStreamNumber();
+        Assert.assertTrue(annotsObjStm > 0);
+        for (int i = 1; i <= 50; i++) {
+            PdfDictionary pageDict = pdfDoc.getPage(i).getPdfObject();
+            PdfIndirectReference annotRef = (PdfIndirectReference) pageDict.getAsArray(PdfName.Annots).get(0, false);
+            PdfIndirectReference otherRef = (PdfIndirectReference) pageDict.get(new PdfName("Other"), false);
+            Assert.assertEquals(annotsObjStm, annotRef.getObjStreamNumber());
+            Assert.assertNotEquals(annotsObjStm, otherRef.getObjStreamNumber());
+            Assert.assertEquals(i, pageDict.getAsDictionary(new PdfName("Other")).getAsNumber(new PdfName("Number")).intValue());
+        }
+        pdfDoc.close();
+    }
+
+    @Test
+    public void asynchronousOutputTest() throws IOException {
+        byte[] regular = createDocumentForCompressionTest(new WriterProperties());
+        byte[] asynchronous = createDocumentForCompressionTest(new WriterProperties().useAsynchronousOutput(2, 100));
+        Assert.assertArrayEquals(regular, asynchronous);
+
+        byte[] regularFull = createDocumentForCompressionTest(new WriterProperties().setFullCompressionMode(true));
+        byte[] asynchronousFull = createDocumentForCompressionTest(new WriterProperties().setFullCompressionMode(true).useAsynchronousOutput(4, 1024));
+        Assert.assertArrayEquals(regularFull, asynchronousFull);
+    }
+
+    @Test
+    public void channelOutputTest() throws IOException {
+        byte[] regular = createDocumentForCompressionTest(new WriterProperties());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeDocumentForCompressionTest(new PdfWriter(Channels.newChannel(baos), compressionTestProperties(new WriterProperties())));
+        Assert.assertArrayEquals(regular, baos.toByteArray());
+
+        baos = new ByteArrayOutputStream();
+        WriterProperties properties = compressionTestProperties(new WriterProperties().useAsynchronousOutput(2, 100));
+        writeDocumentForCompressionTest(new PdfWriter(Channels.newChannel(baos), properties));
+        Assert.assertArrayEquals(regular, baos.toByteArray());
+    }
+
+    @Test
+    public void asynchronousFileChannelOutputTest() throws IOException {
+        byte[] regular = createDocumentForCompressionTest(new WriterProperties());
+        Path path = Paths.get(destinationFolder + "asynchronousFileChannelOutput.pdf");
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(path,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        writeDocumentForCompressionTest(new PdfWriter(new AsyncChannelOutputStream(channel, 0, 4, 1024),
+                compressionTestProperties(new WriterProperties())));
+        Assert.assertFalse(channel.isOpen());
+        Assert.assertArrayEquals(regular, Files.readAllBytes(path));
+    }
+
+    @Test
+    public void asynchronousOutputErrorTest() throws IOException {
+        final String message = "No space left on device";
+        WritableByteChannel channel = new WritableByteChannel() {
+            private int written;
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                if (written > 10000) {
+                    throw new IOException(message);
+                }
+                written += src.remaining();
+                src.position(src.limit());
+                return written;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            writeDocumentForCompressionTest(new PdfWriter(channel, new WriterProperties().useAsynchronousOutput(2, 1024)));
+            Assert.fail("The error of the background writer isn't reported");
+        } catch (Exception e) {
+            Throwable cause = e;
+            while (cause.getCause() != null && !message.equals(cause.getMessage())) {
+                cause = cause.getCause();
+            }
+            Assert.assertEquals(message, cause.getMessage());
+        }
+    }
+
+    @Test
+    public void asynchronousOutputNotClosedStreamTest() throws IOException {
+        byte[] regular = createDocumentForCompressionTest(new WriterProperties());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(baos);
+        PdfWriter writer = new PdfWriter(channel, compressionTestProperties(new WriterProperties()));
+        writer.setCloseStream(false);
+        writeDocumentForCompressionTest(writer);
+        Assert.assertTrue(channel.isOpen());
+        Assert.assertArrayEquals(regular, baos.toByteArray());
+        channel.close();
+
+        baos = new ByteArrayOutputStream();
+        writer = new PdfWriter(baos, compressionTestProperties(new WriterProperties().useAsynchronousOutput(2, 100)));
+        writer.setCloseStream(false);
+        writeDocumentForCompressionTest(writer);
+        Assert.assertArrayEquals(regular, baos.toByteArray());
+
+        // the output stream of the caller is flushed, even though it isn't closed
+        baos = new ByteArrayOutputStream();
+        writer = new PdfWriter(new BufferedOutputStream(baos, 1 << 20),
+                compressionTestProperties(new WriterProperties().useAsynchronousOutput(2, 100)));
+        writer.setCloseStream(false);
+        writeDocumentForCompressionTest(writer);
+        Assert.assertArrayEquals(regular, baos.toByteArray());
+    }
+
+    private static byte[] createDocumentForCompressionTest(WriterProperties properties) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeDocumentForCompressionTest(new PdfWriter(baos, compressionTestProperties(properties)));
+        return baos.toByteArray();
+    }
+
+    private static WriterProperties compressionTestProperties(WriterProperties properties) {
+        return properties.setInitialDocumentId(new PdfString("initialId")).setModifiedDocumentId(new PdfString("modifiedId"));
+    }
+
+    private static void writeDocumentForCompressionTest(PdfWriter writer) throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(writer);
+        for (int i = 1; i <= 300; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            page.getFirstContentStream().getOutputStream().writeString("0 0 m " + i + " " + i + " l S\n");
+            PdfDictionary helloWorld = new PdfDictionary().makeIndirect(pdfDoc);
+            helloWorld.put(new PdfName("Hello"), new PdfString("World " + i));
+            page.getPdfObject().put(new PdfName("HelloWorld"), helloWorld);
+            page.flush();
+        }
+        pdfDoc.getDocumentInfo().getPdfObject().put(PdfName.CreationDate, new PdfString("D:20170101000000Z"));
+        pdfDoc.getDocumentInfo().getPdfObject().put(PdfName.ModDate, new PdfString("D:20170101000000Z"));
+        pdfDoc.close();
+    }
 }
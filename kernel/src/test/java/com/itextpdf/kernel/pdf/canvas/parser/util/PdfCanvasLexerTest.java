@@ -0,0 +1,125 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Category(UnitTest.class)
+public class PdfCanvasLexerTest {
+
+    @Test
+    public void operatorsAndOperandsTest() throws IOException {
+        checkSameAsParser("q 1 0 0 1 72 720 cm /F1 12 Tf BT (Hello \\(world\\)) Tj [(A) -120.5 (B)] TJ ET Q");
+    }
+
+    @Test
+    public void numbersTest() throws IOException {
+        checkSameAsParser("0 .5 -.25 +3 1.2.3 --5 1234567890123456789 0.000001 -0 7 w");
+    }
+
+    @Test
+    public void dictionariesAndCommentsTest() throws IOException {
+        checkSameAsParser("/OC /MC0 BDC % comment\r\n/Span <</ActualText <FEFF0041>/MCID 3>> BDC EMC EMC");
+    }
+
+    @Test
+    public void inlineImageTest() throws IOException {
+        checkSameAsParser("q 10 0 0 10 0 0 cm BI /W 2 /H 1 /BPC 8 /CS /G ID \u0001\u00ff EI Q");
+    }
+
+    @Test
+    public void trailingOperandsTest() throws IOException {
+        PdfCanvasLexer lexer = createLexer("1 2 m 3 4");
+        PdfCanvasOperands operands = new PdfCanvasOperands();
+        Assert.assertTrue(lexer.nextOperator(operands));
+        Assert.assertEquals("[1, 2, m]", operands.toString());
+        Assert.assertFalse(lexer.nextOperator(operands));
+    }
+
+    @Test
+    public void primitiveNumberTest() throws IOException {
+        PdfCanvasLexer lexer = createLexer("12.5 -3 /Name 4 0 0 rg");
+        PdfCanvasOperands operands = new PdfCanvasOperands();
+        Assert.assertTrue(lexer.nextOperator(operands));
+        Assert.assertEquals(7, operands.size());
+        Assert.assertEquals(12.5, operands.getNumber(0), 0);
+        Assert.assertEquals(-3, operands.getNumber(1), 0);
+        Assert.assertEquals(12.5, ((PdfNumber) operands.get(0)).doubleValue(), 0);
+        Assert.assertFalse(lexer.nextOperator(operands));
+    }
+
+    private static void checkSameAsParser(String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+        PdfCanvasParser parser = new PdfCanvasParser(new PdfTokenizer(
+                new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes))), new PdfResources());
+        PdfCanvasLexer lexer = createLexer(content);
+        PdfCanvasOperands operands = new PdfCanvasOperands();
+        List<PdfObject> expected = new ArrayList<>();
+        int operator = 0;
+        while (parser.parse(expected).size() > 0) {
+            Assert.assertTrue("Operator " + operator, lexer.nextOperator(operands));
+            Assert.assertEquals("Operator " + operator, expected.toString(), operands.toString());
+            ++operator;
+        }
+        Assert.assertFalse(lexer.nextOperator(operands));
+    }
+
+    private static PdfCanvasLexer createLexer(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+        return new PdfCanvasLexer(new RandomAccessSourceFactory().createSource(bytes), new PdfResources());
+    }
+}
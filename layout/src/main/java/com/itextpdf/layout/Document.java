@@ -43,18 +43,52 @@
  */
 package com.itextpdf.layout;
 
+import com.itextpdf.io.font.FontEncoding;
+import com.itextpdf.io.font.FontProgram;
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfSimpleFont;
+import com.itextpdf.kernel.font.PdfType0Font;
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.element.AreaBreak;
 import com.itextpdf.layout.element.IBlockElement;
 import com.itextpdf.layout.element.IElement;
 import com.itextpdf.layout.element.ILargeElement;
+import com.itextpdf.layout.font.FontProvider;
+import com.itextpdf.layout.property.AreaBreakType;
+import com.itextpdf.layout.property.Property;
 import com.itextpdf.layout.renderer.DocumentRenderer;
 import com.itextpdf.layout.renderer.IRenderer;
 import com.itextpdf.layout.renderer.RootRenderer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 /**
  * Document is the default root element when creating a self-sufficient PDF. It
  * mainly operates high-level operations e.g. setting page size and rotation,
@@ -72,6 +106,9 @@ public class Document extends RootElement<Document> {
     protected float topMargin = 36;
     protected float bottomMargin = 36;
 
+    private boolean addedSections = false;
+    private boolean containsSections = false;
+
     /**
      * Creates a document from a {@link PdfDocument}. Initializes the first page
      * with the {@link PdfDocument}'s current default {@link PageSize}.
@@ -148,6 +185,75 @@ public class Document extends RootElement<Document> {
         return this;
     }
 
+    /**
+     * Adds independent sections to the document. Every section starts on a new page, and so does the content
+     * added to the document after the sections.
+     * <p>
+     * Sections are laid out and drawn in parallel, every one into its own in-memory {@link Document}
+     * with the same default page size, margins and properties as this document. Then their pages are copied to
+     * this document in the order of sections, each section as soon as it and the preceding ones are completed.
+     * The fonts of the sections which have the same font program and encoding are replaced with a single font
+     * of this document, so each font is embedded once with all the glyphs used by the sections. Images and
+     * other resources of each section are copied separately, so consider enabling
+     * {@link com.itextpdf.kernel.pdf.WriterProperties#useResourceDeduplication()} or smart mode to write
+     * identical resources only once.
+     * <p>
+     * The sections are not kept in the document flow, so the document cannot be {@link #relayout() laid out again}
+     * after they have been added.
+     *
+     * @param sections    the sections to be added, in the order of their pages
+     * @param parallelism the number of sections which are laid out simultaneously
+     * @return this element
+     */
+    public Document addSections(List<? extends IDocumentSection> sections, int parallelism) {
+        checkClosingStatus();
+        // the properties are read by the sections in other threads, so they are not shared with this document
+        final Map<Integer, Object> sectionProperties = copyProperties();
+        if (rootRenderer != null) {
+            // content added before the sections stays on its pages
+            rootRenderer.close();
+            rootRenderer = null;
+        }
+        containsSections = true;
+        Map<FontProgram, List<PdfFont>> fonts = new IdentityHashMap<>();
+        Object font = sectionProperties.get(Property.FONT);
+        if (font instanceof PdfFont && ((PdfFont) font).getFontProgram() != null) {
+            fonts.put(((PdfFont) font).getFontProgram(), new ArrayList<>(Collections.singletonList((PdfFont) font)));
+        }
+        ForkJoinPool pool = new ForkJoinPool(Math.max(parallelism, 1));
+        try {
+            List<Future<LaidOutSection>> laidOutSections = new ArrayList<>(sections.size());
+            for (final IDocumentSection section : sections) {
+                laidOutSections.add(pool.submit(new Callable<LaidOutSection>() {
+                    @Override
+                    public LaidOutSection call() throws IOException {
+                        return layoutSection(section, sectionProperties);
+                    }
+                }));
+            }
+            for (int i = 0; i < laidOutSections.size(); i++) {
+                LaidOutSection section = laidOutSections.get(i).get();
+                // the bytes of the section are not needed after its pages are copied
+                laidOutSections.set(i, null);
+                copySection(section, fonts);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.IoException, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PdfException(PdfException.IoException, e.getCause());
+        } catch (IOException e) {
+            throw new PdfException(PdfException.IoException, e);
+        } finally {
+            pool.shutdownNow();
+        }
+        addedSections = true;
+        return this;
+    }
+
     /**
      * Gets PDF document.
      *
@@ -180,12 +286,14 @@ public class Document extends RootElement<Document> {
      * account all its current child elements. May become very
      * resource-intensive for large documents.
      * <p>
-     * Do not use when you have set {@link #immediateFlush} to <code>true</code>.
+     * Do not use when you have set {@link #immediateFlush} to <code>true</code>
+     * or after {@link #addSections(List, int) sections} have been added.
      */
     public void relayout() {
         if (immediateFlush) {
             throw new IllegalStateException("Operation not supported with immediate flush");
         }
+        checkNoSections();
 
         IRenderer nextRelayoutRenderer = rootRenderer != null ? rootRenderer.getNextRenderer() : null;
         if (nextRelayoutRenderer == null || !(nextRelayoutRenderer instanceof RootRenderer)) {
@@ -202,6 +310,28 @@ public class Document extends RootElement<Document> {
         }
     }
 
+    /**
+     * Recalculates the document flow after the specified child elements have been changed. Unlike {@link #relayout()},
+     * the layout is resumed from the first changed element, so the pages preceding it are left untouched, and
+     * the following elements are only laid out again until the flow gets back to the positions they had before.
+     * If the flow cannot be resumed, e.g. because margins collapsing is enabled, the entire document is laid out
+     * again as with {@link #relayout()}.
+     * <p>
+     * Do not use when you have set {@link #immediateFlush} to <code>true</code>
+     * or after {@link #addSections(List, int) sections} have been added.
+     *
+     * @param changedElements the child elements of the document which have been changed since they were added
+     */
+    public void relayout(Collection<? extends IElement> changedElements) {
+        if (immediateFlush) {
+            throw new IllegalStateException("Operation not supported with immediate flush");
+        }
+        checkNoSections();
+        if (rootRenderer == null || !rootRenderer.relayout(childElements, changedElements)) {
+            relayout();
+        }
+    }
+
     /**
      * Gets the left margin, measured in points
      *
@@ -302,11 +432,151 @@ public class Document extends RootElement<Document> {
 
     @Override
     protected RootRenderer ensureRootRendererNotNull() {
-        if (rootRenderer == null)
+        if (rootRenderer == null) {
             rootRenderer = new DocumentRenderer(this, immediateFlush);
+            if (addedSections) {
+                // the content following the sections starts on a new page after the last page of the sections
+                addedSections = false;
+                rootRenderer.addChild(new AreaBreak(AreaBreakType.LAST_PAGE).createRendererSubTree());
+                rootRenderer.addChild(new AreaBreak(AreaBreakType.NEXT_PAGE).createRendererSubTree());
+            }
+        }
         return rootRenderer;
     }
 
+    @SuppressWarnings("deprecation")
+    private Map<Integer, Object> copyProperties() {
+        // the properties of a root element are stored in its deprecated field, there is no other way to list them
+        return new HashMap<>(properties);
+    }
+
+    private LaidOutSection layoutSection(IDocumentSection section, Map<Integer, Object> properties) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        SectionPdfDocument sectionPdfDocument = new SectionPdfDocument(new PdfWriter(baos));
+        if (pdfDocument.isTagged()) {
+            sectionPdfDocument.setTagged();
+        }
+        Document sectionDocument = new Document(sectionPdfDocument, pdfDocument.getDefaultPageSize());
+        sectionDocument.setMargins(topMargin, rightMargin, bottomMargin, leftMargin);
+        for (Map.Entry<Integer, Object> property : properties.entrySet()) {
+            Object value = property.getValue();
+            if (value instanceof PdfFont) {
+                // a font can only be used in one document
+                PdfFont font = (PdfFont) value;
+                value = PdfFontFactory.createFont(font.getFontProgram(), getEncoding(font), font.isEmbedded());
+            } else if (value instanceof FontProvider) {
+                value = new FontProvider(((FontProvider) value).getFontSet());
+            }
+            sectionDocument.setProperty(property.getKey().intValue(), value);
+        }
+        section.addContent(sectionDocument);
+        sectionDocument.close();
+        return new LaidOutSection(baos.toByteArray(), new ArrayList<>(sectionPdfDocument.getFonts()));
+    }
+
+    private void copySection(LaidOutSection section, Map<FontProgram, List<PdfFont>> fonts) throws IOException {
+        PdfDocument sectionPdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(section.bytes)));
+        List<PdfFont> replacingFonts = new ArrayList<>();
+        Map<Integer, Integer> replacedFontIndices = new HashMap<>();
+        for (PdfFont sectionFont : section.fonts) {
+            PdfFont font = getReplacingFont(sectionFont, fonts);
+            if (font != null) {
+                replacedFontIndices.put(sectionFont.getPdfObject().getIndirectReference().getObjNumber(), replacingFonts.size());
+                replacingFonts.add(font);
+            }
+        }
+        // the replaced fonts are marked with their indices in the section, so that they are not copied
+        Set<PdfDictionary> visitedResources = Collections.newSetFromMap(new IdentityHashMap<PdfDictionary, Boolean>());
+        for (int i = 1; i <= sectionPdfDocument.getNumberOfPages(); i++) {
+            replaceFonts(sectionPdfDocument.getPage(i).getPdfObject().getAsDictionary(PdfName.Resources), replacedFontIndices, null, visitedResources);
+        }
+        visitedResources.clear();
+        for (PdfPage page : sectionPdfDocument.copyPagesTo(1, sectionPdfDocument.getNumberOfPages(), pdfDocument)) {
+            replaceFonts(page.getPdfObject().getAsDictionary(PdfName.Resources), null, replacingFonts, visitedResources);
+        }
+        sectionPdfDocument.close();
+    }
+
+    /**
+     * Gets the font of this document which shall be used instead of the specified font of a section, adding
+     * the glyphs used by the section to it.
+     */
+    private PdfFont getReplacingFont(PdfFont sectionFont, Map<FontProgram, List<PdfFont>> fonts) throws IOException {
+        FontProgram fontProgram = sectionFont.getFontProgram();
+        if (fontProgram == null || sectionFont.getPdfObject().getIndirectReference() == null) {
+            return null;
+        }
+        List<PdfFont> fontsWithProgram = fonts.get(fontProgram);
+        if (fontsWithProgram == null) {
+            fontsWithProgram = new ArrayList<>();
+            fonts.put(fontProgram, fontsWithProgram);
+        }
+        for (PdfFont font : fontsWithProgram) {
+            if (font.isEmbedded() == sectionFont.isEmbedded() && !font.getPdfObject().isFlushed() && font.addUsedGlyphs(sectionFont)) {
+                return pdfDocument.addFont(font);
+            }
+        }
+        String encoding = getEncoding(sectionFont);
+        PdfFont font = encoding != null ? PdfFontFactory.createFont(fontProgram, encoding, sectionFont.isEmbedded()) : null;
+        if (font == null || !font.addUsedGlyphs(sectionFont)) {
+            return null;
+        }
+        font.setSubset(sectionFont.isSubset());
+        fontsWithProgram.add(font);
+        return pdfDocument.addFont(font);
+    }
+
+    /**
+     * Replaces the fonts in the specified resources and in the resources of their form XObjects. If the indices
+     * of the replaced fonts are specified, the fonts with these object numbers are replaced with their indices,
+     * otherwise the indices are replaced with the replacing fonts.
+     */
+    private static void replaceFonts(PdfDictionary resources, Map<Integer, Integer> replacedFontIndices,
+                                     List<PdfFont> replacingFonts, Set<PdfDictionary> visitedResources) {
+        if (resources == null || !visitedResources.add(resources)) {
+            return;
+        }
+        PdfDictionary fontResources = resources.getAsDictionary(PdfName.Font);
+        if (fontResources != null) {
+            for (PdfName name : fontResources.keySet()) {
+                PdfObject font = fontResources.get(name, false);
+                if (replacedFontIndices != null) {
+                    Integer index = font.isIndirectReference() ? replacedFontIndices.get(((PdfIndirectReference) font).getObjNumber()) : null;
+                    if (index != null) {
+                        fontResources.put(name, new PdfNumber((int) index));
+                    }
+                } else if (font.isNumber()) {
+                    fontResources.put(name, replacingFonts.get(((PdfNumber) font).intValue()).getPdfObject());
+                }
+            }
+        }
+        PdfDictionary xObjects = resources.getAsDictionary(PdfName.XObject);
+        if (xObjects != null) {
+            for (PdfName name : xObjects.keySet()) {
+                PdfStream xObject = xObjects.getAsStream(name);
+                if (xObject != null && PdfName.Form.equals(xObject.getAsName(PdfName.Subtype))) {
+                    replaceFonts(xObject.getAsDictionary(PdfName.Resources), replacedFontIndices, replacingFonts, visitedResources);
+                }
+            }
+        }
+    }
+
+    private static String getEncoding(PdfFont font) {
+        if (font instanceof PdfType0Font) {
+            return ((PdfType0Font) font).getCmap().getCmapName();
+        } else if (font instanceof PdfSimpleFont) {
+            FontEncoding fontEncoding = ((PdfSimpleFont<?>) font).getFontEncoding();
+            return fontEncoding.isFontSpecific() ? FontEncoding.FONT_SPECIFIC : fontEncoding.getBaseEncoding();
+        }
+        return null;
+    }
+
+    private void checkNoSections() {
+        if (containsSections) {
+            throw new IllegalStateException("Operation not supported after sections have been added");
+        }
+    }
+
     /**
      * Checks whether a method is invoked at the closed document
      */
@@ -315,4 +585,25 @@ public class Document extends RootElement<Document> {
             throw new PdfException(PdfException.DocumentClosedItIsImpossibleToExecuteAction);
         }
     }
+
+    private static class LaidOutSection {
+        private final byte[] bytes;
+        private final List<PdfFont> fonts;
+
+        LaidOutSection(byte[] bytes, List<PdfFont> fonts) {
+            this.bytes = bytes;
+            this.fonts = fonts;
+        }
+    }
+
+    private static class SectionPdfDocument extends PdfDocument {
+
+        SectionPdfDocument(PdfWriter writer) {
+            super(writer);
+        }
+
+        Collection<PdfFont> getFonts() {
+            return getDocumentFonts();
+        }
+    }
 }
@@ -49,6 +49,7 @@ import com.itextpdf.kernel.pdf.tagutils.IAccessibleElement;
 import com.itextpdf.layout.ElementPropertyContainer;
 import com.itextpdf.layout.Style;
 import com.itextpdf.layout.property.Property;
+import com.itextpdf.layout.property.PropertyMap;
 import com.itextpdf.layout.renderer.IRenderer;
 
 import java.util.ArrayList;
@@ -130,7 +131,10 @@ public abstract class AbstractElement<T extends IElement> extends ElementPropert
         if (styles == null) {
             styles = new LinkedHashSet<>();
         }
-        styles.add(style);
+        if (styles.add(style)) {
+            // the properties of the style may now be resolved for this element and its descendants
+            PropertyMap.registerModification();
+        }
         return (T) (Object)this;
     }
 
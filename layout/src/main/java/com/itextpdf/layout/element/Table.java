@@ -85,6 +85,8 @@ public class Table extends BlockElement<Table> implements ILargeElement {
     private int rowWindowStart = 0;
     private Document document;
     private Cell[] lastAddedRow;
+    // For large tables: number of completed rows after which the table content is flushed automatically.
+    private int autoFlushRowCount = 0;
 
     /**
      * Constructs a {@code Table} with the column widths in points.
@@ -390,12 +392,43 @@ public class Table extends BlockElement<Table> implements ILargeElement {
         return this;
     }
 
+    /**
+     * Gets the number of rows after which the content of a large table is flushed automatically.
+     *
+     * @return the number of rows in a flushed window, or 0 if automatic flushing is disabled
+     */
+    public int getAutoFlushRowCount() {
+        return autoFlushRowCount;
+    }
+
+    /**
+     * Makes a large table write its content to the document in windows of the given number of rows,
+     * as if {@link #flush()} was called each time that many rows had been completed. This way only
+     * a bounded number of rows is kept in memory, however many rows are added to the table.
+     * Has no effect on tables which are not large or have not been added to a document yet.
+     *
+     * @param rowCount the number of rows in a flushed window, or 0 to disable automatic flushing
+     * @return this element
+     */
+    public Table setAutoFlushRowCount(int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("Row count must not be negative.");
+        }
+        this.autoFlushRowCount = rowCount;
+        return this;
+    }
+
     /**
      * Starts new row. This mean that next cell will be added at the beginning of next line.
      *
      * @return this element
      */
     public Table startNewRow() {
+        if (autoFlushRowCount > 0 && !isComplete && document != null && currentColumn == columnWidths.length
+                && currentRow + 1 - rowWindowStart >= autoFlushRowCount && !getRowGroups().isEmpty()) {
+            // rows spanning further down may keep the window from being flushed until they are complete
+            flush();
+        }
         currentColumn = 0;
         currentRow++;
         if (currentRow >= rows.size()) {
@@ -592,18 +625,19 @@ public class Table extends BlockElement<Table> implements ILargeElement {
         int firstRow = lastAddedRowGroups.get(0).startRow;
         int lastRow = lastAddedRowGroups.get(lastAddedRowGroups.size() - 1).finishRow;
 
-        List<IElement> toRemove = new ArrayList<>();
-        for (IElement cell : childElements) {
-            if (((Cell)cell).getRow() >= firstRow && ((Cell)cell).getRow() <= lastRow) {
-                toRemove.add(cell);
+        // Compact the cells which are left in place: removing flushed cells one by one would make
+        // flushing of a large table quadratic in the number of its cells.
+        int retained = 0;
+        for (int i = 0; i < childElements.size(); i++) {
+            IElement cell = childElements.get(i);
+            if (((Cell)cell).getRow() < firstRow || ((Cell)cell).getRow() > lastRow) {
+                childElements.set(retained++, cell);
             }
         }
-        childElements.removeAll(toRemove);
+        childElements.subList(retained, childElements.size()).clear();
 
-        for (int i = 0; i < lastRow - firstRow; i++) {
-            rows.remove(firstRow - rowWindowStart);
-        }
-        lastAddedRow = rows.remove(firstRow - rowWindowStart);
+        lastAddedRow = rows.get(lastRow - rowWindowStart);
+        rows.subList(firstRow - rowWindowStart, lastRow - rowWindowStart + 1).clear();
         rowWindowStart = lastAddedRowGroups.get(lastAddedRowGroups.size() - 1).getFinishRow() + 1;
 
         lastAddedRowGroups = null;
@@ -0,0 +1,389 @@
+/*
+
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: Bruno Lowagie, Paulo Soares, et al.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.property;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map of {@link Property} values that stores them in an array indexed by the property id
+ * instead of hashing boxed keys. Property ids which are too big or negative to be used as an index
+ * are kept in a regular map, so any integer key is supported.
+ * <p>
+ * A map created with {@link #PropertyMap(Map)} from another {@link PropertyMap} shares its storage
+ * with the source map until either of them is modified, which makes copying the properties
+ * of split renderers cheap.
+ * <p>
+ * Every modification of a property in any property map increments its {@link #getModificationsCount(int) modifications count}
+ * in the thread making the modification, which allows to cache resolved property values for as long as the property
+ * has not changed. The counts are kept per thread, so that documents laid out concurrently neither contend on them
+ * nor invalidate the values cached by each other.
+ */
+public class PropertyMap extends AbstractMap<Integer, Object> {
+
+    private static final int MAX_INDEXED_PROPERTY_ID = 255;
+    private static final Object[] EMPTY_VALUES = new Object[0];
+    private static final Object NULL_VALUE = new Object();
+
+    // modifications counts of the indexed properties, followed by the count shared by all the other properties
+    // and the count of the modifications which may affect any property
+    private static final int OTHER_PROPERTIES_COUNTER_INDEX = MAX_INDEXED_PROPERTY_ID + 1;
+    private static final int ALL_PROPERTIES_COUNTER_INDEX = MAX_INDEXED_PROPERTY_ID + 2;
+    private static final ThreadLocal<long[]> modificationsCounts = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[ALL_PROPERTIES_COUNTER_INDEX + 1];
+        }
+    };
+
+    private Object[] values = EMPTY_VALUES;
+    private Map<Integer, Object> otherValues;
+    private int size;
+    private boolean shared;
+
+    /**
+     * Creates an empty property map.
+     */
+    public PropertyMap() {
+    }
+
+    /**
+     * Creates a property map with the same properties as the specified map.
+     * If the specified map is a {@link PropertyMap}, the storage is shared until one of the maps is modified.
+     *
+     * @param properties the properties to be copied
+     */
+    public PropertyMap(Map<Integer, Object> properties) {
+        if (properties instanceof PropertyMap) {
+            PropertyMap other = (PropertyMap) properties;
+            other.shared = true;
+            this.shared = true;
+            this.values = other.values;
+            this.otherValues = other.otherValues;
+            this.size = other.size;
+        } else {
+            putAll(properties);
+        }
+    }
+
+    /**
+     * Gets the number of modifications of the specified property made in all property maps by the current thread
+     * so far, including the changes registered with {@link #registerModification()}. The value only grows,
+     * so an unchanged value means that the property has not been set or deleted by the current thread in the meantime.
+     * The modifications made by other threads are not counted: the values cached by a thread are only valid
+     * for that thread, and must be considered stale once the properties may have been changed by another thread,
+     * e.g. at the beginning of a layout pass.
+     *
+     * @param property the property id
+     * @return the modifications count of the property
+     */
+    public static long getModificationsCount(int property) {
+        long[] counts = modificationsCounts.get();
+        return counts[ALL_PROPERTIES_COUNTER_INDEX] + counts[getCounterIndex(property)];
+    }
+
+    /**
+     * Registers a change which may affect the values of any property without modifying a property map,
+     * e.g. adding a style to an element or changing a parent of a renderer.
+     * All property values resolved by the current thread before the call are considered stale.
+     */
+    public static void registerModification() {
+        modificationsCounts.get()[ALL_PROPERTIES_COUNTER_INDEX]++;
+    }
+
+    /**
+     * Gets the value of the specified property from the specified map, without boxing the property id
+     * if the map is a {@link PropertyMap}.
+     *
+     * @param properties the map of properties
+     * @param property the property id
+     * @return the value of the property, or {@code null} if the property was not set
+     */
+    public static Object get(Map<Integer, Object> properties, int property) {
+        return properties instanceof PropertyMap ? ((PropertyMap) properties).get(property) : properties.get(property);
+    }
+
+    /**
+     * Checks whether the specified map contains the specified property, without boxing the property id
+     * if the map is a {@link PropertyMap}.
+     *
+     * @param properties the map of properties
+     * @param property the property id
+     * @return {@code true} if the property was set, even to {@code null}, {@code false} otherwise
+     */
+    public static boolean containsKey(Map<Integer, Object> properties, int property) {
+        return properties instanceof PropertyMap ? ((PropertyMap) properties).containsKey(property) : properties.containsKey(property);
+    }
+
+    /**
+     * Checks whether the map contains the specified property.
+     *
+     * @param property the property id
+     * @return {@code true} if the property was set, even to {@code null}, {@code false} otherwise
+     */
+    public boolean containsKey(int property) {
+        if (property >= 0 && property <= MAX_INDEXED_PROPERTY_ID) {
+            return property < values.length && values[property] != null;
+        }
+        return otherValues != null && otherValues.containsKey(property);
+    }
+
+    /**
+     * Gets the value of the specified property.
+     *
+     * @param property the property id
+     * @return the value of the property, or {@code null} if the property was not set
+     */
+    public Object get(int property) {
+        if (property >= 0 && property <= MAX_INDEXED_PROPERTY_ID) {
+            if (property < values.length) {
+                Object value = values[property];
+                return value != NULL_VALUE ? value : null;
+            }
+            return null;
+        }
+        return otherValues != null ? otherValues.get(property) : null;
+    }
+
+    /**
+     * Deletes the specified property.
+     *
+     * @param property the property id
+     * @return the previous value of the property, or {@code null} if the property was not set
+     */
+    public Object remove(int property) {
+        if (!containsKey(property)) {
+            return null;
+        }
+        ensureNotShared();
+        registerModification(property);
+        size--;
+        if (property >= 0 && property <= MAX_INDEXED_PROPERTY_ID) {
+            Object previous = values[property];
+            values[property] = null;
+            return previous != NULL_VALUE ? previous : null;
+        }
+        return otherValues.remove(property);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey(((Integer) key).intValue());
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public Object put(Integer key, Object value) {
+        return putProperty(key.intValue(), value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public void putAll(Map<? extends Integer, ?> properties) {
+        if (properties instanceof PropertyMap) {
+            PropertyMap other = (PropertyMap) properties;
+            if (size == 0 && !shared) {
+                other.shared = true;
+                this.shared = true;
+                this.values = other.values;
+                this.otherValues = other.otherValues;
+                this.size = other.size;
+                registerModification();
+                return;
+            }
+            Object[] otherArray = other.values;
+            for (int i = 0; i < otherArray.length; i++) {
+                if (otherArray[i] != null) {
+                    putProperty(i, otherArray[i] != NULL_VALUE ? otherArray[i] : null);
+                }
+            }
+            if (other.otherValues != null) {
+                for (Map.Entry<Integer, Object> entry : other.otherValues.entrySet()) {
+                    putProperty(entry.getKey().intValue(), entry.getValue());
+                }
+            }
+        } else {
+            for (Map.Entry<? extends Integer, ?> entry : properties.entrySet()) {
+                putProperty(entry.getKey().intValue(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        registerModification();
+        values = EMPTY_VALUES;
+        otherValues = null;
+        size = 0;
+        shared = false;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, Object>>() {
+            @Override
+            public Iterator<Map.Entry<Integer, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Sets the value of the specified property. The method isn't an overload of {@link #put(Integer, Object)},
+     * so that calls with a primitive value, like {@code put(Property.FONT_SIZE, 12f)}, are not ambiguous.
+     */
+    private Object putProperty(int property, Object value) {
+        ensureNotShared();
+        registerModification(property);
+        if (property >= 0 && property <= MAX_INDEXED_PROPERTY_ID) {
+            if (property >= values.length) {
+                values = Arrays.copyOf(values, Math.min(Math.max(property + 1, values.length * 2), MAX_INDEXED_PROPERTY_ID + 1));
+            }
+            Object previous = values[property];
+            values[property] = value != null ? value : NULL_VALUE;
+            if (previous == null) {
+                size++;
+                return null;
+            }
+            return previous != NULL_VALUE ? previous : null;
+        }
+        if (otherValues == null) {
+            otherValues = new HashMap<>();
+        }
+        int otherSize = otherValues.size();
+        Object previous = otherValues.put(property, value);
+        size += otherValues.size() - otherSize;
+        return previous;
+    }
+
+    private static void registerModification(int property) {
+        modificationsCounts.get()[getCounterIndex(property)]++;
+    }
+
+    private static int getCounterIndex(int property) {
+        return property >= 0 && property <= MAX_INDEXED_PROPERTY_ID ? property : OTHER_PROPERTIES_COUNTER_INDEX;
+    }
+
+    private void ensureNotShared() {
+        if (shared) {
+            values = values.clone();
+            if (otherValues != null) {
+                otherValues = new HashMap<>(otherValues);
+            }
+            shared = false;
+        }
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Integer, Object>> {
+        private final Object[] iteratedValues = values;
+        private final Iterator<Map.Entry<Integer, Object>> otherIterator =
+                otherValues != null ? new HashMap<>(otherValues).entrySet().iterator() : null;
+        private int nextIndex = findIndex(0);
+        private Integer lastKey;
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < iteratedValues.length || (otherIterator != null && otherIterator.hasNext());
+        }
+
+        @Override
+        public Map.Entry<Integer, Object> next() {
+            if (nextIndex < iteratedValues.length) {
+                Object value = iteratedValues[nextIndex];
+                lastKey = nextIndex;
+                nextIndex = findIndex(nextIndex + 1);
+                return new AbstractMap.SimpleImmutableEntry<>(lastKey, value != NULL_VALUE ? value : null);
+            }
+            if (otherIterator == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Integer, Object> entry = otherIterator.next();
+            lastKey = entry.getKey();
+            return new AbstractMap.SimpleImmutableEntry<>(entry);
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            PropertyMap.this.remove(lastKey.intValue());
+            lastKey = null;
+        }
+
+        private int findIndex(int from) {
+            while (from < iteratedValues.length && iteratedValues[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+}
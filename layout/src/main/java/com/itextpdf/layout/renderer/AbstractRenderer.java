@@ -94,6 +94,8 @@ public abstract class AbstractRenderer implements IRenderer {
      */
     public static final float INF = 1e6f;
 
+    private static final Object NOT_INHERITED = new Object();
+
     // TODO linkedList?
     protected List<IRenderer> childRenderers = new ArrayList<>();
     protected List<IRenderer> positionedRenderers = new ArrayList<>();
@@ -101,9 +103,17 @@ public abstract class AbstractRenderer implements IRenderer {
     protected boolean flushed = false;
     protected LayoutArea occupiedArea;
     protected IRenderer parent;
-    protected Map<Integer, Object> properties = new HashMap<>();
+    protected Map<Integer, Object> properties = new PropertyMap();
     protected boolean isLastRendererForModelElement = true;
 
+    // values of inherited properties resolved on the parent by a thread, valid as long as the property
+    // has not been modified by that thread since
+    private Object[] inheritedProperties;
+    private long[] inheritedPropertiesModificationsCounts;
+    private IRenderer inheritedPropertiesParent;
+    private Thread inheritedPropertiesThread;
+    private boolean inheritedPropertiesRequested;
+
     /**
      * Creates a renderer.
      */
@@ -126,7 +136,7 @@ public abstract class AbstractRenderer implements IRenderer {
         this.flushed = other.flushed;
         this.occupiedArea = other.occupiedArea != null ? other.occupiedArea.clone() : null;
         this.parent = other.parent;
-        this.properties.putAll(other.properties);
+        this.properties = new PropertyMap(other.properties);
         this.isLastRendererForModelElement = other.isLastRendererForModelElement;
     }
 
@@ -220,7 +230,7 @@ public abstract class AbstractRenderer implements IRenderer {
      */
     @Override
     public boolean hasOwnProperty(int property) {
-        return properties.containsKey(property);
+        return PropertyMap.containsKey(properties, property);
     }
 
     /**
@@ -262,15 +272,18 @@ public abstract class AbstractRenderer implements IRenderer {
     @Override
     public <T1> T1 getProperty(int key) {
         Object property;
-        if ((property = properties.get(key)) != null || properties.containsKey(key)) {
+        if ((property = PropertyMap.get(properties, key)) != null || PropertyMap.containsKey(properties, key)) {
             return (T1) property;
         }
         if (modelElement != null && ((property = modelElement.<T1>getProperty(key)) != null || modelElement.hasProperty(key))) {
             return (T1) property;
         }
         // TODO in some situations we will want to check inheritance with additional info, such as parent and descendant.
-        if (parent != null && Property.isPropertyInherited(key) && (property = parent.<T1>getProperty(key)) != null) {
-            return (T1) property;
+        if (Property.isPropertyInherited(key)) {
+            inheritedPropertiesRequested = true;
+            if (parent != null && (property = getInheritedProperty(key)) != null) {
+                return (T1) property;
+            }
         }
         property = this.<T1>getDefaultProperty(key);
         if (property != null) {
@@ -284,7 +297,7 @@ public abstract class AbstractRenderer implements IRenderer {
      */
     @Override
     public <T1> T1 getOwnProperty(int property) {
-        return (T1) properties.get(property);
+        return (T1) PropertyMap.get(properties, property);
     }
 
     /**
@@ -609,6 +622,10 @@ public abstract class AbstractRenderer implements IRenderer {
      */
     @Override
     public IRenderer setParent(IRenderer parent) {
+        if (this.parent != parent && inheritedPropertiesRequested) {
+            // values of inherited properties resolved through this renderer by its descendants are not valid anymore
+            PropertyMap.registerModification();
+        }
         this.parent = parent;
         return this;
     }
@@ -1437,6 +1454,35 @@ public abstract class AbstractRenderer implements IRenderer {
         return provider.getPdfFont(provider.getFontSelector(FontFamilySplitter.splitFontFamily(font), fc).bestMatch());
     }
 
+    /**
+     * Gets the value of an inherited property from the parent renderer. The resolved values are cached
+     * by the current thread until the property is modified or a parent is changed, so that the whole chain of ancestors
+     * is not walked again each time a property is read during layout.
+     */
+    private Object getInheritedProperty(int key) {
+        long modificationsCount = PropertyMap.getModificationsCount(key);
+        Thread currentThread = Thread.currentThread();
+        if (inheritedProperties == null || inheritedPropertiesParent != parent || inheritedPropertiesThread != currentThread) {
+            inheritedProperties = new Object[key + 1];
+            inheritedPropertiesModificationsCounts = new long[key + 1];
+            inheritedPropertiesParent = parent;
+            inheritedPropertiesThread = currentThread;
+        } else if (key >= inheritedProperties.length) {
+            inheritedProperties = Arrays.copyOf(inheritedProperties, key + 1);
+            inheritedPropertiesModificationsCounts = Arrays.copyOf(inheritedPropertiesModificationsCounts, key + 1);
+        }
+        Object property = inheritedProperties[key];
+        if (property == null || inheritedPropertiesModificationsCounts[key] != modificationsCount) {
+            property = parent.<Object>getProperty(key);
+            if (property == null) {
+                property = NOT_INHERITED;
+            }
+            inheritedProperties[key] = property;
+            inheritedPropertiesModificationsCounts[key] = modificationsCount;
+        }
+        return property != NOT_INHERITED ? property : null;
+    }
+
     static void applyGeneratedAccessibleAttributes(TagTreePointer tagPointer, PdfDictionary attributes) {
         if (attributes == null) {
             return;
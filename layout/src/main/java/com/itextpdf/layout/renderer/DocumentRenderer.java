@@ -49,6 +49,7 @@ import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.IElement;
 import com.itextpdf.layout.layout.LayoutArea;
 import com.itextpdf.layout.layout.LayoutResult;
 import com.itextpdf.layout.property.AreaBreakType;
@@ -56,6 +57,7 @@ import com.itextpdf.layout.property.FloatPropertyValue;
 import com.itextpdf.layout.property.Property;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class DocumentRenderer extends RootRenderer {
@@ -99,6 +101,36 @@ public class DocumentRenderer extends RootRenderer {
         super.close();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The pages which are left after the last page used by the new layout are removed from the document.
+     */
+    @Override
+    public boolean relayout(List<IElement> elements, Collection<? extends IElement> changedElements) {
+        if (!super.relayout(elements, changedElements)) {
+            return false;
+        }
+        PdfDocument pdfDocument = document.getPdfDocument();
+        while (pdfDocument.getNumberOfPages() > currentPageNumber) {
+            pdfDocument.removePage(pdfDocument.getNumberOfPages());
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean canResumeLayout(int pageNumber) {
+        // the following pages are reused by the new layout, so they should have the size a new page would have
+        PdfDocument pdfDocument = document.getPdfDocument();
+        for (int i = pageNumber + 1; i <= pdfDocument.getNumberOfPages(); i++) {
+            PdfPage page = pdfDocument.getPage(i);
+            if (page.isFlushed() || !page.getPageSize().equalsWithEpsilon(pdfDocument.getDefaultPageSize(), EPS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected LayoutArea updateCurrentArea(LayoutResult overflowResult) {
         AreaBreak areaBreak = overflowResult != null && overflowResult.getAreaBreak() != null ? overflowResult.getAreaBreak() : null;
         if (areaBreak != null && areaBreak.getType() == AreaBreakType.LAST_PAGE) {
@@ -137,10 +169,15 @@ public class DocumentRenderer extends RootRenderer {
                 ensureDocumentHasNPages(pageNum, null);
                 PdfPage correspondingPage = pdfDocument.getPage(pageNum);
 
-                boolean wrapOldContent = pdfDocument.getReader() != null && pdfDocument.getWriter() != null &&
-                        correspondingPage.getContentStreamCount() > 0 && correspondingPage.getLastContentStream().getLength() > 0 &&
-                        !wrappedContentPage.contains(pageNum) && pdfDocument.getNumberOfPages() >= pageNum;
-                wrappedContentPage.add(pageNum);
+                boolean wrapOldContent = false;
+                // Only pages of a stamped document may have content to wrap. Remembering the page once, rather than
+                // on every flushed renderer, keeps the list small for documents with lots of elements.
+                if (pdfDocument.getReader() != null && !wrappedContentPage.contains(pageNum)) {
+                    wrapOldContent = pdfDocument.getWriter() != null &&
+                            correspondingPage.getContentStreamCount() > 0 && correspondingPage.getLastContentStream().getLength() > 0 &&
+                            pdfDocument.getNumberOfPages() >= pageNum;
+                    wrappedContentPage.add(pageNum);
+                }
 
                 if (pdfDocument.isTagged()) {
                     pdfDocument.getTagStructureContext().getAutoTaggingPointer().setPageForTagging(correspondingPage);
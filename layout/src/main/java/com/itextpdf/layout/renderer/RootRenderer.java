@@ -45,6 +45,9 @@ package com.itextpdf.layout.renderer;
 
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.layout.IPropertyContainer;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.IElement;
 import com.itextpdf.layout.layout.LayoutArea;
 import com.itextpdf.layout.layout.LayoutContext;
 import com.itextpdf.layout.layout.LayoutPosition;
@@ -52,12 +55,17 @@ import com.itextpdf.layout.layout.LayoutResult;
 import com.itextpdf.layout.margincollapse.MarginsCollapseHandler;
 import com.itextpdf.layout.margincollapse.MarginsCollapseInfo;
 import com.itextpdf.layout.property.Property;
+import com.itextpdf.layout.property.PropertyMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 public abstract class RootRenderer extends AbstractRenderer {
 
@@ -69,8 +77,14 @@ public abstract class RootRenderer extends AbstractRenderer {
     private MarginsCollapseHandler marginsCollapseHandler;
     private LayoutArea initialCurrentArea;
     private List<Rectangle> floatRendererAreas = new ArrayList<>();
+    // the state of the layout before each child was added, only kept if the content is not flushed immediately
+    private List<LayoutCheckpoint> layoutCheckpoints = new ArrayList<>();
 
     public void addChild(IRenderer renderer) {
+        startLayoutPass();
+        if (!immediateFlush) {
+            layoutCheckpoints.add(new LayoutCheckpoint(renderer.getModelElement()));
+        }
         // Some positioned renderers might have been fetched from non-positioned child and added to this renderer,
         // so we use this generic mechanism of determining which renderers have been just added.
         int numberOfChildRenderers = childRenderers.size();
@@ -239,6 +253,7 @@ public abstract class RootRenderer extends AbstractRenderer {
      * @see #draw(com.itextpdf.layout.renderer.DrawContext)
      */
     public void flush() {
+        startLayoutPass();
         for (IRenderer resultRenderer: childRenderers) {
             flushSingleRenderer(resultRenderer);
         }
@@ -247,6 +262,8 @@ public abstract class RootRenderer extends AbstractRenderer {
         }
         childRenderers.clear();
         positionedRenderers.clear();
+        // the results of the layout are drawn, so it cannot be resumed from any of the previous states
+        layoutCheckpoints.clear();
     }
 
     /**
@@ -274,6 +291,76 @@ public abstract class RootRenderer extends AbstractRenderer {
         throw new IllegalStateException("Layout is not supported for root renderers.");
     }
 
+    /**
+     * Lays out the elements once again after some of them have been changed, reusing the results of the previous
+     * layout where possible. The layout is resumed from the state recorded before the first changed element
+     * was added, so the pages preceding it are left untouched. Each following element which has not been changed
+     * and starts at the same position as during the previous layout is not laid out again: its previous
+     * result is reused together with the results of all the unchanged elements after it.
+     * <p>
+     * The incremental relayout is not possible if the content has been flushed, if margins collapsing is enabled,
+     * or if a changed element follows a floating element or an element kept with the next one.
+     * In this case nothing is changed and {@code false} is returned.
+     *
+     * @param elements        all the elements laid out by this renderer, in the same order as they were added
+     * @param changedElements the elements which have been changed since they were laid out
+     * @return {@code true} if the elements have been laid out again, {@code false} otherwise
+     */
+    public boolean relayout(List<IElement> elements, Collection<? extends IElement> changedElements) {
+        startLayoutPass();
+        if (immediateFlush || keepWithNextHangingRenderer != null || layoutCheckpoints.size() != elements.size()
+                || Boolean.TRUE.equals(getPropertyAsBoolean(Property.COLLAPSING_MARGINS))) {
+            return false;
+        }
+        Set<IElement> changed = Collections.newSetFromMap(new IdentityHashMap<IElement, Boolean>());
+        changed.addAll(changedElements);
+        int firstChanged = -1;
+        for (int i = 0; i < elements.size(); i++) {
+            if (!layoutCheckpoints.get(i).isCheckpointOf(elements.get(i))) {
+                return false;
+            }
+            if (firstChanged == -1 && changed.contains(elements.get(i))) {
+                firstChanged = i;
+            }
+        }
+        if (firstChanged == -1) {
+            return true;
+        }
+        List<LayoutCheckpoint> previousCheckpoints = layoutCheckpoints;
+        LayoutCheckpoint previousEnd = new LayoutCheckpoint(null);
+        if (!previousCheckpoints.get(firstChanged).resumable || !canResumeLayout(previousCheckpoints.get(firstChanged))) {
+            return false;
+        }
+        List<IRenderer> previousChildRenderers = new ArrayList<>(childRenderers);
+        List<IRenderer> previousPositionedRenderers = new ArrayList<>(positionedRenderers);
+
+        layoutCheckpoints = new ArrayList<>(previousCheckpoints.subList(0, firstChanged));
+        restoreLayoutCheckpoint(previousCheckpoints.get(firstChanged));
+        int i = firstChanged;
+        while (i < elements.size()) {
+            LayoutCheckpoint checkpoint = previousCheckpoints.get(i);
+            if (!changed.contains(elements.get(i)) && checkpoint.resumable && checkpoint.isReached()) {
+                // the following unchanged elements would be laid out exactly as before
+                int next = i + 1;
+                while (next < elements.size() && !changed.contains(elements.get(next))) {
+                    next++;
+                }
+                LayoutCheckpoint resumeCheckpoint = next < elements.size() ? previousCheckpoints.get(next) : previousEnd;
+                if (resumeCheckpoint.resumable) {
+                    childRenderers.addAll(previousChildRenderers.subList(checkpoint.childRenderersCount, resumeCheckpoint.childRenderersCount));
+                    positionedRenderers.addAll(previousPositionedRenderers.subList(checkpoint.positionedRenderersCount, resumeCheckpoint.positionedRenderersCount));
+                    layoutCheckpoints.addAll(previousCheckpoints.subList(i, next));
+                    restoreLayoutCheckpoint(resumeCheckpoint);
+                    i = next;
+                    continue;
+                }
+            }
+            addChild(elements.get(i).createRendererSubTree());
+            i++;
+        }
+        return true;
+    }
+
     public LayoutArea getCurrentArea() {
         if (currentArea == null) {
             updateCurrentAndInitialArea(null);
@@ -283,6 +370,17 @@ public abstract class RootRenderer extends AbstractRenderer {
 
     protected abstract void flushSingleRenderer(IRenderer resultRenderer);
 
+    /**
+     * Checks whether the layout can be resumed from the specified state of this renderer by
+     * {@link #relayout(List, Collection)}, e.g. whether the areas following it can be reused.
+     *
+     * @param pageNumber the number of the page the layout is to be resumed at
+     * @return {@code true} if the layout can be resumed, {@code false} otherwise
+     */
+    protected boolean canResumeLayout(int pageNumber) {
+        return true;
+    }
+
     protected abstract LayoutArea updateCurrentArea(LayoutResult overflowResult);
 
     protected void shrinkCurrentAreaAndProcessRenderer(IRenderer renderer, List<IRenderer> resultRenderers, LayoutResult result) {
@@ -308,6 +406,12 @@ public abstract class RootRenderer extends AbstractRenderer {
         return freeSpace;
     }
 
+    private static void startLayoutPass() {
+        // the elements may have been changed by another thread since the previous pass, which is not reflected
+        // in the modifications counts of the current thread, so the property values it has cached are discarded
+        PropertyMap.registerModification();
+    }
+
     private void processRenderer(IRenderer renderer, List<IRenderer> resultRenderers) {
         alignChildHorizontally(renderer, currentArea.getBBox());
         if (immediateFlush) {
@@ -392,8 +496,66 @@ public abstract class RootRenderer extends AbstractRenderer {
         }
     }
 
+    private boolean canResumeLayout(LayoutCheckpoint checkpoint) {
+        return canResumeLayout(checkpoint.pageNumber);
+    }
+
+    private void restoreLayoutCheckpoint(LayoutCheckpoint checkpoint) {
+        while (childRenderers.size() > checkpoint.childRenderersCount) {
+            childRenderers.remove(childRenderers.size() - 1);
+        }
+        while (positionedRenderers.size() > checkpoint.positionedRenderersCount) {
+            positionedRenderers.remove(positionedRenderers.size() - 1);
+        }
+        currentArea = checkpoint.currentArea != null ? checkpoint.currentArea.clone() : null;
+        initialCurrentArea = checkpoint.initialCurrentArea != null ? checkpoint.initialCurrentArea.clone() : null;
+        currentPageNumber = checkpoint.pageNumber;
+        keepWithNextHangingRenderer = null;
+        keepWithNextHangingRendererLayoutResult = null;
+        floatRendererAreas.clear();
+    }
+
     private void updateCurrentAndInitialArea(LayoutResult overflowResult) {
         updateCurrentArea(overflowResult);
         initialCurrentArea = currentArea == null ? null : currentArea.clone();
     }
+
+    /**
+     * The state of the layout of a {@link RootRenderer} before a child has been added to it.
+     */
+    private class LayoutCheckpoint {
+        private final IPropertyContainer modelElement;
+        private final int childRenderersCount;
+        private final int positionedRenderersCount;
+        private final LayoutArea currentArea;
+        private final LayoutArea initialCurrentArea;
+        private final int pageNumber;
+        // the layout cannot be resumed from a state which depends on the elements added before
+        private final boolean resumable;
+
+        LayoutCheckpoint(IPropertyContainer modelElement) {
+            this.modelElement = modelElement;
+            this.childRenderersCount = childRenderers.size();
+            this.positionedRenderersCount = positionedRenderers.size();
+            this.currentArea = RootRenderer.this.currentArea != null ? RootRenderer.this.currentArea.clone() : null;
+            this.initialCurrentArea = RootRenderer.this.initialCurrentArea != null ? RootRenderer.this.initialCurrentArea.clone() : null;
+            this.pageNumber = currentPageNumber;
+            this.resumable = keepWithNextHangingRenderer == null && floatRendererAreas.isEmpty();
+        }
+
+        boolean isCheckpointOf(IElement element) {
+            // area breaks do not have model elements
+            return modelElement == element || (modelElement == null && element instanceof AreaBreak);
+        }
+
+        boolean isReached() {
+            return pageNumber == currentPageNumber && keepWithNextHangingRenderer == null && floatRendererAreas.isEmpty()
+                    && areasEqual(this.currentArea, RootRenderer.this.currentArea)
+                    && areasEqual(this.initialCurrentArea, RootRenderer.this.initialCurrentArea);
+        }
+
+        private boolean areasEqual(LayoutArea area, LayoutArea other) {
+            return area == null ? other == null : other != null && area.equals(other) && area.isEmptyArea() == other.isEmptyArea();
+        }
+    }
 }
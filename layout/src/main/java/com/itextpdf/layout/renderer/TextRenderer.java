@@ -121,6 +121,9 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
 
     protected GlyphLine savedWordBreakAtLineEnding;
 
+    // widths of the glyphs of text, shared with split and overflow renderers which have the same glyphs
+    private GlyphWidths textWidths;
+
     /**
      * Creates a TextRenderer from its corresponding layout object.
      *
@@ -152,6 +155,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         this.otfFeaturesApplied = other.otfFeaturesApplied;
         this.tabAnchorCharacterPosition = other.tabAnchorCharacterPosition;
         this.reversedRanges = other.reversedRanges;
+        this.textWidths = other.textWidths;
     }
 
     @Override
@@ -181,6 +185,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         Float wordSpacing = this.getPropertyAsFloat(Property.WORD_SPACING);
         float hScale = (float) this.getProperty(Property.HORIZONTAL_SCALING, (Float) 1f);
         ISplitCharacters splitCharacters = this.<ISplitCharacters>getProperty(Property.SPLIT_CHARACTERS);
+        GlyphWidths widths = getTextWidths(fontSize, hScale, characterSpacing, wordSpacing);
         float italicSkewAddition = Boolean.TRUE.equals(getPropertyAsBoolean(Property.ITALIC_SIMULATION)) ? ITALIC_ANGLE * fontSize : 0;
         float boldSimulationAddition = Boolean.TRUE.equals(getPropertyAsBoolean(Property.BOLD_SIMULATION)) ? BOLD_SIMULATION_STROKE_COEFF * fontSize : 0;
 
@@ -268,11 +273,8 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
                     tabAnchorCharacter = null;
                 }
 
-                float glyphWidth = getCharWidth(currentGlyph, fontSize, hScale, characterSpacing, wordSpacing) / TEXT_SPACE_COEFF;
-                float xAdvance = previousCharPos != -1 ? text.get(previousCharPos).getXAdvance() : 0;
-                if (xAdvance != 0) {
-                    xAdvance = scaleXAdvance(xAdvance, fontSize, hScale) / TEXT_SPACE_COEFF;
-                }
+                float glyphWidth = widths.getGlyphWidth(ind);
+                float xAdvance = previousCharPos != -1 ? widths.getXAdvance(previousCharPos) : 0;
                 if ((nonBreakablePartFullWidth + glyphWidth + xAdvance + italicSkewAddition + boldSimulationAddition) > layoutBox.getWidth() - currentLineWidth && firstCharacterWhichExceedsAllowedWidth == -1) {
                     firstCharacterWhichExceedsAllowedWidth = ind;
                     if (TextUtil.isSpaceOrWhitespace(text.get(ind))) {
@@ -348,12 +350,14 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
                         if (wordBounds != null) {
                             String word = text.toUnicodeString(wordBounds[0], wordBounds[1]);
                             Hyphenation hyph = hyphenationConfig.hyphenate(word);
+                            // hyphenated parts can be measured on the text itself only if its glyphs are the ones the font gives for the word
+                            GlyphWidths wordWidths = wordBounds[0] == currentTextPos && isUnshapedWord(word, wordBounds[0], wordBounds[1]) ? widths : null;
                             if (hyph != null) {
                                 for (int i = hyph.length() - 1; i >= 0; i--) {
                                     String pre = hyph.getPreHyphenText(i);
                                     String pos = hyph.getPostHyphenText(i);
-                                    float currentHyphenationChoicePreTextWidth =
-                                            getGlyphLineWidth(convertToGlyphLine(pre + hyphenationConfig.getHyphenSymbol()), fontSize, hScale, characterSpacing, wordSpacing);
+                                    float currentHyphenationChoicePreTextWidth = getHyphenatedPartWidth(wordWidths, currentTextPos, pre,
+                                            hyphenationConfig.getHyphenSymbol(), fontSize, hScale, characterSpacing, wordSpacing);
                                     if (currentLineWidth + currentHyphenationChoicePreTextWidth + italicSkewAddition + boldSimulationAddition <= layoutBox.getWidth()) {
                                         hyphenationApplied = true;
 
@@ -520,6 +524,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
             }
 
             otfFeaturesApplied = true;
+            textWidths = null;
         }
     }
 
@@ -877,6 +882,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         this.text.start = leftPos;
         this.text.end = rightPos;
         this.otfFeaturesApplied = false;
+        this.textWidths = null;
     }
 
     public GlyphLine getText() {
@@ -1039,6 +1045,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         splitRenderer.yLineOffset = yLineOffset;
         splitRenderer.otfFeaturesApplied = otfFeaturesApplied;
         splitRenderer.isLastRendererForModelElement = false;
+        splitRenderer.textWidths = textWidths;
         splitRenderer.addAllProperties(getOwnProperties());
 
         TextRenderer overflowRenderer = createOverflowRenderer();
@@ -1046,6 +1053,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         overflowRenderer.font = font;
         overflowRenderer.otfFeaturesApplied = otfFeaturesApplied;
         overflowRenderer.parent = parent;
+        overflowRenderer.textWidths = textWidths;
         overflowRenderer.addAllProperties(getOwnProperties());
 
         return new TextRenderer[]{splitRenderer, overflowRenderer};
@@ -1119,6 +1127,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         this.text = gl;
         this.font = font;
         this.otfFeaturesApplied = false;
+        this.textWidths = null;
         this.strToBeConverted = null;
         setProperty(Property.FONT, font);
     }
@@ -1181,7 +1190,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         return TextUtil.isNonPrintable(c);
     }
 
-    private float getCharWidth(Glyph g, float fontSize, Float hScale, Float characterSpacing, Float wordSpacing) {
+    private static float getCharWidth(Glyph g, float fontSize, Float hScale, Float characterSpacing, Float wordSpacing) {
         if (hScale == null)
             hScale = 1f;
 
@@ -1195,7 +1204,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         return resultWidth;
     }
 
-    private float scaleXAdvance(float xAdvance, float fontSize, Float hScale) {
+    private static float scaleXAdvance(float xAdvance, float fontSize, Float hScale) {
         return xAdvance * fontSize * (float) hScale;
     }
 
@@ -1212,6 +1221,58 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         return width / TEXT_SPACE_COEFF;
     }
 
+    /**
+     * Gets the widths of the glyphs of {@link #text}, measuring them only if they have not been measured
+     * with the same font and spacing yet by this renderer or a renderer it was split from.
+     */
+    private GlyphWidths getTextWidths(float fontSize, float hScale, Float characterSpacing, Float wordSpacing) {
+        if (textWidths == null || !textWidths.isApplicable(text, font, fontSize, hScale, characterSpacing, wordSpacing)) {
+            textWidths = new GlyphWidths(text, font, fontSize, hScale, characterSpacing, wordSpacing);
+        }
+        return textWidths;
+    }
+
+    /**
+     * Gets the width of the part of the word before a hyphenation point together with the hyphen symbol.
+     * The part is measured as a new {@link GlyphLine} converted from the string, so neither kerning nor other
+     * OpenType features are taken into account. If the glyphs of the word in {@link #text} are checked to be
+     * exactly the glyphs of such a line, the measured widths of the text are used instead.
+     *
+     * @param wordWidths the widths of {@link #text}, or {@code null} if the word has to be converted and measured
+     */
+    private float getHyphenatedPartWidth(GlyphWidths wordWidths, int start, String pre, char hyphenSymbol,
+                                         float fontSize, float hScale, Float characterSpacing, Float wordSpacing) {
+        Glyph hyphenGlyph = font.getGlyph(hyphenSymbol);
+        if (wordWidths == null || hyphenGlyph == null || start + pre.length() > text.end) {
+            return getGlyphLineWidth(convertToGlyphLine(pre + hyphenSymbol), fontSize, hScale, characterSpacing, wordSpacing);
+        }
+        float width = wordWidths.getWidth(start, start + pre.length());
+        if (!noPrint(hyphenGlyph)) {
+            width += getCharWidth(hyphenGlyph, fontSize, hScale, characterSpacing, wordSpacing) / TEXT_SPACE_COEFF;
+        }
+        return width;
+    }
+
+    /**
+     * Checks that the glyphs [start, end) of {@link #text} are the glyphs the font gives for the characters
+     * of the word, one per character, and that they are neither kerned nor positioned,
+     * i.e. no ligatures, substitutions or adjustments have been applied to them.
+     */
+    private boolean isUnshapedWord(String word, int start, int end) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            Glyph glyph = text.get(start + i);
+            Glyph fontGlyph = font.getGlyph(word.charAt(i));
+            if (fontGlyph == null || glyph.getCode() != fontGlyph.getCode() || glyph.getWidth() != fontGlyph.getWidth()
+                    || glyph.getUnicode() != word.charAt(i) || glyph.hasOffsets()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private int[] getWordBoundsForHyphenation(GlyphLine text, int leftTextPos, int rightTextPos, int wordMiddleCharPos) {
         while (wordMiddleCharPos >= leftTextPos && !isGlyphPartOfWordForHyphenation(text.get(wordMiddleCharPos))
                 && !TextUtil.isUni0020(text.get(wordMiddleCharPos))) {
@@ -1242,6 +1303,7 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
             font = getPropertyAsFont(Property.FONT);
             text = convertToGlyphLine(strToBeConverted);
             otfFeaturesApplied = false;
+            textWidths = null;
             strToBeConverted = null;
         }
     }
@@ -1271,6 +1333,88 @@ public class TextRenderer extends AbstractRenderer implements ILeafElementRender
         return line;
     }
 
+    /**
+     * Widths of the glyphs of a {@link GlyphLine} measured with a specific font and spacing, together with
+     * their prefix sums, so that the width of any range of glyphs is calculated in constant time.
+     * The glyphs are indexed the same way as in the {@link GlyphLine}, so the widths can be shared by all the
+     * lines copied from the measured one, as long as they keep the same glyphs.
+     */
+    private static class GlyphWidths {
+        private final PdfFont font;
+        private final float fontSize;
+        private final float hScale;
+        private final Float characterSpacing;
+        private final Float wordSpacing;
+        private final Glyph firstGlyph;
+        private final Glyph lastGlyph;
+
+        private final float[] charWidths;
+        private final float[] xAdvances;
+        private final boolean[] printable;
+        // widthSums[i] is the width of the printable glyphs [0, i) together with the x advances preceding them
+        private final double[] widthSums;
+
+        GlyphWidths(GlyphLine line, PdfFont font, float fontSize, float hScale, Float characterSpacing, Float wordSpacing) {
+            this.font = font;
+            this.fontSize = fontSize;
+            this.hScale = hScale;
+            this.characterSpacing = characterSpacing;
+            this.wordSpacing = wordSpacing;
+            int size = line.size();
+            this.firstGlyph = size > 0 ? line.get(0) : null;
+            this.lastGlyph = size > 0 ? line.get(size - 1) : null;
+            charWidths = new float[size];
+            xAdvances = new float[size];
+            printable = new boolean[size];
+            widthSums = new double[size + 1];
+            for (int i = 0; i < size; i++) {
+                Glyph glyph = line.get(i);
+                charWidths[i] = getCharWidth(glyph, fontSize, hScale, characterSpacing, wordSpacing);
+                xAdvances[i] = glyph.getXAdvance() != 0 ? scaleXAdvance(glyph.getXAdvance(), fontSize, hScale) / TEXT_SPACE_COEFF : 0;
+                printable[i] = !noPrint(glyph);
+                widthSums[i + 1] = widthSums[i];
+                if (printable[i]) {
+                    widthSums[i + 1] += charWidths[i] + (i > 0 ? scaleXAdvance(line.get(i - 1).getXAdvance(), fontSize, hScale) : 0);
+                }
+            }
+        }
+
+        boolean isApplicable(GlyphLine line, PdfFont font, float fontSize, float hScale, Float characterSpacing, Float wordSpacing) {
+            int size = line.size();
+            return this.font == font && this.fontSize == fontSize && this.hScale == hScale
+                    && equals(this.characterSpacing, characterSpacing) && equals(this.wordSpacing, wordSpacing)
+                    && charWidths.length == size && (size == 0 || (line.get(0) == firstGlyph && line.get(size - 1) == lastGlyph));
+        }
+
+        float getGlyphWidth(int index) {
+            return charWidths[index] / TEXT_SPACE_COEFF;
+        }
+
+        float getXAdvance(int index) {
+            return xAdvances[index];
+        }
+
+        /**
+         * Gets the width of the glyphs [start, end) the same way as if they formed a separate {@link GlyphLine},
+         * i.e. without the x advance of the glyph preceding the range.
+         */
+        float getWidth(int start, int end) {
+            if (start >= end) {
+                return 0;
+            }
+            double width = widthSums[end] - widthSums[start + 1];
+            if (printable[start]) {
+                // the width of the first glyph is counted, but the x advance preceding it is not
+                width += charWidths[start];
+            }
+            return (float) (width / TEXT_SPACE_COEFF);
+        }
+
+        private static boolean equals(Float a, Float b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
     private static class ReversedCharsIterator implements Iterator<GlyphLine.GlyphLinePart> {
         private List<Integer> outStart;
         private List<Integer> outEnd;
@@ -42,17 +42,24 @@
  */
 package com.itextpdf.layout;
 
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.layout.element.AreaBreak;
 import com.itextpdf.layout.element.Div;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.layout.LayoutArea;
 import com.itextpdf.layout.property.AreaBreakType;
+import com.itextpdf.layout.property.TextAlignment;
 import com.itextpdf.layout.renderer.DivRenderer;
 import com.itextpdf.layout.renderer.IRenderer;
 import com.itextpdf.test.ExtendedITextTest;
@@ -63,6 +70,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -71,6 +79,7 @@ public class AreaBreakTest extends ExtendedITextTest {
 
     public static final String sourceFolder = "./src/test/resources/com/itextpdf/layout/AreaBreakTest/";
     public static final String destinationFolder = "./target/test/com/itextpdf/layout/AreaBreakTest/";
+    public static final String fontsFolder = "./src/test/resources/com/itextpdf/layout/fonts/";
 
     @BeforeClass
     public static void beforeClass() {
@@ -256,6 +265,75 @@ public class AreaBreakTest extends ExtendedITextTest {
         Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, "diff"));
     }
 
+    @Test
+    public void independentSectionsTest() throws IOException {
+        String outFileName = destinationFolder + "independentSections.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(outFileName));
+
+        Document document = new Document(pdfDocument);
+        document.add(new Paragraph("Before sections"));
+        List<IDocumentSection> sections = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            final String text = "Section " + i;
+            sections.add(new IDocumentSection() {
+                @Override
+                public void addContent(Document document) {
+                    document.add(new Paragraph(text)).add(new AreaBreak()).add(new Paragraph(text + " continued"));
+                }
+            });
+        }
+        document.addSections(sections, 2);
+        document.add(new Paragraph("After sections"));
+        document.close();
+
+        PdfDocument resultDocument = new PdfDocument(new PdfReader(outFileName));
+        Assert.assertEquals(10, resultDocument.getNumberOfPages());
+        Assert.assertEquals("Before sections", PdfTextExtractor.getTextFromPage(resultDocument.getPage(1)));
+        Assert.assertEquals("Section 1", PdfTextExtractor.getTextFromPage(resultDocument.getPage(2)));
+        Assert.assertEquals("Section 3 continued", PdfTextExtractor.getTextFromPage(resultDocument.getPage(7)));
+        Assert.assertEquals("After sections", PdfTextExtractor.getTextFromPage(resultDocument.getPage(10)));
+        resultDocument.close();
+    }
+
+    @Test
+    public void sectionsShareFontsAndPropertiesTest() throws IOException {
+        String outFileName = destinationFolder + "sectionsShareFontsAndProperties.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(outFileName));
+
+        Document document = new Document(pdfDocument, PageSize.A4, false);
+        PdfFont font = PdfFontFactory.createFont(fontsFolder + "FreeSans.ttf", PdfEncodings.IDENTITY_H);
+        document.setFont(font).setFontSize(20).setTextAlignment(TextAlignment.RIGHT);
+        document.add(new Paragraph("Before sections"));
+        List<IDocumentSection> sections = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            final String text = i == 2 ? "Section xyz" : "Section " + i;
+            sections.add(new IDocumentSection() {
+                @Override
+                public void addContent(Document document) {
+                    document.add(new Paragraph(text));
+                }
+            });
+        }
+        document.addSections(sections, 3);
+        try {
+            document.relayout();
+            Assert.fail("Relayout after sections is expected to fail");
+        } catch (IllegalStateException expected) {
+        }
+        document.close();
+
+        PdfDocument resultDocument = new PdfDocument(new PdfReader(outFileName));
+        Assert.assertEquals(4, resultDocument.getNumberOfPages());
+        PdfDictionary firstPageFonts = resultDocument.getPage(1).getResources().getResource(PdfName.Font);
+        PdfDictionary sectionPageFonts = resultDocument.getPage(3).getResources().getResource(PdfName.Font);
+        Assert.assertEquals(1, sectionPageFonts.size());
+        Assert.assertEquals(firstPageFonts.get(firstPageFonts.keySet().iterator().next()).getIndirectReference(),
+                sectionPageFonts.get(sectionPageFonts.keySet().iterator().next()).getIndirectReference());
+        Assert.assertEquals("Section xyz", PdfTextExtractor.getTextFromPage(resultDocument.getPage(3)));
+        Assert.assertTrue(new String(resultDocument.getPage(3).getContentBytes()).contains(" 20 Tf"));
+        resultDocument.close();
+    }
+
     private static class DivRendererWithAreas extends DivRenderer {
 
         public DivRendererWithAreas(Div modelElement) {
@@ -476,4 +476,42 @@ public class LargeElementTest extends ExtendedITextTest {
         Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, testName + "_diff"));
     }
 
+    @Test
+    public void largeTableAutoFlushTest() throws IOException, InterruptedException {
+        String testName = "largeTableAutoFlushTest.pdf";
+        String outFileName = destinationFolder + testName;
+        String cmpFileName = destinationFolder + "cmp_" + testName;
+
+        // The reference is the same table flushed manually before every 10 rows.
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(cmpFileName));
+        Document doc = new Document(pdfDoc);
+        Table table = new Table(5, true);
+        doc.add(table);
+        for (int i = 0; i < 100; i++) {
+            if (i > 0 && i % 10 == 0) {
+                table.flush();
+            }
+            for (int j = 0; j < 5; j++) {
+                table.addCell(new Cell().add(new Paragraph(MessageFormat.format("Cell {0}, {1}", i + 1, j + 1))));
+            }
+        }
+        table.complete();
+        doc.close();
+
+        pdfDoc = new PdfDocument(new PdfWriter(outFileName));
+        doc = new Document(pdfDoc);
+        table = new Table(5, true).setAutoFlushRowCount(10);
+        doc.add(table);
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 5; j++) {
+                table.addCell(new Cell().add(new Paragraph(MessageFormat.format("Cell {0}, {1}", i + 1, j + 1))));
+            }
+            Assert.assertTrue(table.getNumberOfRows() <= 10);
+        }
+        table.complete();
+        doc.close();
+
+        Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, testName + "_diff"));
+    }
+
 }
@@ -118,6 +118,47 @@ public class PreLayoutTest extends ExtendedITextTest{
         Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, "diff"));
     }
 
+    @Test
+    public void incrementalRelayoutTest() throws IOException, InterruptedException {
+        String outFileName = destinationFolder + "incrementalRelayoutTest.pdf";
+        // the result of the incremental relayout is the same as of the entire one
+        String cmpFileName = sourceFolder + "cmp_preLayoutTest01.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(outFileName));
+
+        Document document = new Document(pdfDocument, PageSize.Default, false);
+
+        List<Paragraph> pageNumberParagraphs = new ArrayList<>();
+        List<IRenderer> pageNumberRenderers = new ArrayList<>();
+
+        document.setProperty(Property.FONT, PdfFontFactory.createFont(FontConstants.HELVETICA));
+
+        for (int i = 0; i < 200; i++) {
+            document.add(new Paragraph("This is just junk text"));
+            if (i % 10 == 0) {
+                Text pageNumberText = new Text("Page #: {pageNumber}");
+                IRenderer renderer = new TextRenderer(pageNumberText);
+                pageNumberText.setNextRenderer(renderer);
+                pageNumberRenderers.add(renderer);
+
+                Paragraph pageNumberParagraph = new Paragraph().add(pageNumberText);
+                pageNumberParagraphs.add(pageNumberParagraph);
+                document.add(pageNumberParagraph);
+            }
+        }
+
+        for (IRenderer renderer : pageNumberRenderers) {
+            String currentData = renderer.toString().replace("{pageNumber}", String.valueOf(renderer.getOccupiedArea().getPageNumber()));
+            ((TextRenderer)renderer).setText(currentData);
+            ((Text)renderer.getModelElement()).setNextRenderer(renderer);
+        }
+
+        document.relayout(pageNumberParagraphs);
+
+        document.close();
+
+        Assert.assertNull(new CompareTool().compareByContent(outFileName, cmpFileName, destinationFolder, "diff"));
+    }
+
     @Test
     public void preLayoutTest02() throws IOException, InterruptedException {
         String outFileName = destinationFolder + "preLayoutTest02.pdf";
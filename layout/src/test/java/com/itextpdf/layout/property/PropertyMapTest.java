@@ -0,0 +1,147 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2017 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.layout.property;
+
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class PropertyMapTest extends ExtendedITextTest {
+
+    @Test
+    public void putGetRemoveTest() {
+        PropertyMap map = new PropertyMap();
+        map.put(Property.FONT_SIZE, 12f);
+        map.put(Property.BOLD_SIMULATION, null);
+        map.put(1000, "big");
+        map.put(-1, "negative");
+
+        Assert.assertEquals(4, map.size());
+        Assert.assertEquals(12f, map.get(Property.FONT_SIZE));
+        Assert.assertTrue(map.containsKey(Property.BOLD_SIMULATION));
+        Assert.assertNull(map.get(Property.BOLD_SIMULATION));
+        Assert.assertEquals("big", map.get(1000));
+        Assert.assertEquals("negative", map.get(-1));
+        Assert.assertFalse(map.containsKey(Property.ITALIC_SIMULATION));
+
+        Map<Integer, Object> expected = new HashMap<>();
+        expected.put(Property.FONT_SIZE, 12f);
+        expected.put(Property.BOLD_SIMULATION, null);
+        expected.put(1000, "big");
+        expected.put(-1, "negative");
+        Assert.assertEquals(expected, map);
+
+        Assert.assertEquals(12f, map.remove(Property.FONT_SIZE));
+        Assert.assertNull(map.remove(Property.FONT_SIZE));
+        Assert.assertEquals("big", map.remove(1000));
+        Assert.assertEquals(2, map.size());
+    }
+
+    @Test
+    public void copyOnWriteTest() {
+        PropertyMap map = new PropertyMap();
+        map.put(Property.FONT_SIZE, 12f);
+        PropertyMap copy = new PropertyMap(map);
+
+        copy.put(Property.FONT_SIZE, 14f);
+        copy.put(Property.LEADING, null);
+        Assert.assertEquals(12f, map.get(Property.FONT_SIZE));
+        Assert.assertFalse(map.containsKey(Property.LEADING));
+        Assert.assertEquals(1, map.size());
+
+        map.remove(Property.FONT_SIZE);
+        Assert.assertEquals(14f, copy.get(Property.FONT_SIZE));
+        Assert.assertEquals(2, copy.size());
+    }
+
+    @Test
+    public void modificationsCountTest() {
+        PropertyMap map = new PropertyMap();
+        long fontSizeCount = PropertyMap.getModificationsCount(Property.FONT_SIZE);
+        map.put(Property.FONT_SIZE, 12f);
+        Assert.assertNotEquals(fontSizeCount, PropertyMap.getModificationsCount(Property.FONT_SIZE));
+
+        fontSizeCount = PropertyMap.getModificationsCount(Property.FONT_SIZE);
+        PropertyMap.registerModification();
+        Assert.assertNotEquals(fontSizeCount, PropertyMap.getModificationsCount(Property.FONT_SIZE));
+    }
+
+    @Test
+    public void modificationsCountIsPerThreadTest() throws InterruptedException {
+        final PropertyMap map = new PropertyMap();
+        long fontSizeCount = PropertyMap.getModificationsCount(Property.FONT_SIZE);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                map.put(Property.FONT_SIZE, 12f);
+                PropertyMap.registerModification();
+            }
+        });
+        thread.start();
+        thread.join();
+        Assert.assertEquals(12f, map.get(Property.FONT_SIZE));
+        Assert.assertEquals(fontSizeCount, PropertyMap.getModificationsCount(Property.FONT_SIZE));
+    }
+
+    @Test
+    public void addStyleRegistersModificationTest() {
+        Paragraph paragraph = new Paragraph();
+        Style style = new Style().setFontSize(20);
+        long fontSizeCount = PropertyMap.getModificationsCount(Property.FONT_SIZE);
+        paragraph.addStyle(style);
+        Assert.assertNotEquals(fontSizeCount, PropertyMap.getModificationsCount(Property.FONT_SIZE));
+
+        fontSizeCount = PropertyMap.getModificationsCount(Property.FONT_SIZE);
+        paragraph.addStyle(style);
+        Assert.assertEquals(fontSizeCount, PropertyMap.getModificationsCount(Property.FONT_SIZE));
+    }
+}
@@ -42,12 +42,15 @@
  */
 package com.itextpdf.layout.renderer;
 
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.font.otf.GlyphLine;
 import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.ByteBufferOutputStream;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Text;
+import com.itextpdf.layout.hyphenation.HyphenationConfig;
 import com.itextpdf.layout.layout.LayoutArea;
 import com.itextpdf.layout.layout.LayoutContext;
 import com.itextpdf.layout.layout.LayoutResult;
@@ -57,6 +60,9 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Category(UnitTest.class)
 public class TextRendererTest extends ExtendedITextTest {
 
@@ -84,4 +90,73 @@ public class TextRendererTest extends ExtendedITextTest {
         Assert.assertEquals(result1.getOccupiedArea(), result2.getOccupiedArea());
     }
 
+    @Test
+    public void overflowRendererLayoutTest() {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteBufferOutputStream()));
+        pdfDoc.addNewPage();
+        Document doc = new Document(pdfDoc);
+        RootRenderer documentRenderer = doc.getRenderer();
+
+        Text text = new Text("hello world hello world hello world");
+        IRenderer textRenderer = text.createRendererSubTree().setParent(documentRenderer);
+        LayoutContext layoutContext = new LayoutContext(new LayoutArea(1, new Rectangle(100, 100, 60, 100)));
+        LayoutResult result = textRenderer.layout(layoutContext);
+        Assert.assertEquals(LayoutResult.PARTIAL, result.getStatus());
+
+        // the overflow renderer reuses the glyph widths measured by the split one
+        LayoutResult overflowResult = result.getOverflowRenderer().setParent(documentRenderer).layout(layoutContext);
+        IRenderer freshRenderer = new Text(((TextRenderer) result.getOverflowRenderer()).getText().toString())
+                .createRendererSubTree().setParent(documentRenderer);
+        LayoutResult freshResult = freshRenderer.layout(layoutContext);
+
+        doc.close();
+
+        Assert.assertEquals(freshResult.getOccupiedArea(), overflowResult.getOccupiedArea());
+    }
+
+    @Test
+    public void hyphenationOfKernedTextTest() {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteBufferOutputStream()));
+        pdfDoc.addNewPage();
+        Document doc = new Document(pdfDoc);
+        RootRenderer documentRenderer = doc.getRenderer();
+
+        // the kerned word is 40.8pt wide, "nnnnnn-" is 44pt wide without kerning and 34.4pt wide with it, "nnn-" is 24pt wide
+        LayoutContext layoutContext = new LayoutContext(new LayoutArea(1, new Rectangle(100, 100, 36, 100)));
+        String word = "nnn\u00adnnn\u00adnnn";
+
+        TextRenderer plainRenderer = createHyphenatedRenderer(word, documentRenderer);
+        LayoutResult plainResult = plainRenderer.layout(layoutContext);
+
+        TextRenderer kernedRenderer = createHyphenatedRenderer(word, documentRenderer);
+        GlyphLine line = kernedRenderer.getText();
+        List<Glyph> glyphs = new ArrayList<>();
+        for (int i = 0; i < line.size(); i++) {
+            Glyph glyph = new Glyph(line.get(i));
+            if (glyph.getUnicode() == 'n') {
+                glyph.setXAdvance((short) -200);
+            }
+            glyphs.add(glyph);
+        }
+        kernedRenderer.setText(new GlyphLine(glyphs), line.start, line.end);
+        LayoutResult kernedResult = kernedRenderer.layout(layoutContext);
+
+        doc.close();
+
+        // hyphenation points are chosen by the width of the word part without kerning
+        Assert.assertEquals(LayoutResult.PARTIAL, plainResult.getStatus());
+        Assert.assertEquals(LayoutResult.PARTIAL, kernedResult.getStatus());
+        Assert.assertEquals("nnn", ((TextRenderer) plainResult.getSplitRenderer()).getText().toString());
+        Assert.assertEquals("nnn", ((TextRenderer) kernedResult.getSplitRenderer()).getText().toString());
+        Assert.assertEquals(plainResult.getOccupiedArea(), kernedResult.getOccupiedArea());
+    }
+
+    private static TextRenderer createHyphenatedRenderer(String word, IRenderer parent) {
+        Text text = new Text(word);
+        text.setHyphenation(new HyphenationConfig(3, 3));
+        TextRenderer renderer = (TextRenderer) text.createRendererSubTree().setParent(parent);
+        renderer.getText();
+        return renderer;
+    }
+
 }